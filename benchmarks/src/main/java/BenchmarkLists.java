@@ -0,0 +1,138 @@
+import benchmarks.ListHandle;
+
+/**
+ * Factory exposing the console's lists to the benchmarks in named packages.
+ * It lives in the default package so it can reach the package-private list classes.
+ */
+public final class BenchmarkLists {
+    private BenchmarkLists() {
+    }
+
+    /**
+     * Creates an empty list of the named backend.
+     *
+     * @param backend array, indexed, counted, segmented, offheap, sorted, compressed, concurrent or gap
+     * @return the handle of the new list
+     * @throws IllegalArgumentException if the backend is unknown
+     */
+    public static ListHandle create(String backend) {
+        switch (backend) {
+            case "array":
+                // Range counts off, so queries measure the scans
+                DynamicArray array = new DynamicArray(2);
+                array.setRangeCountsEnabled(false);
+                return new Handle(array);
+            case "indexed":
+                // Configured like the console's list with --position-index
+                DynamicArray indexed = new DynamicArray(2, GrowthPolicy.DOUBLING, 0.25f);
+                indexed.setPositionIndexEnabled(true);
+                indexed.setRangeCountsEnabled(false);
+                return new Handle(indexed);
+            case "counted":
+                // Configured like the console's default list, range counts on for narrow value ranges
+                return new Handle(new DynamicArray(2, GrowthPolicy.DOUBLING, 0.25f));
+            case "segmented":
+                return new Handle(new SegmentedIntArray());
+            case "offheap":
+                return new Handle(new OffHeapIntArray());
+            case "sorted":
+                return new Handle(new SortedIntArray());
+            case "compressed":
+                return new Handle(new CompressedIntArray());
+            case "concurrent":
+                return new Handle(new ConcurrentIntArray());
+            case "gap":
+                return new Handle(new GapBufferIntArray());
+            default:
+                throw new IllegalArgumentException("Unknown backend: " + backend);
+        }
+    }
+
+    /** Handle forwarding to an {@link IntList}, with the menu analytics written as in Main */
+    private static final class Handle implements ListHandle {
+        /** List the calls are forwarded to */
+        private final IntList list;
+
+        Handle(IntList list) {
+            this.list = list;
+        }
+
+        @Override
+        public void add(int value) {
+            list.add(value);
+        }
+
+        @Override
+        public void addAll(int[] src, int off, int len) {
+            list.addAll(src, off, len);
+        }
+
+        @Override
+        public void ensureCapacity(int minCapacity) {
+            list.ensureCapacity(minCapacity);
+        }
+
+        @Override
+        public int getValue(int index) {
+            return list.getValue(index);
+        }
+
+        @Override
+        public void set(int index, int newValue) {
+            list.set(index, newValue);
+        }
+
+        @Override
+        public void insert(int index, int value) {
+            list.insert(index, value);
+        }
+
+        @Override
+        public void remove(int index) {
+            list.remove(index);
+        }
+
+        @Override
+        public int indexOf(int value) {
+            return list.indexOf(value);
+        }
+
+        @Override
+        public void clear() {
+            list.clear();
+        }
+
+        @Override
+        public int size() {
+            return list.size();
+        }
+
+        @Override
+        public int removeDuplicates() {
+            return list.distinctInPlace(IntList.DistinctMode.STABLE);
+        }
+
+        @Override
+        public int removeDuplicatesSorted() {
+            return list.distinctInPlace(IntList.DistinctMode.SORTED);
+        }
+
+        @Override
+        public int secondLargestDistinct() {
+            IntStats stats = list.stats();
+            return !stats.hasSecond() || stats.secondCount() > 1 ? Integer.MIN_VALUE : stats.second();
+        }
+
+        @Override
+        public long sumOfHighestOddAndEven() {
+            IntStats stats = list.stats();
+            if (stats.oddCount() == 0 || stats.evenCount() == 0) return Long.MIN_VALUE;
+            return (long) stats.highestOdd() + stats.highestEven();
+        }
+
+        @Override
+        public int replaceAllWithNewValue(int oldValue, int newValue) {
+            return list.contains(oldValue) ? list.replaceAll(oldValue, newValue) : 0;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Measures the algorithms behind the menu's analytics.
+ * Deduplication destroys its input, so those benchmarks refill the list first;
+ * subtract {@link ClearBenchmark#clearAndRefill} for the deduplication alone.
+ * Statistics are cached until the next modification, so those benchmarks rewrite
+ * the last element with its own value first to force a fresh scan.
+ */
+public class AnalyticsBenchmark extends BenchmarkDefaults {
+    /** Remove duplicates, keeping first occurrences in order */
+    @Benchmark
+    public int removeDuplicates(ListState state) {
+        refill(state);
+        return state.list.removeDuplicates();
+    }
+
+    /** Remove duplicates through a sort, losing the original order */
+    @Benchmark
+    public int removeDuplicatesSorted(ListState state) {
+        refill(state);
+        return state.list.removeDuplicatesSorted();
+    }
+
+    /** Show second largest element */
+    @Benchmark
+    public int secondLargestDistinct(ListState state) {
+        invalidateStats(state.list);
+        return state.list.secondLargestDistinct();
+    }
+
+    /** Get sum of highest odd and even */
+    @Benchmark
+    public long sumOfHighestOddAndEven(ListState state) {
+        invalidateStats(state.list);
+        return state.list.sumOfHighestOddAndEven();
+    }
+
+    /**
+     * Replace elements with new value, then back, so every invocation sees the same data.
+     * The replacement value is missing from the data, so both calls move every occurrence.
+     */
+    @Benchmark
+    public int replaceAllWithNewValue(ListState state) {
+        int value = state.data[state.size / 2];
+        return state.list.replaceAllWithNewValue(value, -1)
+                + state.list.replaceAllWithNewValue(-1, value);
+    }
+
+    /**
+     * Clears the list and appends all generated values again.
+     * @param state the state holding the list and the values
+     */
+    private static void refill(ListState state) {
+        state.list.clear();
+        state.list.addAll(state.data, 0, state.data.length);
+    }
+
+    /**
+     * Modifies the list without changing its elements, so cached statistics are dropped.
+     * The counted backend keeps its range counts through a set, so there it measures
+     * the bitmap lookups; the array backends have range counts off and measure a scan.
+     * @param list the list to modify
+     */
+    private static void invalidateStats(ListHandle list) {
+        int last = list.size() - 1;
+        list.set(last, list.getValue(last));
+    }
+}
@@ -0,0 +1,40 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Measures filling an empty list with all generated values, including every growth step.
+ * The score is the time of one full fill, so divide by size for the cost per element.
+ */
+public class AppendBenchmark extends BenchmarkDefaults {
+    /** Appends one value at a time, as the menu's add option does */
+    @Benchmark
+    public ListHandle add(ListState state) {
+        ListHandle list = state.newList();
+        int[] data = state.data;
+        for (int value : data) {
+            list.add(value);
+        }
+        return list;
+    }
+
+    /** Appends one value at a time after growing storage once, as the menu does when the count is known */
+    @Benchmark
+    public ListHandle addPresized(ListState state) {
+        ListHandle list = state.newList();
+        int[] data = state.data;
+        list.ensureCapacity(data.length);
+        for (int value : data) {
+            list.add(value);
+        }
+        return list;
+    }
+
+    /** Appends all values as one block, as loading a file does */
+    @Benchmark
+    public ListHandle addAll(ListState state) {
+        ListHandle list = state.newList();
+        list.addAll(state.data, 0, state.data.length);
+        return list;
+    }
+}
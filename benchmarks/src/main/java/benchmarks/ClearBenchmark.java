@@ -0,0 +1,19 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Measures clearing a full list and filling it again.
+ * Comparing with {@link AppendBenchmark#addAll} on a new list isolates the cost
+ * of clear itself and shows whether the cleared list reuses its storage.
+ */
+public class ClearBenchmark extends BenchmarkDefaults {
+    /** Clears the list, then appends all values as one block */
+    @Benchmark
+    public ListHandle clearAndRefill(ListState state) {
+        ListHandle list = state.list;
+        list.clear();
+        list.addAll(state.data, 0, state.data.length);
+        return list;
+    }
+}
@@ -0,0 +1,78 @@
+package benchmarks;
+
+import java.util.SplittableRandom;
+
+/**
+ * Shapes of generated input data.
+ * Values are non-negative, so negative values are guaranteed misses for searches.
+ */
+public enum Distribution {
+    /** Values drawn evenly from [0, size), so most values are distinct */
+    UNIFORM {
+        @Override
+        int next(SplittableRandom random, int size) {
+            return random.nextInt(Math.max(size, 1));
+        }
+    },
+    /** Values drawn from [0, size) with a power-law bias toward small values, few hot values dominate */
+    SKEWED {
+        @Override
+        int next(SplittableRandom random, int size) {
+            double u = random.nextDouble();
+            return (int) (Math.max(size, 1) * u * u * u * u);
+        }
+    },
+    /** Values drawn from [0, 16), so nearly every value is a duplicate */
+    DUPLICATE_HEAVY {
+        @Override
+        int next(SplittableRandom random, int size) {
+            return random.nextInt(16);
+        }
+    },
+    /** Runs of equal values about 200 long, each a step of at most one from the last, like sensor readings */
+    RUNS {
+        @Override
+        public int[] generate(int size) {
+            // The drawn values are steps, summed into the running value
+            int[] values = super.generate(size);
+            int value = 0;
+            for (int i = 0; i < size; i++) {
+                value = Math.max(value + values[i], 0);
+                values[i] = value;
+            }
+            return values;
+        }
+
+        @Override
+        int next(SplittableRandom random, int size) {
+            return random.nextInt(200) == 0 ? random.nextInt(3) - 1 : 0;
+        }
+    };
+
+    /** Seed shared by every run, so all backends and sizes see the same data */
+    private static final long SEED = 0x5DEECE66DL;
+
+    /**
+     * Generates values of this distribution.
+     *
+     * @param size the number of values
+     * @return the generated values
+     */
+    public int[] generate(int size) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        int[] values = new int[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = next(random, size);
+        }
+        return values;
+    }
+
+    /**
+     * Draws one value.
+     *
+     * @param random the source of randomness
+     * @param size the number of values being generated
+     * @return the drawn value
+     */
+    abstract int next(SplittableRandom random, int size);
+}
@@ -0,0 +1,93 @@
+package benchmarks;
+
+import java.util.SplittableRandom;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures replaying traces of inserts and removals, comparing the shifting array with the gap buffer.
+ * Every trace alternates an insert and a removal, so the size stays constant across invocations.
+ * The score is the mean time of one edit. Compaction is measured by AnalyticsBenchmark with -p backend=gap.
+ */
+public class EditTraceBenchmark extends BenchmarkDefaults {
+    /** Number of edits in one trace */
+    private static final int TRACE_LENGTH = 1024;
+
+    /** Farthest the cursor moves between two edits of a local trace */
+    private static final int CURSOR_STEP = 8;
+
+    /** A full list and the edit traces replayed on it */
+    @State(Scope.Thread)
+    public static class EditState {
+        /** Number of elements */
+        @Param({"10000", "1000000"})
+        public int size;
+
+        /** Backend holding the elements, array shifts on every edit and gap moves its gap */
+        @Param({"array", "gap"})
+        public String backend;
+
+        /** List filled with generated values before each trial */
+        public ListHandle list;
+
+        /** Edit positions moving by a few elements at a time around a cursor, as when editing text */
+        public int[] localTrace;
+
+        /** Edit positions drawn anywhere in the list, the worst case of the gap buffer */
+        public int[] scatteredTrace;
+
+        /** Fills the list and draws the traces once per trial */
+        @Setup(Level.Trial)
+        public void setUp() {
+            list = ListHandle.create(backend);
+            list.addAll(Distribution.UNIFORM.generate(size), 0, size);
+
+            SplittableRandom random = new SplittableRandom(size);
+            localTrace = new int[TRACE_LENGTH];
+            scatteredTrace = new int[TRACE_LENGTH];
+            int cursor = size / 2;
+            for (int i = 0; i < TRACE_LENGTH; i++) {
+                cursor = Math.max(0, Math.min(size - 1, cursor + random.nextInt(-CURSOR_STEP, CURSOR_STEP + 1)));
+                localTrace[i] = cursor;
+                scatteredTrace[i] = random.nextInt(size);
+            }
+        }
+    }
+
+    /** Edits around a moving cursor, O(1) amortized for the gap buffer */
+    @Benchmark
+    @OperationsPerInvocation(TRACE_LENGTH)
+    public int localEdits(EditState state) {
+        return replay(state.list, state.localTrace);
+    }
+
+    /** Edits at random positions, every edit moves the gap across a random distance */
+    @Benchmark
+    @OperationsPerInvocation(TRACE_LENGTH)
+    public int scatteredEdits(EditState state) {
+        return replay(state.list, state.scatteredTrace);
+    }
+
+    /**
+     * Inserts at even steps and removes at odd steps of a trace.
+     *
+     * @param list the list to edit
+     * @param trace the positions of the edits
+     * @return the last removed value
+     */
+    private static int replay(ListHandle list, int[] trace) {
+        int value = 0;
+        for (int i = 0; i < trace.length; i += 2) {
+            list.insert(trace[i], value);
+            value = list.getValue(trace[i + 1]);
+            list.remove(trace[i + 1]);
+        }
+        return value;
+    }
+}
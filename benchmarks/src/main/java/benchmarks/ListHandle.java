@@ -0,0 +1,109 @@
+package benchmarks;
+
+/**
+ * Interface through which the benchmarks drive the console's integer lists.
+ * The console classes live in the default package, which named packages cannot
+ * import, so the implementation sits in the default package and is loaded once
+ * by name. Only one implementation is ever loaded, so calls stay monomorphic and
+ * the JIT inlines them like direct calls.
+ */
+public interface ListHandle {
+    /** Backends accepted by {@link #create(String)}, in the order of the --backend flag */
+    String[] BACKENDS = {"array", "indexed", "counted", "segmented", "offheap", "sorted", "compressed", "concurrent", "gap"};
+
+    /**
+     * Creates an empty list of the named backend.
+     *
+     * @param backend array, indexed (array with its position index), counted (array with its range counts), segmented, offheap, sorted, compressed, concurrent or gap
+     * @return the handle of the new list
+     * @throws IllegalArgumentException if the backend is unknown
+     */
+    static ListHandle create(String backend) {
+        try {
+            return (ListHandle) Class.forName("BenchmarkLists")
+                    .getMethod("create", String.class)
+                    .invoke(null, backend);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Unable to load the console classes", e);
+        }
+    }
+
+    /** @param value the value to append */
+    void add(int value);
+
+    /**
+     * @param src the array holding the values to append
+     * @param off the index of the first value in src
+     * @param len the number of values to append
+     */
+    void addAll(int[] src, int off, int len);
+
+    /** @param minCapacity the expected number of elements */
+    void ensureCapacity(int minCapacity);
+
+    /**
+     * @param index the index of the element to retrieve
+     * @return the value stored at the index
+     */
+    int getValue(int index);
+
+    /**
+     * @param index the index of the element to update
+     * @param newValue the new value to set
+     */
+    void set(int index, int newValue);
+
+    /**
+     * @param index the index where the value will be placed
+     * @param value the value to insert
+     */
+    void insert(int index, int value);
+
+    /** @param index the index of the element to remove */
+    void remove(int index);
+
+    /**
+     * @param value the value to search for
+     * @return the index of the value, or -1 if not found
+     */
+    int indexOf(int value);
+
+    /** Clears all elements */
+    void clear();
+
+    /** @return the number of elements */
+    int size();
+
+    /**
+     * Removes duplicates keeping the first occurrences, as the menu does.
+     * @return the number of removed elements
+     */
+    int removeDuplicates();
+
+    /**
+     * Removes duplicates by sorting first.
+     * @return the number of removed elements
+     */
+    int removeDuplicatesSorted();
+
+    /**
+     * Computes the second largest distinct value, as the menu does.
+     * @return the second largest value, or Integer.MIN_VALUE if there is none
+     */
+    int secondLargestDistinct();
+
+    /**
+     * Computes the sum of the highest odd and the highest even value, as the menu does.
+     * @return the sum, or Long.MIN_VALUE if either is missing
+     */
+    long sumOfHighestOddAndEven();
+
+    /**
+     * Replaces every occurrence of a value after checking it exists, as the menu does.
+     *
+     * @param oldValue the value to replace
+     * @param newValue the value to put in its place
+     * @return the number of replaced elements
+     */
+    int replaceAllWithNewValue(int oldValue, int newValue);
+}
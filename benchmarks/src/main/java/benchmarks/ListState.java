@@ -0,0 +1,48 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Generated data and a list filled with it, shared by all benchmarks.
+ * The default sizes cover 10^2 to 10^8 in steps of 100x; pass -p size=... for others.
+ */
+@State(Scope.Thread)
+public class ListState {
+    /** Number of elements */
+    @Param({"100", "10000", "1000000", "100000000"})
+    public int size;
+
+    /** Shape of the generated values */
+    @Param({"UNIFORM", "SKEWED", "DUPLICATE_HEAVY", "RUNS"})
+    public Distribution distribution;
+
+    /** Backend holding the elements, one of {@link ListHandle#BACKENDS} */
+    @Param({"array"})
+    public String backend;
+
+    /** Generated values, the list holds them in this order */
+    public int[] data;
+
+    /** List filled with the generated values before each trial */
+    public ListHandle list;
+
+    /** Fills the list once per trial */
+    @Setup(Level.Trial)
+    public void setUp() {
+        data = distribution.generate(size);
+        list = newList();
+        list.addAll(data, 0, size);
+    }
+
+    /**
+     * Creates an empty list of the benchmarked backend.
+     * @return the new list
+     */
+    public ListHandle newList() {
+        return ListHandle.create(backend);
+    }
+}
@@ -0,0 +1,42 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Measures removing one element at the head, middle and tail of a full list.
+ * Each removal is paired with an append of the removed value, so the size stays
+ * constant across invocations; the tail case measures that pair on its own.
+ */
+public class RemoveBenchmark extends BenchmarkDefaults {
+    /** Removes the first element, shifting all others */
+    @Benchmark
+    public int removeHead(ListState state) {
+        return removeAndAppend(state.list, 0);
+    }
+
+    /** Removes the middle element, shifting half of the others */
+    @Benchmark
+    public int removeMiddle(ListState state) {
+        return removeAndAppend(state.list, state.size / 2);
+    }
+
+    /** Removes the last element, shifting nothing */
+    @Benchmark
+    public int removeTail(ListState state) {
+        return removeAndAppend(state.list, state.size - 1);
+    }
+
+    /**
+     * Removes the element at an index and appends its value again.
+     *
+     * @param list the list to modify
+     * @param index the index to remove
+     * @return the moved value
+     */
+    private static int removeAndAppend(ListHandle list, int index) {
+        int value = list.getValue(index);
+        list.remove(index);
+        list.add(value);
+        return value;
+    }
+}
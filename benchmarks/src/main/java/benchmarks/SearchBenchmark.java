@@ -0,0 +1,22 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Measures indexOf for a present value and for a missing one.
+ * The present value is the middle generated value, so its first occurrence
+ * depends on how often the distribution repeats it.
+ */
+public class SearchBenchmark extends BenchmarkDefaults {
+    /** Searches for a value that is in the list */
+    @Benchmark
+    public int indexOfHit(ListState state) {
+        return state.list.indexOf(state.data[state.size / 2]);
+    }
+
+    /** Searches for a value that is not in the list, scanning every element */
+    @Benchmark
+    public int indexOfMiss(ListState state) {
+        return state.list.indexOf(-1);
+    }
+}
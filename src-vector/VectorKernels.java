@@ -0,0 +1,254 @@
+import java.util.Arrays;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD versions of the {@link IntKernels}, on the widest int vectors of the CPU.
+ * Comparisons produce lane masks instead of branches: searches test a whole vector
+ * at once, replace-all blends the new value into the matching lanes, and statistics
+ * keep per-lane maxima that are reduced across lanes at the end.
+ * Only loaded when the jdk.incubator.vector module is present; elements after the
+ * last full vector go through the scalar loops. Kept out of src so that the rest of
+ * the sources compile without the module.
+ */
+final class VectorKernels extends IntKernels {
+    /** Widest int vector shape the CPU supports */
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    /** Vectors whose 16-bit halves can be summed, and reduced across lanes, within an int */
+    private static final int SUM_BLOCK = (1 << 15) / SPECIES.length();
+
+    /**
+     * Returns the lowest index holding a value, testing one vector per step.
+     *
+     * @param data the array holding the range
+     * @param from the index of the first element to search
+     * @param to the index after the last element to search
+     * @param value the value to search for
+     * @return the index of the value, or -1 if not found
+     */
+    @Override
+    int indexOf(int[] data, int from, int to, int value) {
+        int i = from;
+        int bound = from + SPECIES.loopBound(to - from);
+        for (; i < bound; i += SPECIES.length()) {
+            VectorMask<Integer> hit = IntVector.fromArray(SPECIES, data, i).compare(VectorOperators.EQ, value);
+            if (hit.anyTrue()) return i + hit.firstTrue();
+        }
+        return super.indexOf(data, i, to, value);
+    }
+
+    /**
+     * Returns the highest index holding a value, testing one vector per step from the end.
+     *
+     * @param data the array holding the range
+     * @param from the index of the first element to search
+     * @param to the index after the last element to search
+     * @param value the value to search for
+     * @return the index of the value, or -1 if not found
+     */
+    @Override
+    int lastIndexOf(int[] data, int from, int to, int value) {
+        int i = to;
+        int bound = to - SPECIES.loopBound(to - from);
+        while (i > bound) {
+            i -= SPECIES.length();
+            VectorMask<Integer> hit = IntVector.fromArray(SPECIES, data, i).compare(VectorOperators.EQ, value);
+            if (hit.anyTrue()) return i + hit.lastTrue();
+        }
+        return super.lastIndexOf(data, from, i, value);
+    }
+
+    /**
+     * Returns every index holding a value.
+     * Each vector is compared at once, and only the set bits of its mask are visited.
+     *
+     * @param data the array holding the range
+     * @param from the index of the first element to search
+     * @param to the index after the last element to search
+     * @param value the value to search for
+     * @return the ascending indices of the value
+     */
+    @Override
+    int[] indicesOf(int[] data, int from, int to, int value) {
+        int[] indices = new int[8];
+        int found = 0;
+        int i = from;
+        int bound = from + SPECIES.loopBound(to - from);
+        for (; i < bound; i += SPECIES.length()) {
+            VectorMask<Integer> hit = IntVector.fromArray(SPECIES, data, i).compare(VectorOperators.EQ, value);
+            if (!hit.anyTrue()) continue;
+
+            // Compacts the matching lanes into the output, lowest lane first
+            if (found + SPECIES.length() > indices.length) {
+                indices = Arrays.copyOf(indices, Math.max(indices.length * 2, found + SPECIES.length()));
+            }
+            for (long bits = hit.toLong(); bits != 0; bits &= bits - 1) {
+                indices[found++] = i + Long.numberOfTrailingZeros(bits);
+            }
+        }
+
+        int[] tail = super.indicesOf(data, i, to, value);
+        indices = Arrays.copyOf(indices, found + tail.length);
+        System.arraycopy(tail, 0, indices, found, tail.length);
+        return indices;
+    }
+
+    /**
+     * Replaces every occurrence of a value by blending the new value into the matching lanes.
+     * Vectors without a match are not written back.
+     *
+     * @param data the array holding the range
+     * @param from the index of the first element
+     * @param to the index after the last element
+     * @param oldValue the value to replace
+     * @param newValue the value to put in its place
+     * @return the number of replaced elements
+     */
+    @Override
+    int replaceAll(int[] data, int from, int to, int oldValue, int newValue) {
+        int replaced = 0;
+        int i = from;
+        int bound = from + SPECIES.loopBound(to - from);
+        for (; i < bound; i += SPECIES.length()) {
+            IntVector values = IntVector.fromArray(SPECIES, data, i);
+            VectorMask<Integer> hit = values.compare(VectorOperators.EQ, oldValue);
+            if (hit.anyTrue()) {
+                values.blend(newValue, hit).intoArray(data, i);
+                replaced += hit.trueCount();
+            }
+        }
+        return replaced + super.replaceAll(data, i, to, oldValue, newValue);
+    }
+
+    /**
+     * Replaces every occurrence of a value, blending the new value into the matching lanes
+     * and copying the lane mask into the bitmap of replaced positions.
+     * A vector's mask spans two words of the bitmap when it does not start on a word.
+     *
+     * @param data the array holding the range
+     * @param from the index of the first element
+     * @param to the index after the last element
+     * @param oldValue the value to replace
+     * @param newValue the value to put in its place
+     * @param marks the bitmap to set the replaced positions in
+     * @param base the position of the first bit, a multiple of 64 at most from
+     * @return the number of replaced elements
+     */
+    @Override
+    int replaceAll(int[] data, int from, int to, int oldValue, int newValue, long[] marks, int base) {
+        int replaced = 0;
+        int i = from;
+        int bound = from + SPECIES.loopBound(to - from);
+        for (; i < bound; i += SPECIES.length()) {
+            IntVector values = IntVector.fromArray(SPECIES, data, i);
+            VectorMask<Integer> hit = values.compare(VectorOperators.EQ, oldValue);
+            if (hit.anyTrue()) {
+                values.blend(newValue, hit).intoArray(data, i);
+                replaced += hit.trueCount();
+
+                long bits = hit.toLong();
+                int word = (i - base) >>> 6;
+                int shift = i & 63;
+                marks[word] |= bits << shift;
+                if (shift + SPECIES.length() > 64) marks[word + 1] |= bits >>> (64 - shift);
+            }
+        }
+        return replaced + super.replaceAll(data, i, to, oldValue, newValue, marks, base);
+    }
+
+    /**
+     * Adds the values of a range to statistics in two branch-free passes.
+     * The first pass keeps, per lane, the sum, the minimum, the two largest distinct
+     * values and the largest odd and even values; the second counts the occurrences
+     * of the maxima found by reducing those lanes.
+     *
+     * @param data the array holding the range
+     * @param from the index of the first value
+     * @param to the index after the last value
+     * @param into the statistics to add to
+     */
+    @Override
+    void accumulate(int[] data, int from, int to, IntStats into) {
+        int bound = from + SPECIES.loopBound(to - from);
+        if (bound == from) {
+            super.accumulate(data, from, to, into);
+            return;
+        }
+
+        IntVector lowest = IntVector.broadcast(SPECIES, Integer.MIN_VALUE);
+        IntVector min = IntVector.broadcast(SPECIES, Integer.MAX_VALUE);
+        IntVector max = lowest;
+        IntVector second = max;
+        IntVector oddMax = max;
+        IntVector evenMax = max;
+        IntVector odd = IntVector.zero(SPECIES);
+        long sum = 0;
+
+        int i = from;
+        while (i < bound) {
+            // The low and high 16 bits are summed apart, so neither the lanes nor their reduction overflow
+            IntVector low = IntVector.zero(SPECIES);
+            IntVector high = IntVector.zero(SPECIES);
+            int blockEnd = bound - i > SUM_BLOCK * SPECIES.length() ? i + SUM_BLOCK * SPECIES.length() : bound;
+            for (; i < blockEnd; i += SPECIES.length()) {
+                IntVector values = IntVector.fromArray(SPECIES, data, i);
+                low = low.add(values.and(0xFFFF));
+                high = high.add(values.lanewise(VectorOperators.ASHR, 16));
+                min = min.min(values);
+
+                // A larger value demotes the lane maximum to second, a smaller one may become second
+                VectorMask<Integer> above = values.compare(VectorOperators.GT, max);
+                VectorMask<Integer> below = values.compare(VectorOperators.LT, max);
+                second = second.blend(second.max(values), below).blend(max, above);
+                max = max.max(values);
+
+                IntVector parity = values.and(1);
+                VectorMask<Integer> isOdd = parity.compare(VectorOperators.NE, 0);
+                odd = odd.add(parity);
+                oddMax = oddMax.max(lowest.blend(values, isOdd));
+                evenMax = evenMax.max(values.blend(lowest, isOdd));
+            }
+            sum += low.reduceLanesToLong(VectorOperators.ADD) + (high.reduceLanesToLong(VectorOperators.ADD) << 16);
+        }
+
+        int count = bound - from;
+        int oddCount = odd.reduceLanes(VectorOperators.ADD);
+        int top = max.reduceLanes(VectorOperators.MAX);
+        int runnerUp = Math.max(second.reduceLanes(VectorOperators.MAX),
+                max.blend(Integer.MIN_VALUE, max.compare(VectorOperators.EQ, top)).reduceLanes(VectorOperators.MAX));
+        int highestOdd = oddMax.reduceLanes(VectorOperators.MAX);
+        int highestEven = evenMax.reduceLanes(VectorOperators.MAX);
+
+        int topCount = 0, runnerUpCount = 0, highestOddCount = 0, highestEvenCount = 0;
+        for (i = from; i < bound; i += SPECIES.length()) {
+            IntVector values = IntVector.fromArray(SPECIES, data, i);
+            topCount += values.compare(VectorOperators.EQ, top).trueCount();
+            runnerUpCount += values.compare(VectorOperators.EQ, runnerUp).trueCount();
+            highestOddCount += values.compare(VectorOperators.EQ, highestOdd).trueCount();
+            highestEvenCount += values.compare(VectorOperators.EQ, highestEven).trueCount();
+        }
+
+        // The MIN_VALUE fillers only count when no real value took their place
+        if (runnerUp == top) runnerUpCount = 0;
+        if (oddCount == 0) highestOddCount = 0;
+        if (oddCount == count) highestEvenCount = 0;
+
+        into.merge(IntStats.summary(count, sum, min.reduceLanes(VectorOperators.MIN),
+                top, topCount, runnerUp, runnerUpCount,
+                oddCount, highestOdd, highestOddCount, highestEven, highestEvenCount));
+        into.accumulate(data, bound, to);
+    }
+
+    /**
+     * Names the kernel set, for reports.
+     * @return the vector shape, such as "256-bit vectors"
+     */
+    @Override
+    String name() {
+        return SPECIES.vectorBitSize() + "-bit vectors";
+    }
+}
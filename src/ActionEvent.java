@@ -0,0 +1,29 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event emitted for every menu action.
+ * Recording is off unless the JVM runs with -XX:StartFlightRecording, in which
+ * case the event carries the same data as {@link ActionMetrics} for each call.
+ */
+@Name("arrconsole.Action")
+@Label("Console Action")
+@Category("ArrConsole")
+@Description("A menu action run by the console")
+class ActionEvent extends jdk.jfr.Event {
+    /** Name of the action */
+    @Label("Action")
+    String action;
+
+    /** Number of elements after the action */
+    @Label("Elements")
+    int elements;
+
+    /** Part of the duration spent waiting for input */
+    @Label("Input Wait")
+    @Timespan
+    long inputWait;
+}
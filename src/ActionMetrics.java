@@ -0,0 +1,93 @@
+import java.util.Arrays;
+
+/**
+ * Class collecting how often each menu action runs and how long it takes.
+ * Each action has a call counter and a latency histogram, created on its first
+ * call; the report lists throughput and latency percentiles for every action used.
+ */
+class ActionMetrics {
+    /** Nanoseconds in a millisecond, for the report */
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    /** Names of the actions, indexed by choice */
+    private final String[] actionNames;
+
+    /** Latency of each action in nanoseconds, null until the action first runs */
+    private final LatencyHistogram[] latencies;
+
+    /** Time the session started, from System.nanoTime() */
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * Constructs new, empty ActionMetrics.
+     *
+     * @param actionNames the names of the actions, indexed by choice
+     */
+    public ActionMetrics(String[] actionNames) {
+        this.actionNames = actionNames;
+        this.latencies = new LatencyHistogram[actionNames.length];
+    }
+
+    /**
+     * Records one call of an action.
+     *
+     * @param action the choice of the action
+     * @param nanos how long the action took, excluding time spent waiting for input
+     */
+    public void record(int action, long nanos) {
+        if (latencies[action] == null) {
+            latencies[action] = new LatencyHistogram();
+        }
+        latencies[action].record(nanos);
+    }
+
+    /**
+     * Returns the number of calls of an action.
+     *
+     * @param action the choice of the action
+     * @return how often the action ran
+     */
+    public long count(int action) {
+        return latencies[action] == null ? 0 : latencies[action].count();
+    }
+
+    /**
+     * Describes every action used so far, one line each, hottest by total time first.
+     * Throughput is calls per second of session time; latencies are in milliseconds.
+     *
+     * @return the multi-line report, without a trailing line separator
+     */
+    public String report() {
+        double sessionSeconds = (System.nanoTime() - startNanos) / 1e9;
+        StringBuilder report = new StringBuilder(String.format(
+                "Session: %.1f s%n%-34s %8s %9s %10s %10s %10s %10s %10s %10s",
+                sessionSeconds, "Action", "Calls", "Calls/s", "Total ms",
+                "Mean ms", "p50 ms", "p90 ms", "p99 ms", "Max ms"));
+
+        Integer[] order = new Integer[latencies.length];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Long.compare(total(b), total(a)));
+
+        for (int action : order) {
+            LatencyHistogram latency = latencies[action];
+            if (latency == null) continue;
+
+            report.append(String.format("%n%-34s %8d %9.2f %10.3f %10.3f %10.3f %10.3f %10.3f %10.3f",
+                    actionNames[action], latency.count(), latency.count() / Math.max(sessionSeconds, 1e-9),
+                    latency.total() / NANOS_PER_MILLI, latency.mean() / NANOS_PER_MILLI,
+                    latency.percentile(50) / NANOS_PER_MILLI, latency.percentile(90) / NANOS_PER_MILLI,
+                    latency.percentile(99) / NANOS_PER_MILLI, latency.max() / NANOS_PER_MILLI));
+        }
+        return report.toString();
+    }
+
+    /**
+     * Returns the total time spent in an action.
+     *
+     * @param action the choice of the action
+     * @return the total nanoseconds, 0 if the action never ran
+     */
+    private long total(int action) {
+        return latencies[action] == null ? 0 : latencies[action].total();
+    }
+}
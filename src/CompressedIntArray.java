@@ -0,0 +1,770 @@
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Class representing a list of integers stored in compressed blocks.
+ * Appended values collect in a raw tail; every full tail is sealed into a block of
+ * up to 1024 values, encoded as runs of equal values, as bit-packed offsets from the
+ * block minimum (frame of reference), or as bit-packed deltas between neighbours,
+ * whichever is smallest. The cumulative block lengths are binary searched to find
+ * the block of an index, so random access is O(log n).
+ * Searches and statistics skip blocks by their minimum and maximum and work on
+ * runs and packed offsets directly; updates decode and re-encode a single block.
+ */
+class CompressedIntArray implements IntList {
+    /** Maximum number of values in a block, also the capacity of the raw tail */
+    private static final int BLOCK_SIZE = 1024;
+
+    /** Number of values between absolute checkpoints of a delta block, as a power of two */
+    private static final int CHECKPOINT_SHIFT = 6;
+
+    /** Sealed blocks in index order, only the first blockCount entries are used */
+    private Block[] blocks = new Block[16];
+
+    /** Index after the last value of each block, counted from the start of the list */
+    private int[] blockEnds = new int[16];
+
+    /** Number of sealed blocks */
+    private int blockCount;
+
+    /** Values appended since the last block was sealed */
+    private final int[] tail = new int[BLOCK_SIZE];
+
+    /** Number of values in the tail */
+    private int tailSize;
+
+    /** Number of elements currently stored in the list */
+    private int size;
+
+    /** Reusable buffer a block is decoded into */
+    private final int[] scratch = new int[BLOCK_SIZE];
+
+    /**
+     * Adds a new value to the end of the list.
+     * Seals the tail into a block when it is full.
+     *
+     * @param value the integer value to add
+     */
+    @Override
+    public void add(int value) {
+        tail[tailSize++] = value;
+        size++;
+        if (tailSize == BLOCK_SIZE) sealTail();
+    }
+
+    /**
+     * Appends a range of values, filling and sealing the tail one block at a time.
+     *
+     * @param src the array holding the values to add
+     * @param off the index of the first value in src
+     * @param len the number of values to add
+     * @throws IndexOutOfBoundsException if the range is outside of src
+     */
+    @Override
+    public void addAll(int[] src, int off, int len) {
+        if (off < 0 || len < 0 || off > src.length - len)
+            throw new IndexOutOfBoundsException("Invalid range: " + off + ".." + (off + len));
+
+        while (len > 0) {
+            int block = Math.min(len, BLOCK_SIZE - tailSize);
+            System.arraycopy(src, off, tail, tailSize, block);
+            tailSize += block;
+            size += block;
+            off += block;
+            len -= block;
+            if (tailSize == BLOCK_SIZE) sealTail();
+        }
+    }
+
+    /**
+     * Returns the element at the specified index.
+     *
+     * @param index the index of the element to retrieve
+     * @return the value stored at the specified index
+     * @throws IndexOutOfBoundsException if index is out of bounds
+     */
+    @Override
+    public int getValue(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Invalid index: " + index);
+
+        int sealed = size - tailSize;
+        if (index >= sealed) return tail[index - sealed];
+
+        int b = blockOf(index);
+        return blocks[b].get(index - blockStart(b));
+    }
+
+    /**
+     * Updates the value at a specific index, re-encoding its block.
+     *
+     * @param index the index of the element to update
+     * @param newValue the new value to set
+     * @throws IndexOutOfBoundsException if index is out of bounds
+     */
+    @Override
+    public void set(int index, int newValue) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Invalid index: " + index);
+
+        int sealed = size - tailSize;
+        if (index >= sealed) {
+            tail[index - sealed] = newValue;
+            return;
+        }
+
+        int b = blockOf(index);
+        Block block = blocks[b];
+        if (block.get(index - blockStart(b)) == newValue) return;
+
+        block.decode(scratch);
+        scratch[index - blockStart(b)] = newValue;
+        blocks[b] = Block.encode(scratch, block.length);
+    }
+
+    /**
+     * Removes the element at the specified index from the list.
+     * Only the block holding the element is re-encoded; a block left less than half
+     * full is merged with the next one when both fit in one block.
+     *
+     * @param index the index of the element to remove
+     * @throws IndexOutOfBoundsException if index is out of bounds
+     */
+    @Override
+    public void remove(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Invalid index: " + index);
+
+        int sealed = size - tailSize;
+        if (index >= sealed) {
+            int offset = index - sealed;
+            System.arraycopy(tail, offset + 1, tail, offset, tailSize - offset - 1);
+            tailSize--;
+            size--;
+            return;
+        }
+
+        int b = blockOf(index);
+        int offset = index - blockStart(b);
+        int length = blocks[b].length;
+        blocks[b].decode(scratch);
+        System.arraycopy(scratch, offset + 1, scratch, offset, length - offset - 1);
+        length--;
+
+        // Blocks after this one start one index earlier
+        for (int i = b; i < blockCount; i++) blockEnds[i]--;
+        size--;
+
+        if (b + 1 < blockCount && length < BLOCK_SIZE / 2 && length + blocks[b + 1].length <= BLOCK_SIZE) {
+            Block next = blocks[b + 1];
+            next.decode(scratch, length);
+            length += next.length;
+            removeBlock(b + 1);
+        }
+        if (length == 0) {
+            removeBlock(b);
+        } else {
+            blocks[b] = Block.encode(scratch, length);
+            blockEnds[b] = blockStart(b) + length;
+        }
+    }
+
+    /**
+     * Returns the number of elements currently stored in the list.
+     * @return the current size of the list
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the index of the first occurrence of the specified value.
+     * Blocks whose range excludes the value are skipped without decoding.
+     *
+     * @param value the value to search for
+     * @return the index of the value, or -1 if not found
+     */
+    @Override
+    public int indexOf(int value) {
+        for (int b = 0; b < blockCount; b++) {
+            Block block = blocks[b];
+            if (value < block.min || value > block.max) continue;
+
+            int offset = block.indexOf(value);
+            if (offset >= 0) return blockStart(b) + offset;
+        }
+        for (int i = 0; i < tailSize; i++) {
+            if (tail[i] == value) return size - tailSize + i;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the indices of all occurrences of the specified value.
+     * Only blocks whose range includes the value are decoded.
+     *
+     * @param value the value to search for
+     * @return the ascending indices of the value, empty if not found
+     */
+    @Override
+    public int[] indicesOf(int value) {
+        int[] indices = new int[8];
+        int found = 0;
+        for (int b = 0; b <= blockCount; b++) {
+            int[] values;
+            int length;
+            if (b < blockCount) {
+                Block block = blocks[b];
+                if (value < block.min || value > block.max) continue;
+                block.decode(scratch);
+                values = scratch;
+                length = block.length;
+            } else {
+                values = tail;
+                length = tailSize;
+            }
+
+            int start = b < blockCount ? blockStart(b) : size - tailSize;
+            for (int i = 0; i < length; i++) {
+                if (values[i] == value) {
+                    if (found == indices.length) indices = Arrays.copyOf(indices, found * 2);
+                    indices[found++] = start + i;
+                }
+            }
+        }
+        return Arrays.copyOf(indices, found);
+    }
+
+    /**
+     * Replaces every occurrence of a value with a new value.
+     * Occurrences are counted on the encoded blocks, and only blocks holding
+     * the old value are decoded and re-encoded.
+     *
+     * @param oldValue the value to replace
+     * @param newValue the value to put in its place
+     * @return the number of replaced elements
+     */
+    @Override
+    public int replaceAll(int oldValue, int newValue) {
+        int replaced = 0;
+        for (int b = 0; b < blockCount; b++) {
+            Block block = blocks[b];
+            if (oldValue < block.min || oldValue > block.max) continue;
+
+            int found = block.count(oldValue);
+            if (found == 0 || oldValue == newValue) {
+                replaced += found;
+                continue;
+            }
+            block.decode(scratch);
+            for (int i = 0; i < block.length; i++) {
+                if (scratch[i] == oldValue) scratch[i] = newValue;
+            }
+            blocks[b] = Block.encode(scratch, block.length);
+            replaced += found;
+        }
+        for (int i = 0; i < tailSize; i++) {
+            if (tail[i] == oldValue) {
+                tail[i] = newValue;
+                replaced++;
+            }
+        }
+        return replaced;
+    }
+
+    /**
+     * Performs the given action for each element in index order, one block at a time.
+     * The action must not modify this list.
+     *
+     * @param action the action to perform on each value
+     */
+    @Override
+    public void forEach(IntConsumer action) {
+        for (int b = 0; b < blockCount; b++) {
+            Block block = blocks[b];
+            block.decode(scratch);
+            for (int i = 0; i < block.length; i++) action.accept(scratch[i]);
+        }
+        for (int i = 0; i < tailSize; i++) action.accept(tail[i]);
+    }
+
+    /**
+     * Returns the summary statistics of the elements.
+     * Runs are added whole, packed blocks are decoded and accumulated in bulk.
+     *
+     * @return the statistics of the current elements
+     */
+    @Override
+    public IntStats stats() {
+        IntStats stats = new IntStats();
+        for (int b = 0; b < blockCount; b++) {
+            blocks[b].accumulate(stats, scratch);
+        }
+        stats.accumulate(tail, 0, tailSize);
+        return stats;
+    }
+
+    /**
+     * Returns a copy of the elements in index order.
+     * @return a new array holding every element
+     */
+    @Override
+    public int[] toArray() {
+        int[] values = new int[size];
+        for (int b = 0; b < blockCount; b++) {
+            blocks[b].decode(values, blockStart(b));
+        }
+        System.arraycopy(tail, 0, values, size - tailSize, tailSize);
+        return values;
+    }
+
+    /**
+     * Clears all elements from the list and drops its blocks.
+     */
+    @Override
+    public void clear() {
+        Arrays.fill(blocks, 0, blockCount, null);
+        blockCount = 0;
+        tailSize = 0;
+        size = 0;
+    }
+
+    /**
+     * Returns the number of bytes held by unused slots of the raw tail.
+     * @return the bytes allocated beyond the stored elements
+     */
+    @Override
+    public long wastedBytes() {
+        return (long) (BLOCK_SIZE - tailSize) * Integer.BYTES;
+    }
+
+    /**
+     * Describes the compressed size, the encodings in use and the compression ratio.
+     * @return a single-line memory usage report
+     */
+    @Override
+    public String memoryReport() {
+        long compressedBytes = 0;
+        int runBlocks = 0, packedBlocks = 0, deltaBlocks = 0;
+        for (int b = 0; b < blockCount; b++) {
+            Block block = blocks[b];
+            compressedBytes += block.bytes();
+            if (block instanceof RunBlock) runBlocks++;
+            else if (block instanceof PackedBlock) packedBlocks++;
+            else deltaBlocks++;
+        }
+        long allocatedBytes = compressedBytes + (long) blocks.length * 2 * Integer.BYTES
+                + (long) (tail.length + scratch.length) * Integer.BYTES;
+        long liveBytes = (long) size * Integer.BYTES;
+
+        return String.format("Size: %d, Live: %d bytes, Allocated: %d bytes in %d blocks "
+                        + "(%d run, %d packed, %d delta), Ratio: %.1fx, Wasted: %d bytes",
+                size, liveBytes, allocatedBytes, blockCount, runBlocks, packedBlocks, deltaBlocks,
+                allocatedBytes == 0 ? 0 : (double) liveBytes / allocatedBytes, wastedBytes());
+    }
+
+    /**
+     * Compresses the full tail into a new block at the end.
+     */
+    private void sealTail() {
+        if (blockCount == blocks.length) {
+            blocks = Arrays.copyOf(blocks, blockCount * 2);
+            blockEnds = Arrays.copyOf(blockEnds, blockCount * 2);
+        }
+        blocks[blockCount] = Block.encode(tail, tailSize);
+        blockEnds[blockCount] = (blockCount == 0 ? 0 : blockEnds[blockCount - 1]) + tailSize;
+        blockCount++;
+        tailSize = 0;
+    }
+
+    /**
+     * Drops a block from the directory, its values must already be accounted for.
+     * @param b the index of the block
+     */
+    private void removeBlock(int b) {
+        System.arraycopy(blocks, b + 1, blocks, b, blockCount - b - 1);
+        System.arraycopy(blockEnds, b + 1, blockEnds, b, blockCount - b - 1);
+        blocks[--blockCount] = null;
+    }
+
+    /**
+     * Finds the block holding a sealed index by binary search over the block ends.
+     *
+     * @param index an index below the start of the tail
+     * @return the index of the block
+     */
+    private int blockOf(int index) {
+        int low = 0;
+        int high = blockCount - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (blockEnds[mid] <= index) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * Returns the index of the first value of a block.
+     * @param b the index of the block
+     * @return the list index where the block starts
+     */
+    private int blockStart(int b) {
+        return b == 0 ? 0 : blockEnds[b - 1];
+    }
+
+    /** Immutable encoded run of values with its minimum and maximum */
+    private abstract static class Block {
+        /** Number of values in the block */
+        final int length;
+
+        /** Smallest and largest values in the block */
+        final int min, max;
+
+        Block(int length, int min, int max) {
+            this.length = length;
+            this.min = min;
+            this.max = max;
+        }
+
+        /**
+         * Encodes values with the encoding taking the fewest bytes.
+         *
+         * @param values the array holding the values from index 0
+         * @param length the number of values, at least 1
+         * @return the new block
+         */
+        static Block encode(int[] values, int length) {
+            int min = values[0], max = values[0];
+            int runs = 1;
+            long minDelta = Long.MAX_VALUE, maxDelta = Long.MIN_VALUE;
+            for (int i = 1; i < length; i++) {
+                int value = values[i];
+                if (value < min) min = value;
+                if (value > max) max = value;
+                if (value != values[i - 1]) runs++;
+                long delta = (long) value - values[i - 1];
+                if (delta < minDelta) minDelta = delta;
+                if (delta > maxDelta) maxDelta = delta;
+            }
+
+            // Estimated payload sizes in bits, ties go to the faster encoding
+            int packedBits = bitsFor((long) max - min);
+            int deltaBits = length == 1 ? 0 : bitsFor(maxDelta - minDelta);
+            long runCost = (long) runs * 64;
+            long packedCost = (long) length * packedBits;
+            long deltaCost = deltaBits > 32 ? Long.MAX_VALUE
+                    : (long) length * deltaBits + (long) ((length - 1 >>> CHECKPOINT_SHIFT) + 1) * 32;
+
+            if (runCost <= packedCost && runCost <= deltaCost) {
+                return new RunBlock(values, length, runs, min, max);
+            }
+            if (packedCost <= deltaCost) {
+                return new PackedBlock(values, length, min, max, packedBits);
+            }
+            return new DeltaBlock(values, length, min, max, (int) minDelta, deltaBits);
+        }
+
+        /**
+         * Returns the value at an offset in the block.
+         * @param offset the offset, from 0 to length - 1
+         * @return the value
+         */
+        abstract int get(int offset);
+
+        /**
+         * Writes every value of the block into an array.
+         *
+         * @param dst the array receiving the values
+         * @param off the index in dst of the first value
+         */
+        abstract void decode(int[] dst, int off);
+
+        /**
+         * Writes every value of the block to the start of an array.
+         * @param dst the array receiving the values
+         */
+        void decode(int[] dst) {
+            decode(dst, 0);
+        }
+
+        /**
+         * Returns the offset of the first occurrence of a value.
+         * @param value the value to search for
+         * @return the offset, or -1 if not found
+         */
+        abstract int indexOf(int value);
+
+        /**
+         * Counts the occurrences of a value.
+         * @param value the value to count
+         * @return the number of occurrences
+         */
+        abstract int count(int value);
+
+        /**
+         * Adds the values of the block to statistics.
+         *
+         * @param stats the statistics to add to
+         * @param scratch a buffer of at least length values
+         */
+        void accumulate(IntStats stats, int[] scratch) {
+            decode(scratch);
+            stats.accumulate(scratch, 0, length);
+        }
+
+        /** @return the approximate heap bytes of the block */
+        abstract long bytes();
+    }
+
+    /** Block of runs of equal values, stored as run values and cumulative run ends */
+    private static final class RunBlock extends Block {
+        private final int[] values;
+        private final int[] ends;
+
+        RunBlock(int[] src, int length, int runs, int min, int max) {
+            super(length, min, max);
+            values = new int[runs];
+            ends = new int[runs];
+            int run = 0;
+            for (int i = 1; i <= length; i++) {
+                if (i == length || src[i] != src[i - 1]) {
+                    values[run] = src[i - 1];
+                    ends[run++] = i;
+                }
+            }
+        }
+
+        @Override
+        int get(int offset) {
+            int low = 0;
+            int high = ends.length - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (ends[mid] <= offset) low = mid + 1;
+                else high = mid;
+            }
+            return values[low];
+        }
+
+        @Override
+        void decode(int[] dst, int off) {
+            int start = 0;
+            for (int run = 0; run < values.length; run++) {
+                Arrays.fill(dst, off + start, off + ends[run], values[run]);
+                start = ends[run];
+            }
+        }
+
+        @Override
+        int indexOf(int value) {
+            for (int run = 0; run < values.length; run++) {
+                if (values[run] == value) return run == 0 ? 0 : ends[run - 1];
+            }
+            return -1;
+        }
+
+        @Override
+        int count(int value) {
+            int count = 0;
+            for (int run = 0; run < values.length; run++) {
+                if (values[run] == value) count += ends[run] - (run == 0 ? 0 : ends[run - 1]);
+            }
+            return count;
+        }
+
+        @Override
+        void accumulate(IntStats stats, int[] scratch) {
+            for (int run = 0; run < values.length; run++) {
+                stats.acceptRun(values[run], ends[run] - (run == 0 ? 0 : ends[run - 1]));
+            }
+        }
+
+        @Override
+        long bytes() {
+            return 64 + (long) values.length * 2 * Integer.BYTES;
+        }
+    }
+
+    /** Block of offsets from the block minimum, packed with the bits of the largest offset */
+    private static final class PackedBlock extends Block {
+        private final int bits;
+        private final long[] words;
+
+        PackedBlock(int[] src, int length, int min, int max, int bits) {
+            super(length, min, max);
+            this.bits = bits;
+            this.words = new long[(int) (((long) length * bits + 63) >>> 6)];
+            for (int i = 0; i < length; i++) {
+                pack(words, i, bits, (long) src[i] - min);
+            }
+        }
+
+        @Override
+        int get(int offset) {
+            return (int) (min + unpack(words, offset, bits));
+        }
+
+        @Override
+        void decode(int[] dst, int off) {
+            for (int i = 0; i < length; i++) {
+                dst[off + i] = (int) (min + unpack(words, i, bits));
+            }
+        }
+
+        @Override
+        int indexOf(int value) {
+            // Compares packed offsets, so values are never rebuilt
+            long target = (long) value - min;
+            for (int i = 0; i < length; i++) {
+                if (unpack(words, i, bits) == target) return i;
+            }
+            return -1;
+        }
+
+        @Override
+        int count(int value) {
+            long target = (long) value - min;
+            int count = 0;
+            for (int i = 0; i < length; i++) {
+                if (unpack(words, i, bits) == target) count++;
+            }
+            return count;
+        }
+
+        @Override
+        long bytes() {
+            return 48 + (long) words.length * Long.BYTES;
+        }
+    }
+
+    /**
+     * Block of differences between neighbours, packed as offsets from the smallest difference.
+     * Every 64th value is also stored whole, so reading one value sums at most 63 differences.
+     */
+    private static final class DeltaBlock extends Block {
+        private final int minDelta;
+        private final int bits;
+        private final int[] checkpoints;
+        private final long[] words;
+
+        DeltaBlock(int[] src, int length, int min, int max, int minDelta, int bits) {
+            super(length, min, max);
+            this.minDelta = minDelta;
+            this.bits = bits;
+            this.checkpoints = new int[((length - 1) >>> CHECKPOINT_SHIFT) + 1];
+            this.words = new long[(int) (((long) length * bits + 63) >>> 6)];
+            for (int i = 0; i < length; i++) {
+                if ((i & ((1 << CHECKPOINT_SHIFT) - 1)) == 0) {
+                    checkpoints[i >>> CHECKPOINT_SHIFT] = src[i];
+                } else {
+                    pack(words, i, bits, (long) src[i] - src[i - 1] - minDelta);
+                }
+            }
+        }
+
+        @Override
+        int get(int offset) {
+            int from = offset & -(1 << CHECKPOINT_SHIFT);
+            int value = checkpoints[offset >>> CHECKPOINT_SHIFT];
+            for (int i = from + 1; i <= offset; i++) {
+                value += minDelta + (int) unpack(words, i, bits);
+            }
+            return value;
+        }
+
+        @Override
+        void decode(int[] dst, int off) {
+            int value = 0;
+            for (int i = 0; i < length; i++) {
+                if ((i & ((1 << CHECKPOINT_SHIFT) - 1)) == 0) {
+                    value = checkpoints[i >>> CHECKPOINT_SHIFT];
+                } else {
+                    value += minDelta + (int) unpack(words, i, bits);
+                }
+                dst[off + i] = value;
+            }
+        }
+
+        @Override
+        int indexOf(int value) {
+            int current = 0;
+            for (int i = 0; i < length; i++) {
+                if ((i & ((1 << CHECKPOINT_SHIFT) - 1)) == 0) {
+                    current = checkpoints[i >>> CHECKPOINT_SHIFT];
+                } else {
+                    current += minDelta + (int) unpack(words, i, bits);
+                }
+                if (current == value) return i;
+            }
+            return -1;
+        }
+
+        @Override
+        int count(int value) {
+            int current = 0;
+            int count = 0;
+            for (int i = 0; i < length; i++) {
+                if ((i & ((1 << CHECKPOINT_SHIFT) - 1)) == 0) {
+                    current = checkpoints[i >>> CHECKPOINT_SHIFT];
+                } else {
+                    current += minDelta + (int) unpack(words, i, bits);
+                }
+                if (current == value) count++;
+            }
+            return count;
+        }
+
+        @Override
+        long bytes() {
+            return 64 + (long) checkpoints.length * Integer.BYTES + (long) words.length * Long.BYTES;
+        }
+    }
+
+    /**
+     * Returns the number of bits needed to store a non-negative value.
+     * @param value the value, below 2^33
+     * @return the bit width, 0 for 0
+     */
+    private static int bitsFor(long value) {
+        return 64 - Long.numberOfLeadingZeros(value);
+    }
+
+    /**
+     * Stores a value in a slot of a packed bit array, the slot must be empty.
+     *
+     * @param words the packed bit array
+     * @param index the index of the slot
+     * @param bits the bit width of every slot, at most 32
+     * @param value the value, below 2^bits
+     */
+    private static void pack(long[] words, int index, int bits, long value) {
+        if (bits == 0) return;
+
+        long bit = (long) index * bits;
+        int word = (int) (bit >>> 6);
+        int shift = (int) (bit & 63);
+        words[word] |= value << shift;
+        if (shift + bits > 64) words[word + 1] |= value >>> (64 - shift);
+    }
+
+    /**
+     * Reads a slot of a packed bit array.
+     *
+     * @param words the packed bit array
+     * @param index the index of the slot
+     * @param bits the bit width of every slot, at most 32
+     * @return the value of the slot
+     */
+    private static long unpack(long[] words, int index, int bits) {
+        if (bits == 0) return 0;
+
+        long bit = (long) index * bits;
+        int word = (int) (bit >>> 6);
+        int shift = (int) (bit & 63);
+        long value = words[word] >>> shift;
+        if (shift + bits > 64) value |= words[word + 1] << (64 - shift);
+        return value & ((1L << bits) - 1);
+    }
+}
@@ -0,0 +1,715 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+
+/**
+ * Class representing a dynamic array of integers that several threads can append to
+ * while others read it.
+ * Elements live in fixed-size chunks behind a directory that is copied and republished
+ * when it grows, so published elements never move and a grow never blocks readers.
+ * Appenders reserve a range with a CAS on the reserved count, fill it in parallel,
+ * then publish in reservation order, so the published prefix never has gaps.
+ * Readers take a lock-free snapshot of the directory and the published size and
+ * validate it against a {@link StampedLock} that only structural changes
+ * (set, remove, clear, replace, dedupe, sort) take exclusively.
+ */
+class ConcurrentIntArray implements IntList {
+    /** Number of elements per chunk as a power of two, 2^14 ints is 64 KiB */
+    private static final int CHUNK_SHIFT = 14;
+
+    /** Number of elements per chunk */
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+    /** Bit mask extracting the offset within a chunk from an index */
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    /** Busy-wait rounds before an appender waiting for its turn to publish yields, none on one CPU */
+    private static final int PUBLISH_SPINS = Runtime.getRuntime().availableProcessors() > 1 ? 128 : 0;
+
+    /** Directory of allocated chunks, never modified once published, only replaced */
+    private volatile int[][] chunks = new int[8][];
+
+    /** Number of indices handed out to appenders, published or not */
+    private final AtomicInteger reserved = new AtomicInteger();
+
+    /** Number of elements visible to readers, always a prefix of the reserved ones */
+    private volatile int published;
+
+    /** Shared by appenders and readers that must not be retried, exclusive for structural changes */
+    private final StampedLock lock = new StampedLock();
+
+    /** Serializes directory grows, appenders only take it once per chunk */
+    private final Object growLock = new Object();
+
+    /**
+     * Adds a new value to the end of the array.
+     * Safe to call from several threads at once.
+     *
+     * @param value the integer value to add
+     */
+    @Override
+    public void add(int value) {
+        long stamp = lock.readLock();
+        try {
+            int index = reserve(1);
+            chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK] = value;
+            publish(index, index + 1);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Appends a range of values as one contiguous block.
+     * Safe to call from several threads at once; blocks from different threads never interleave.
+     *
+     * @param src the array holding the values to add
+     * @param off the index of the first value in src
+     * @param len the number of values to add
+     * @throws IndexOutOfBoundsException if the range is outside of src
+     */
+    @Override
+    public void addAll(int[] src, int off, int len) {
+        if (off < 0 || len < 0 || off > src.length - len)
+            throw new IndexOutOfBoundsException("Invalid range: " + off + ".." + (off + len));
+        if (len == 0) return;
+
+        long stamp = lock.readLock();
+        try {
+            int start = reserve(len);
+            int[][] directory = chunks;
+
+            // The reserved range is private to this thread until it is published
+            int index = start;
+            while (index < start + len) {
+                int offset = index & CHUNK_MASK;
+                int block = Math.min(start + len - index, CHUNK_SIZE - offset);
+                System.arraycopy(src, off + index - start, directory[index >>> CHUNK_SHIFT], offset, block);
+                index += block;
+            }
+            publish(start, start + len);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns the element at the specified index, without locking.
+     *
+     * @param index the index of the element to retrieve
+     * @return the value stored at the specified index
+     * @throws IndexOutOfBoundsException if index is out of bounds
+     */
+    @Override
+    public int getValue(int index) {
+        long stamp = lock.tryOptimisticRead();
+        int size = published;
+        int[][] directory = chunks;
+        if (lock.validate(stamp)) {
+            if (index < 0 || index >= size)
+                throw new IndexOutOfBoundsException("Invalid index: " + index);
+
+            int value = directory[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+            if (lock.validate(stamp)) return value;
+        }
+
+        // A structural change ran meanwhile, read again while none can start
+        stamp = lock.readLock();
+        try {
+            if (index < 0 || index >= published)
+                throw new IndexOutOfBoundsException("Invalid index: " + index);
+
+            return chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Updates the value at a specific index in the array.
+     *
+     * @param index the index of the element to update
+     * @param newValue the new value to set
+     * @throws IndexOutOfBoundsException if index is out of bounds
+     */
+    @Override
+    public void set(int index, int newValue) {
+        long stamp = lock.writeLock();
+        try {
+            if (index < 0 || index >= published)
+                throw new IndexOutOfBoundsException("Invalid index: " + index);
+
+            chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK] = newValue;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes the element at the specified index from the array.
+     * Waits for appends in progress, then shifts the later elements left.
+     *
+     * @param index the index of the element to remove
+     * @throws IndexOutOfBoundsException if index is out of bounds
+     */
+    @Override
+    public void remove(int index) {
+        removeRange(index, index + 1);
+    }
+
+    /**
+     * Inserts values at the specified index, shifting later elements right.
+     * Appends wait until the insert is done, the moved elements are copied one block at a time.
+     *
+     * @param index the index where the first value will be placed
+     * @param values the values to insert
+     * @throws IndexOutOfBoundsException if index is out of bounds
+     */
+    @Override
+    public void insert(int index, int... values) {
+        long stamp = lock.writeLock();
+        try {
+            int size = published;
+            if (index < 0 || index > size)
+                throw new IndexOutOfBoundsException("Invalid index: " + index);
+            int len = values.length;
+            if (len == 0) return;
+
+            reserve(len);
+            int[][] directory = chunks;
+
+            // Moves from the back so no element is overwritten before it is copied
+            int read = size;
+            int write = size + len;
+            while (read > index) {
+                int block = Math.min(read - index,
+                        Math.min(((read - 1) & CHUNK_MASK) + 1, ((write - 1) & CHUNK_MASK) + 1));
+                read -= block;
+                write -= block;
+                System.arraycopy(directory[read >>> CHUNK_SHIFT], read & CHUNK_MASK,
+                        directory[write >>> CHUNK_SHIFT], write & CHUNK_MASK, block);
+            }
+            for (int i = 0; i < len; ) {
+                int at = index + i;
+                int block = Math.min(len - i, CHUNK_SIZE - (at & CHUNK_MASK));
+                System.arraycopy(values, i, directory[at >>> CHUNK_SHIFT], at & CHUNK_MASK, block);
+                i += block;
+            }
+            publish(size, size + len);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes all elements from index from (inclusive) to index to (exclusive).
+     * The later elements are moved left one block at a time.
+     *
+     * @param from the index of the first element to remove
+     * @param to the index after the last element to remove
+     * @throws IndexOutOfBoundsException if the range is out of bounds
+     */
+    @Override
+    public void removeRange(int from, int to) {
+        long stamp = lock.writeLock();
+        try {
+            int size = published;
+            if (from < 0 || to > size || from > to)
+                throw new IndexOutOfBoundsException("Invalid range: " + from + ".." + to);
+            if (from == to) return;
+
+            int[][] directory = chunks;
+            int write = from;
+            int read = to;
+            while (read < size) {
+                int block = Math.min(size - read,
+                        Math.min(CHUNK_SIZE - (read & CHUNK_MASK), CHUNK_SIZE - (write & CHUNK_MASK)));
+                System.arraycopy(directory[read >>> CHUNK_SHIFT], read & CHUNK_MASK,
+                        directory[write >>> CHUNK_SHIFT], write & CHUNK_MASK, block);
+                read += block;
+                write += block;
+            }
+            fill(directory, write, size, 0);
+            resize(write);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns the number of published elements.
+     * @return the current size of the array
+     */
+    @Override
+    public int size() {
+        return published;
+    }
+
+    /**
+     * Returns the index of the first occurrence of the specified value.
+     *
+     * @param value the value to search for
+     * @return the index of the value, or -1 if not found
+     */
+    @Override
+    public int indexOf(int value) {
+        return read(snapshot -> snapshot.indexOf(value));
+    }
+
+    /**
+     * Returns the indices of all occurrences of the specified value, as of one instant.
+     *
+     * @param value the value to search for
+     * @return the ascending indices of the value, empty if not found
+     */
+    @Override
+    public int[] indicesOf(int value) {
+        return read(snapshot -> snapshot.indicesOf(value));
+    }
+
+    /**
+     * Returns the summary statistics of the published elements, as of one instant.
+     * @return the statistics of the current elements
+     */
+    @Override
+    public IntStats stats() {
+        return read(Snapshot::stats);
+    }
+
+    /**
+     * Returns a copy of the published elements, as of one instant.
+     * @return a new array holding every element
+     */
+    @Override
+    public int[] toArray() {
+        return read(Snapshot::toArray);
+    }
+
+    /**
+     * Performs the given action for each published element in index order.
+     * Structural changes wait until it returns, appends do not.
+     *
+     * @param action the action to perform on each value
+     */
+    @Override
+    public void forEach(IntConsumer action) {
+        long stamp = lock.readLock();
+        try {
+            lockedView().forEach(action);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Replaces every occurrence of a value with a new value.
+     *
+     * @param oldValue the value to replace
+     * @param newValue the value to put in its place
+     * @return the number of replaced elements
+     */
+    @Override
+    public int replaceAll(int oldValue, int newValue) {
+        long stamp = lock.writeLock();
+        try {
+            int[][] directory = chunks;
+            int size = published;
+            int replaced = 0;
+            for (int chunk = 0; (long) chunk << CHUNK_SHIFT < size; chunk++) {
+                int[] current = directory[chunk];
+                int end = Math.min(CHUNK_SIZE, size - (chunk << CHUNK_SHIFT));
+                for (int i = 0; i < end; i++) {
+                    if (current[i] == oldValue) {
+                        current[i] = newValue;
+                        replaced++;
+                    }
+                }
+            }
+            return replaced;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes duplicate values so that every value appears only once.
+     * Readers never see the intermediate state, they keep the old elements until it completes.
+     *
+     * @param mode how duplicates are detected and what order is kept
+     * @return the number of removed elements
+     */
+    @Override
+    public int distinctInPlace(DistinctMode mode) {
+        long stamp = lock.writeLock();
+        try {
+            int size = published;
+            int[] values = lockedView().toArray();
+            int kept;
+            if (mode == DistinctMode.SORTED) {
+                IntSorting.sort(values, 0, size);
+                kept = Math.min(size, 1);
+                for (int i = 1; i < size; i++) {
+                    if (values[i] != values[kept - 1]) values[kept++] = values[i];
+                }
+            } else {
+                IntHashSet seen = new IntHashSet(size);
+                kept = 0;
+                for (int i = 0; i < size; i++) {
+                    if (seen.add(values[i])) values[kept++] = values[i];
+                }
+            }
+            rewrite(values, kept);
+            return size - kept;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Sorts the elements ascending with a parallel radix sort of a copy.
+     */
+    @Override
+    public void sort() {
+        long stamp = lock.writeLock();
+        try {
+            int[] values = lockedView().toArray();
+            IntSorting.parallelSort(values, 0, values.length);
+            rewrite(values, values.length);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Clears all elements and drops the chunks.
+     * Waits for appends in progress; readers holding a snapshot keep the old chunks.
+     */
+    @Override
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            chunks = new int[8][];
+            published = 0;
+            reserved.set(0);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns the number of bytes held by unused slots of the allocated chunks.
+     * @return the bytes allocated beyond the stored elements
+     */
+    @Override
+    public long wastedBytes() {
+        return ((long) allocatedChunks(chunks) * CHUNK_SIZE - published) * Integer.BYTES;
+    }
+
+    /**
+     * Describes how much storage is allocated compared with the stored elements.
+     * @return a single-line memory usage report
+     */
+    @Override
+    public String memoryReport() {
+        int allocated = allocatedChunks(chunks);
+        return String.format("Size: %d, Live: %d bytes, Allocated: %d bytes in %d chunks, Wasted: %d bytes",
+                published, (long) published * Integer.BYTES, (long) allocated * CHUNK_SIZE * Integer.BYTES,
+                allocated, wastedBytes());
+    }
+
+    /**
+     * Takes a lock-free view of the published elements.
+     * The view stays readable whatever happens later; {@link Snapshot#isCurrent()}
+     * tells whether a structural change has made it differ from the array.
+     *
+     * @return the snapshot
+     */
+    public Snapshot snapshot() {
+        long stamp = lock.tryOptimisticRead();
+        int size = published;
+        int[][] directory = chunks;
+        if (lock.validate(stamp)) return new Snapshot(stamp, size, directory);
+
+        // A structural change is running, wait for it to finish
+        stamp = lock.readLock();
+        try {
+            return new Snapshot(lock.tryOptimisticRead(), published, chunks);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns a view of the elements for callers holding the lock, which keeps it current.
+     * @return the view, never reported as current once the lock is released
+     */
+    private Snapshot lockedView() {
+        return new Snapshot(0L, published, chunks);
+    }
+
+    /**
+     * Runs a query on a lock-free snapshot, and again under the read lock if a
+     * structural change invalidated the snapshot meanwhile.
+     *
+     * @param query the query, which must not have side effects
+     * @return the result of the query
+     */
+    private <T> T read(Function<Snapshot, T> query) {
+        Snapshot snapshot = snapshot();
+        T result = query.apply(snapshot);
+        if (snapshot.isCurrent()) return result;
+
+        long stamp = lock.readLock();
+        try {
+            return query.apply(lockedView());
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Reserves a range of indices at the end of the array, allocating its chunks first.
+     * Must be called while holding the read or the write lock.
+     *
+     * @param len the number of indices to reserve, at least 1
+     * @return the first reserved index
+     * @throws IllegalStateException if the array cannot hold len more elements
+     */
+    private int reserve(int len) {
+        while (true) {
+            int start = reserved.get();
+            if (start > GrowthPolicy.MAX_ARRAY_LENGTH - len)
+                throw new IllegalStateException("Capacity exceeded: " + start + " + " + len);
+
+            // Chunks come first, so nothing can fail once the range is taken
+            ensureChunks(start + len);
+            if (reserved.compareAndSet(start, start + len)) return start;
+        }
+    }
+
+    /**
+     * Makes reserved elements visible, after every earlier reservation is visible.
+     *
+     * @param start the first index of the range
+     * @param end the index after the last element of the range
+     */
+    private void publish(int start, int end) {
+        // Earlier ranges are being copied by other threads, their turn comes first
+        for (int spins = 0; published != start; spins++) {
+            if (spins < PUBLISH_SPINS) Thread.onSpinWait();
+            else Thread.yield();
+        }
+        published = end;
+    }
+
+    /**
+     * Makes sure chunks exist up to an index, republishing a grown directory if needed.
+     * @param end the index after the last element that must be stored
+     */
+    private void ensureChunks(int end) {
+        int needed = (int) (((long) end + CHUNK_MASK) >>> CHUNK_SHIFT);
+        int[][] directory = chunks;
+        if (needed <= directory.length && (needed == 0 || directory[needed - 1] != null)) return;
+
+        synchronized (growLock) {
+            directory = chunks;
+            if (needed <= directory.length && directory[needed - 1] != null) return;
+
+            // Copy, fill, then publish, so readers only ever see complete directories
+            int[][] grown = Arrays.copyOf(directory, Math.max(directory.length, Integer.highestOneBit(needed - 1) << 1));
+            for (int chunk = 0; chunk < needed; chunk++) {
+                if (grown[chunk] == null) grown[chunk] = new int[CHUNK_SIZE];
+            }
+            chunks = grown;
+        }
+    }
+
+    /**
+     * Changes the number of elements, dropping chunks past the end.
+     * Must be called while holding the write lock.
+     *
+     * @param size the new number of elements
+     */
+    private void resize(int size) {
+        int needed = (size + CHUNK_MASK) >>> CHUNK_SHIFT;
+        int[][] directory = chunks;
+        if (allocatedChunks(directory) > needed) {
+            int[][] shrunk = directory.clone();
+            Arrays.fill(shrunk, needed, shrunk.length, null);
+            chunks = shrunk;
+        }
+        published = size;
+        reserved.set(size);
+    }
+
+    /**
+     * Replaces the elements with the start of an array.
+     * Must be called while holding the write lock.
+     *
+     * @param values the new elements
+     * @param count the number of new elements, at most the current size
+     */
+    private void rewrite(int[] values, int count) {
+        int[][] directory = chunks;
+        for (int index = 0; index < count; index += CHUNK_SIZE) {
+            System.arraycopy(values, index, directory[index >>> CHUNK_SHIFT], 0, Math.min(CHUNK_SIZE, count - index));
+        }
+        fill(directory, count, published, 0);
+        resize(count);
+    }
+
+    /**
+     * Fills a range of elements with a value.
+     *
+     * @param directory the chunks holding the range
+     * @param from the index of the first element
+     * @param to the index after the last element
+     * @param value the value to store
+     */
+    private static void fill(int[][] directory, int from, int to, int value) {
+        while (from < to) {
+            int offset = from & CHUNK_MASK;
+            int block = Math.min(to - from, CHUNK_SIZE - offset);
+            Arrays.fill(directory[from >>> CHUNK_SHIFT], offset, offset + block, value);
+            from += block;
+        }
+    }
+
+    /**
+     * Counts the allocated chunks of a directory, which are always its first entries.
+     * @param directory the directory
+     * @return the number of chunks
+     */
+    private static int allocatedChunks(int[][] directory) {
+        int count = 0;
+        while (count < directory.length && directory[count] != null) count++;
+        return count;
+    }
+
+    /**
+     * Consistent view of the elements published at one instant.
+     * Reading it never blocks and never fails, even while other threads append or
+     * change the array; a structural change only makes {@link #isCurrent()} false.
+     */
+    final class Snapshot {
+        /** Lock stamp the view was taken at, validated to detect structural changes */
+        private final long version;
+
+        /** Number of elements in the view */
+        private final int size;
+
+        /** Directory the view reads from */
+        private final int[][] directory;
+
+        private Snapshot(long version, int size, int[][] directory) {
+            this.version = version;
+            this.size = size;
+            this.directory = directory;
+        }
+
+        /** @return the number of elements in the view */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Checks whether no structural change happened since the view was taken.
+         * Appends do not count, they only add elements past the view.
+         *
+         * @return true if every element of the view is still in the array at the same index
+         */
+        public boolean isCurrent() {
+            return lock.validate(version);
+        }
+
+        /**
+         * Returns the element at the specified index of the view.
+         *
+         * @param index the index of the element to retrieve
+         * @return the value stored at the specified index
+         * @throws IndexOutOfBoundsException if index is out of bounds
+         */
+        public int getValue(int index) {
+            if (index < 0 || index >= size)
+                throw new IndexOutOfBoundsException("Invalid index: " + index);
+
+            return directory[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+        }
+
+        /**
+         * Returns the index of the first occurrence of the specified value.
+         *
+         * @param value the value to search for
+         * @return the index of the value, or -1 if not found
+         */
+        public int indexOf(int value) {
+            for (int chunk = 0; (long) chunk << CHUNK_SHIFT < size; chunk++) {
+                int[] current = directory[chunk];
+                int base = chunk << CHUNK_SHIFT;
+                int end = Math.min(CHUNK_SIZE, size - base);
+                for (int i = 0; i < end; i++) {
+                    if (current[i] == value) return base + i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Returns the indices of all occurrences of the specified value.
+         *
+         * @param value the value to search for
+         * @return the ascending indices of the value, empty if not found
+         */
+        public int[] indicesOf(int value) {
+            int[] indices = new int[8];
+            int found = 0;
+            for (int index = 0; index < size; index++) {
+                if (directory[index >>> CHUNK_SHIFT][index & CHUNK_MASK] == value) {
+                    if (found == indices.length) indices = Arrays.copyOf(indices, found * 2);
+                    indices[found++] = index;
+                }
+            }
+            return Arrays.copyOf(indices, found);
+        }
+
+        /**
+         * Performs the given action for each element of the view in index order.
+         * @param action the action to perform on each value
+         */
+        public void forEach(IntConsumer action) {
+            for (int chunk = 0; (long) chunk << CHUNK_SHIFT < size; chunk++) {
+                int[] current = directory[chunk];
+                int end = Math.min(CHUNK_SIZE, size - (chunk << CHUNK_SHIFT));
+                for (int i = 0; i < end; i++) {
+                    action.accept(current[i]);
+                }
+            }
+        }
+
+        /**
+         * Returns the summary statistics of the view, accumulated one chunk at a time.
+         * @return the statistics of the elements of the view
+         */
+        public IntStats stats() {
+            IntStats stats = new IntStats();
+            for (int chunk = 0; (long) chunk << CHUNK_SHIFT < size; chunk++) {
+                stats.accumulate(directory[chunk], 0, Math.min(CHUNK_SIZE, size - (chunk << CHUNK_SHIFT)));
+            }
+            return stats;
+        }
+
+        /**
+         * Returns a copy of the elements of the view.
+         * @return a new array holding every element
+         */
+        public int[] toArray() {
+            int[] values = new int[size];
+            for (int index = 0; index < size; index += CHUNK_SIZE) {
+                System.arraycopy(directory[index >>> CHUNK_SHIFT], 0, values, index, Math.min(CHUNK_SIZE, size - index));
+            }
+            return values;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Class writing console output into a reusable byte buffer.
+ * Integers are formatted straight into the buffer without boxing, and the
+ * buffer is only written out when it is full or when {@link #flush()} is called.
+ * Like PrintStream, write errors are recorded instead of thrown.
+ */
+class ConsoleWriter {
+    /** Default size of the output buffer in bytes */
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    /** Line separator of the platform, as bytes */
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+
+    /** Number of characters in the longest int, Integer.MIN_VALUE */
+    private static final int MAX_INT_CHARS = 11;
+
+    /** Stream the buffer is written to */
+    private final OutputStream out;
+
+    /** Output buffer, valid up to count */
+    private final byte[] buffer;
+
+    /** Number of bytes waiting in the buffer */
+    private int count;
+
+    /** Whether writing to the stream has failed */
+    private boolean hasError;
+
+    /**
+     * Constructs a new ConsoleWriter with the default buffer size.
+     *
+     * @param out the stream to write to
+     */
+    public ConsoleWriter(OutputStream out) {
+        this(out, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Constructs a new ConsoleWriter with a specified buffer size.
+     *
+     * @param out the stream to write to
+     * @param bufferSize the size of the output buffer in bytes
+     */
+    public ConsoleWriter(OutputStream out, int bufferSize) {
+        if (bufferSize < MAX_INT_CHARS)
+            throw new IllegalArgumentException("Buffer too small: " + bufferSize);
+
+        this.out = out;
+        this.buffer = new byte[bufferSize];
+    }
+
+    /**
+     * Writes a string, encoding ASCII characters directly into the buffer.
+     *
+     * @param text the text to write
+     */
+    public void print(CharSequence text) {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c >= 0x80) {
+                // Falls back to the charset encoder for the non-ASCII remainder
+                write(text.subSequence(i, length).toString().getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            if (count == buffer.length) flushBuffer();
+            buffer[count++] = (byte) c;
+        }
+    }
+
+    /**
+     * Writes a single ASCII character.
+     *
+     * @param c the character to write
+     */
+    public void print(char c) {
+        if (c >= 0x80) {
+            print(String.valueOf(c));
+            return;
+        }
+        if (count == buffer.length) flushBuffer();
+        buffer[count++] = (byte) c;
+    }
+
+    /**
+     * Writes the decimal form of an integer without boxing it.
+     *
+     * @param value the integer to write
+     */
+    public void print(int value) {
+        // The only int whose magnitude does not fit in an int
+        if (value == Integer.MIN_VALUE) {
+            print("-2147483648");
+            return;
+        }
+        if (buffer.length - count < MAX_INT_CHARS) flushBuffer();
+
+        // Digits are produced from the lowest one, so they are written right to left
+        int length = stringSize(value);
+        int at = count + length;
+        int remaining = Math.abs(value);
+        do {
+            buffer[--at] = (byte) ('0' + remaining % 10);
+            remaining /= 10;
+        } while (remaining != 0);
+        if (value < 0) buffer[--at] = '-';
+
+        count += length;
+    }
+
+    /**
+     * Writes the decimal form of a long.
+     *
+     * @param value the long to write
+     */
+    public void print(long value) {
+        if (value == (int) value) {
+            print((int) value);
+        } else {
+            print(Long.toString(value));
+        }
+    }
+
+    /**
+     * Writes the platform line separator.
+     */
+    public void newLine() {
+        write(LINE_SEPARATOR);
+    }
+
+    /**
+     * Writes all buffered output to the stream.
+     */
+    public void flush() {
+        flushBuffer();
+        try {
+            out.flush();
+        } catch (IOException e) {
+            hasError = true;
+        }
+    }
+
+    /**
+     * Returns whether writing to the stream has failed.
+     * @return true if an earlier write failed
+     */
+    public boolean checkError() {
+        return hasError;
+    }
+
+    /**
+     * Writes raw bytes through the buffer.
+     *
+     * @param bytes the bytes to write
+     */
+    private void write(byte[] bytes) {
+        int written = 0;
+        while (written < bytes.length) {
+            if (count == buffer.length) flushBuffer();
+
+            int chunk = Math.min(bytes.length - written, buffer.length - count);
+            System.arraycopy(bytes, written, buffer, count, chunk);
+            count += chunk;
+            written += chunk;
+        }
+    }
+
+    /**
+     * Writes the buffered bytes to the stream without flushing the stream itself.
+     */
+    private void flushBuffer() {
+        if (count == 0) return;
+        try {
+            out.write(buffer, 0, count);
+        } catch (IOException e) {
+            hasError = true;
+        }
+        count = 0;
+    }
+
+    /**
+     * Returns the number of characters in the decimal form of an integer.
+     *
+     * @param value the integer to measure, not Integer.MIN_VALUE
+     * @return the number of characters, including the sign
+     */
+    private static int stringSize(int value) {
+        int remaining = Math.abs(value);
+        int length = value < 0 ? 2 : 1;
+        while (remaining >= 10) {
+            remaining /= 10;
+            length++;
+        }
+        return length;
+    }
+}
@@ -0,0 +1,1358 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+import java.util.zip.CRC32C;
+
+/**
+ * Class representing a simple dynamic array of integers.
+ * Automatically expands capacity when the array becomes full.
+ */
+class DynamicArray implements IntList {
+    /** Default number of elements from which AUTO mode scans in parallel */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 18;
+
+    /** First four bytes of a snapshot file, "ARR2" */
+    public static final int SNAPSHOT_MAGIC = 0x32525241;
+
+    /** Version of the snapshot file format */
+    public static final int SNAPSHOT_VERSION = 1;
+
+    /** Snapshot header: magic, version, element count (int64), CRC32C of the payload, reserved */
+    private static final int SNAPSHOT_HEADER_BYTES = 24;
+
+    /** Number of payload bytes staged or mapped at a time */
+    private static final int SNAPSHOT_CHUNK_BYTES = 1 << 20;
+
+    /** Internal storage for array elements */
+    private int[] elements;
+
+    /** Number of elements currently stored in the array */
+    private int size;
+
+    /** Capacity the array starts with, and falls back to when it is shrunk after a clear */
+    private final int initialCapacity;
+
+    /** Decides how much the internal array grows when it is full */
+    private final GrowthPolicy growthPolicy;
+
+    /** Load below which removals shrink the internal array, 0 disables shrinking */
+    private final float shrinkThreshold;
+
+    /** Number of modifications made to the elements, used to detect stale cached results */
+    private long modCount;
+
+    /** Modification count of the last change that did more than append, results older than it cannot be extended */
+    private long rewriteModCount;
+
+    /** Reused statistics of the elements, valid while statsModCount equals modCount */
+    private final IntStats stats = new IntStats();
+
+    /** Modification count the cached statistics were computed at */
+    private long statsModCount = -1;
+
+    /** Number of times the internal array was replaced by a larger one */
+    private long growCount;
+
+    /** Number of times the internal array was replaced by a smaller one */
+    private long shrinkCount;
+
+    /** Bytes copied from old internal arrays into their replacements */
+    private long copiedBytes;
+
+    /** Elements moved to close or open a gap by removals and insertions */
+    private long shiftedElements;
+
+    /** Undo and redo history of appends, replacements, deduplication and clears, null when disabled */
+    private MutationJournal journal;
+
+    /** Modification count the journal is valid at, any other mutation makes it stale */
+    private long journalModCount;
+
+    /** Optional index from each value to its positions, null when disabled */
+    private IntPositionIndex positionIndex;
+
+    /** Whether positions shifted since the index was built, so it must be rebuilt before use */
+    private boolean positionIndexStale;
+
+    /** Occurrence counts of the values while their range is narrow, null when not built */
+    private IntRangeCounts rangeCounts;
+
+    /** Modification count the range counts are valid at, changes that do not update them leave them stale */
+    private long rangeCountsModCount = -1;
+
+    /** Whether range counts are built automatically once the values span a narrow range */
+    private boolean rangeCountsEnabled = true;
+
+    /** Modification count at which the value range was last found too wide, -1 if it was not */
+    private long wideRangeModCount = -1;
+
+    /** Number of elements when the value range was last found too wide */
+    private int wideRangeSize;
+
+    /** Decides whether scans and transforms run on one thread or on the common pool */
+    private ExecutionMode executionMode = ExecutionMode.AUTO;
+
+    /** Number of elements from which AUTO mode runs in parallel */
+    private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+
+    /**
+     * Constructs a new DynamicArray with a specified initial capacity.
+     *
+     * @param initialCapacity the initial capacity of the dynamic array
+     */
+    public DynamicArray(int initialCapacity) {
+        this(initialCapacity, GrowthPolicy.DOUBLING, 0f);
+    }
+
+    /**
+     * Constructs a new DynamicArray with a growth policy and automatic shrinking.
+     *
+     * @param initialCapacity the initial capacity of the dynamic array
+     * @param growthPolicy decides how much the array grows when it is full
+     * @param shrinkThreshold load in [0, 0.5) below which removals release storage, 0 to never shrink
+     * @throws IllegalArgumentException if the capacity or threshold is out of range
+     */
+    public DynamicArray(int initialCapacity, GrowthPolicy growthPolicy, float shrinkThreshold) {
+        if (initialCapacity < 0 || initialCapacity > GrowthPolicy.MAX_ARRAY_LENGTH)
+            throw new IllegalArgumentException("Invalid capacity: " + initialCapacity);
+        // Shrinking leaves the array half full, a higher threshold would shrink on every removal
+        if (!(shrinkThreshold >= 0f && shrinkThreshold < 0.5f))
+            throw new IllegalArgumentException("Invalid shrink threshold: " + shrinkThreshold);
+
+        elements = new int[initialCapacity];
+        this.initialCapacity = initialCapacity;
+        this.growthPolicy = growthPolicy;
+        this.shrinkThreshold = shrinkThreshold;
+        size = 0;
+    }
+
+    /**
+     * Adds a new value to the end of the dynamic array.
+     * Automatically expands the array if needed.
+     *
+     * @param value the integer value to add
+     */
+    @Override
+    public void add(int value) {
+        if (size >= elements.length) {
+            expandArray();
+        }
+        elements[size++] = value;
+        modCount++;
+        indexAppended(size - 1);
+        if (journal != null) journalAppend(size - 1);
+    }
+
+    /**
+     * Appends a range of values to the end of the dynamic array.
+     * Grows at most once and copies the range as a single block.
+     *
+     * @param src the array holding the values to add
+     * @param off the index of the first value in src
+     * @param len the number of values to add
+     * @throws IndexOutOfBoundsException if the range is outside of src
+     */
+    @Override
+    public void addAll(int[] src, int off, int len) {
+        if (off < 0 || len < 0 || off > src.length - len)
+            throw new IndexOutOfBoundsException("Invalid range: " + off + ".." + (off + len));
+        if (len == 0) return;
+
+        ensureCapacity(size + len);
+        System.arraycopy(src, off, elements, size, len);
+        size += len;
+        modCount++;
+        indexAppended(size - len);
+        if (journal != null) journalAppend(size - len);
+    }
+
+    /**
+     * Inserts values at the specified index, shifting later elements right.
+     * Grows at most once and moves the tail as a single block.
+     *
+     * @param index the index where the first value will be placed
+     * @param values the values to insert
+     * @throws IndexOutOfBoundsException if index is out of bounds
+     */
+    @Override
+    public void insert(int index, int... values) {
+        if (index < 0 || index > size)
+            throw new IndexOutOfBoundsException("Invalid index: " + index);
+
+        int len = values.length;
+        ensureCapacity(size + len);
+        System.arraycopy(elements, index, elements, index + len, size - index);
+        System.arraycopy(values, 0, elements, index, len);
+        shiftedElements += size - index;
+        size += len;
+        rewriteModCount = ++modCount;
+        positionIndexStale = true;
+    }
+
+    /**
+     * Removes the element at the specified index from the array.
+     * Elements to the right of the removed element are shifted left.
+     * @param index the index of the element to remove
+     * @throws IndexOutOfBoundsException if index is out of bounds
+     */
+    @Override
+    public void remove(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Invalid index: " + index);
+
+        int removed = elements[index];
+        System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+        shiftedElements += size - index - 1;
+
+        elements[size - 1] = 0;
+        size--;
+        rewriteModCount = ++modCount;
+        positionIndexStale = true;
+        IntRangeCounts counts = trackedRangeCounts();
+        if (counts != null) counts.remove(removed);
+        shrinkIfSparse();
+    }
+
+    /**
+     * Removes all elements from index from (inclusive) to index to (exclusive).
+     * Elements to the right of the range are shifted left as a single block.
+     *
+     * @param from the index of the first element to remove
+     * @param to the index after the last element to remove
+     * @throws IndexOutOfBoundsException if the range is out of bounds
+     */
+    @Override
+    public void removeRange(int from, int to) {
+        if (from < 0 || to > size || from > to)
+            throw new IndexOutOfBoundsException("Invalid range: " + from + ".." + to);
+
+        System.arraycopy(elements, to, elements, from, size - to);
+        shiftedElements += size - to;
+
+        int newSize = size - (to - from);
+        Arrays.fill(elements, newSize, size, 0);
+        size = newSize;
+        rewriteModCount = ++modCount;
+        positionIndexStale = true;
+        shrinkIfSparse();
+    }
+
+    /**
+     * Removes every element that satisfies the given predicate.
+     * Surviving elements are compacted in a single pass with one write cursor.
+     *
+     * @param filter returns true for the values to remove
+     * @return the number of removed elements
+     */
+    public int removeIf(IntPredicate filter) {
+        int write = 0;
+        for (int read = 0; read < size; read++) {
+            int value = elements[read];
+            if (!filter.test(value)) {
+                elements[write++] = value;
+            }
+        }
+
+        int removed = size - write;
+        Arrays.fill(elements, write, size, 0);
+        size = write;
+        rewriteModCount = ++modCount;
+        positionIndexStale = true;
+        shrinkIfSparse();
+        return removed;
+    }
+
+    /**
+     * Updates the value at a specific index in the array.
+     * @param index the index of the element to update
+     * @param newValue the new value to set
+     */
+    @Override
+    public void set(int index, int newValue) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Invalid index: " + index);
+
+        int oldValue = elements[index];
+        elements[index] = newValue;
+        rewriteModCount = ++modCount;
+
+        IntRangeCounts counts = trackedRangeCounts();
+        if (counts != null && counts.covers(newValue)) {
+            counts.remove(oldValue);
+            counts.add(newValue);
+        } else if (counts != null) {
+            dropRangeCounts();
+        }
+
+        if (positionIndex != null && !positionIndexStale) {
+            positionIndex.move(index, oldValue, newValue);
+        }
+    }
+
+    /**
+     * Returns the number of elements currently stored in the array.
+     * @return the current size of the array
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the element at the specified index.
+     *
+     * @param index the index of the element to retrieve
+     * @return the value stored at the specified index
+     * @throws IndexOutOfBoundsException if index is out of bounds
+     */
+    @Override
+    public int getValue(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Invalid index: " + index);
+
+        return elements[index];
+    }
+
+    /**
+     * Performs the given action for each element in index order.
+     * The action must not modify this array.
+     *
+     * @param action the action to perform on each value
+     */
+    @Override
+    public void forEach(IntConsumer action) {
+        int[] data = elements;
+        int end = size;
+        for (int i = 0; i < end; i++) {
+            action.accept(data[i]);
+        }
+    }
+
+    /**
+     * Performs the given action for each element and its index in index order.
+     * The action must not modify this array.
+     *
+     * @param action the action to perform on each index and value
+     */
+    @Override
+    public void forEachIndexed(IndexedIntConsumer action) {
+        int[] data = elements;
+        int end = size;
+        for (int i = 0; i < end; i++) {
+            action.accept(i, data[i]);
+        }
+    }
+
+    /**
+     * Folds all elements into a single value in index order.
+     *
+     * @param identity the starting value of the fold
+     * @param op combines the running result with the next value
+     * @return the folded result, or identity if the array is empty
+     */
+    public int reduce(int identity, IntBinaryOperator op) {
+        int[] data = elements;
+        int end = size;
+        int result = identity;
+        for (int i = 0; i < end; i++) {
+            result = op.applyAsInt(result, data[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Replaces every occurrence of a value with a new value.
+     *
+     * @param oldValue the value to replace
+     * @param newValue the value to put in its place
+     * @return the number of replaced elements
+     */
+    @Override
+    public int replaceAll(int oldValue, int newValue) {
+        // Counts answer a missing value without a scan, and move with the replaced values
+        IntRangeCounts counts = rangeCountsModCount == modCount ? rangeCounts : null;
+        if (counts != null && counts.count(oldValue) == 0) return 0;
+
+        int replaced = replaceElements(oldValue, newValue);
+        if (counts != null && counts.covers(newValue)) {
+            counts.replaceAll(oldValue, newValue);
+            rangeCountsModCount = modCount;
+        } else if (counts != null) {
+            dropRangeCounts();
+        }
+        return replaced;
+    }
+
+    /**
+     * Replaces every occurrence of a value in the elements and the position index.
+     *
+     * @param oldValue the value to replace
+     * @param newValue the value to put in its place
+     * @return the number of replaced elements
+     */
+    private int replaceElements(int oldValue, int newValue) {
+        if (journal != null) {
+            return replaceAllJournaled(oldValue, newValue);
+        }
+
+        // With an index only the matching positions are visited
+        if (positionIndex != null) {
+            int replaced = freshPositionIndex().replaceAll(elements, oldValue, newValue);
+            if (replaced > 0) rewriteModCount = ++modCount;
+            if (positionIndex.isFragmented()) positionIndexStale = true;
+            return replaced;
+        }
+
+        if (isParallel()) {
+            int replaced = ParallelKernels.replaceAll(elements, size, oldValue, newValue);
+            if (replaced > 0) rewriteModCount = ++modCount;
+            return replaced;
+        }
+
+        int replaced = IntKernels.INSTANCE.replaceAll(elements, 0, size, oldValue, newValue);
+        if (replaced > 0) rewriteModCount = ++modCount;
+        return replaced;
+    }
+
+    /**
+     * Copies a range of elements into a new array.
+     *
+     * @param from the index of the first element to copy
+     * @param to the index after the last element to copy
+     * @return a copy of the elements in the range
+     * @throws IndexOutOfBoundsException if the range is out of bounds
+     */
+    public int[] copyRange(int from, int to) {
+        if (from < 0 || to > size || from > to)
+            throw new IndexOutOfBoundsException("Invalid range: " + from + ".." + to);
+
+        return Arrays.copyOfRange(elements, from, to);
+    }
+
+    /**
+     * Returns a copy of the elements in index order.
+     * @return a new array holding every element
+     */
+    @Override
+    public int[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+
+    /**
+     * Sorts the elements ascending in place with a radix sort.
+     * Large arrays are sorted on the common pool when parallel execution applies.
+     */
+    @Override
+    public void sort() {
+        if (isParallel()) {
+            IntSorting.parallelSort(elements, 0, size);
+        } else {
+            IntSorting.sort(elements, 0, size);
+        }
+        rewriteModCount = ++modCount;
+        positionIndexStale = true;
+        // Sorting keeps every value, so the counts stay valid
+        trackedRangeCounts();
+    }
+
+    /**
+     * Returns the index of the first occurrence of a value, assuming the array is sorted ascending.
+     * The result is undefined if the array is not sorted.
+     *
+     * @param value the value to search for
+     * @return the index of the value, or (-(insertion point) - 1) if not found
+     */
+    @Override
+    public int binarySearch(int value) {
+        return IntSorting.binarySearch(elements, 0, size, value);
+    }
+
+    /**
+     * Returns the summary statistics of the elements, computed in a single pass.
+     * The result is cached until the next modification, so repeated calls on an
+     * unchanged array are O(1). The returned object is reused by later calls.
+     *
+     * @return the statistics of the current elements
+     */
+    @Override
+    public IntStats stats() {
+        if (statsModCount != modCount) {
+            // With range counts the statistics come from the bitmap instead of a scan
+            IntRangeCounts counts = freshRangeCounts();
+            if (counts != null) {
+                stats.reset();
+                stats.merge(counts.stats());
+            } else if (isParallel()) {
+                ParallelKernels.stats(elements, size, stats);
+            } else {
+                stats.reset();
+                IntKernels.INSTANCE.accumulate(elements, 0, size, stats);
+            }
+            statsModCount = modCount;
+        }
+        return stats;
+    }
+
+    /**
+     * Returns the number of modifications made to the elements so far.
+     * @return the modification count
+     */
+    @Override
+    public long modCount() {
+        return modCount;
+    }
+
+    /**
+     * Tells whether every change since a modification count was an append.
+     * Inserts, even at the end, and undo or redo count as other changes.
+     *
+     * @param modCount a modification count returned earlier
+     * @return true if the elements up to the size at that count are unchanged
+     */
+    @Override
+    public boolean isAppendOnlySince(long modCount) {
+        return rewriteModCount <= modCount && modCount <= this.modCount;
+    }
+
+    /**
+     * Returns the number of times the internal array grew.
+     * @return the number of grow operations so far
+     */
+    public long growCount() {
+        return growCount;
+    }
+
+    /**
+     * Returns the number of bytes of live elements copied by growing and shrinking.
+     * @return the bytes copied into new internal arrays so far
+     */
+    public long copiedBytes() {
+        return copiedBytes;
+    }
+
+    /**
+     * Returns the number of elements moved by removals and insertions in the middle.
+     * @return the elements shifted so far
+     */
+    public long shiftedElements() {
+        return shiftedElements;
+    }
+
+    /**
+     * Describes the cost counters of the dynamic array.
+     * @return a single-line counter report
+     */
+    public String counterReport() {
+        return String.format("Grows: %d, Shrinks: %d, Bytes copied: %d, Elements shifted: %d",
+                growCount, shrinkCount, copiedBytes, shiftedElements);
+    }
+
+    /**
+     * Returns the current capacity of the dynamic array.
+     * @return the maximum number of elements the array can hold before expanding
+     */
+    public int capacity() {
+        return elements.length;
+    }
+
+    /**
+     * Makes sure the array can hold at least the given number of elements
+     * without expanding again.
+     *
+     * @param minCapacity the required minimum capacity
+     * @throws OutOfMemoryError if minCapacity exceeds the array length limit
+     */
+    @Override
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity < 0 || minCapacity > elements.length) {
+            resize(growthPolicy.newCapacity(elements.length, minCapacity));
+        }
+    }
+
+    /**
+     * Shrinks the capacity of the internal array to the number of stored elements.
+     */
+    @Override
+    public void trimToSize() {
+        if (size < elements.length) {
+            resize(size);
+        }
+    }
+
+    /**
+     * Returns the number of bytes held by unused capacity of the internal array.
+     * @return the bytes allocated beyond the stored elements
+     */
+    @Override
+    public long wastedBytes() {
+        return (long) (elements.length - size) * Integer.BYTES;
+    }
+
+    /**
+     * Describes how much storage is allocated compared with the stored elements.
+     * @return a single-line memory usage report
+     */
+    @Override
+    public String memoryReport() {
+        long liveBytes = (long) size * Integer.BYTES;
+        long allocatedBytes = (long) elements.length * Integer.BYTES;
+        double wastedPercent = allocatedBytes == 0 ? 0 : 100.0 * wastedBytes() / allocatedBytes;
+
+        String report = String.format("Size: %d, Capacity: %d, Live: %d bytes, Allocated: %d bytes, Wasted: %d bytes (%.1f%%)",
+                size, elements.length, liveBytes, allocatedBytes, wastedBytes(), wastedPercent);
+        if (isJournalCurrent()) {
+            report += String.format(", Journal: %d bytes (%d undo, %d redo)",
+                    journal.bytes(), journal.undoDepth(), journal.redoDepth());
+        }
+        if (rangeCounts != null && rangeCountsModCount == modCount) {
+            report += String.format(", Range counts: %d values, %d bytes", rangeCounts.width(), rangeCounts.bytes());
+        }
+        return report;
+    }
+
+    /**
+     * Grows the internal array according to the growth policy when full.
+     * Copies existing elements to the new array.
+     */
+    private void expandArray() {
+        resize(growthPolicy.newCapacity(elements.length, elements.length + 1));
+    }
+
+    /**
+     * Releases storage when the load falls below the shrink threshold,
+     * leaving the array half full.
+     */
+    private void shrinkIfSparse() {
+        if (size < elements.length * shrinkThreshold && elements.length > initialCapacity) {
+            resize(Math.max(size * 2, initialCapacity));
+        }
+    }
+
+    /**
+     * Moves the elements into a new internal array of the given capacity.
+     *
+     * @param newCapacity the capacity of the new internal array
+     */
+    private void resize(int newCapacity) {
+        if (newCapacity > elements.length) {
+            growCount++;
+        } else {
+            shrinkCount++;
+        }
+        copiedBytes += (long) Math.min(size, newCapacity) * Integer.BYTES;
+        elements = Arrays.copyOf(elements, newCapacity);
+    }
+
+    /**
+     * Returns the index of the first occurrence of the specified value,
+     * or throws an error if the value is not found.
+     * @param value the value to search for
+     * @return the index of the value, or -1 if not found
+     */
+    @Override
+    public int indexOf(int value) {
+        IntRangeCounts counts = freshRangeCounts();
+        if (counts != null && counts.count(value) == 0) return -1;
+        if (positionIndex != null) {
+            return freshPositionIndex().first(value);
+        }
+        if (isParallel()) {
+            return ParallelKernels.indexOf(elements, size, value);
+        }
+        return IntKernels.INSTANCE.indexOf(elements, 0, size, value);
+    }
+
+    /**
+     * Checks whether the specified value exists in the dynamic array.
+     * With range counts this is a single lookup.
+     * @param value the value to check for
+     * @return true if the value exists, false otherwise
+     */
+    @Override
+    public boolean contains(int value) {
+        IntRangeCounts counts = freshRangeCounts();
+        if (counts != null) return counts.count(value) > 0;
+        return indexOf(value) != -1;
+    }
+
+    /**
+     * Returns the indices of all occurrences of the specified value.
+     * @param value the value to search for
+     * @return the ascending indices of the value, empty if not found
+     */
+    @Override
+    public int[] indicesOf(int value) {
+        IntRangeCounts counts = freshRangeCounts();
+        if (counts != null && counts.count(value) == 0) return new int[0];
+        if (positionIndex != null) {
+            return freshPositionIndex().positionsOf(value);
+        }
+        if (isParallel()) {
+            return ParallelKernels.indicesOf(elements, size, value);
+        }
+        return IntKernels.INSTANCE.indicesOf(elements, 0, size, value);
+    }
+
+    /**
+     * Enables or disables the index from each value to its positions.
+     * While enabled, indexOf, contains, indicesOf and replaceAll cost time
+     * proportional to the number of matches. Appends, sets and clears keep the
+     * index up to date, other removals and inserts rebuild it on next use.
+     * The index holds an array of positions per distinct value, so it is off by
+     * default and suits arrays with few distinct values that are searched repeatedly.
+     *
+     * @param enabled true to maintain the index, false to drop it
+     */
+    public void setPositionIndexEnabled(boolean enabled) {
+        if (!enabled) {
+            positionIndex = null;
+        } else if (positionIndex == null) {
+            positionIndex = new IntPositionIndex();
+            positionIndexStale = true;
+        }
+    }
+
+    /**
+     * Enables or disables the automatic range counts.
+     * While enabled and the values span a range no wider than {@link IntRangeCounts#MAX_WIDTH}
+     * and the number of elements, contains is a lookup, missing values are answered without
+     * a scan, dedupe walks a bitmap and the statistics come from highest-set-bit lookups.
+     * Appends, sets, removals at an index, clears, sorts and replacements keep the counts
+     * up to date, other changes rebuild them on next use.
+     *
+     * @param enabled true to build the counts when the range is narrow, false to drop them
+     */
+    public void setRangeCountsEnabled(boolean enabled) {
+        rangeCountsEnabled = enabled;
+        if (!enabled) dropRangeCounts();
+    }
+
+    /**
+     * Sets whether scans and transforms run sequentially or on the common fork-join pool.
+     * Applies to stats, indexOf, indicesOf and replaceAll when the position index is off.
+     *
+     * @param mode the execution mode
+     * @param threshold the number of elements from which AUTO mode runs in parallel
+     */
+    public void setExecutionMode(ExecutionMode mode, int threshold) {
+        if (threshold < 0)
+            throw new IllegalArgumentException("Invalid threshold: " + threshold);
+
+        this.executionMode = mode;
+        this.parallelThreshold = threshold;
+    }
+
+    /**
+     * Returns whether the next scan should run in parallel.
+     * @return true if the scan should be split across the common pool
+     */
+    private boolean isParallel() {
+        switch (executionMode) {
+            case PARALLEL:
+                return true;
+            case AUTO:
+                return size >= parallelThreshold && ParallelKernels.isAvailable();
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Returns the range counts, building them first if they are stale and the values span a narrow range.
+     * A range found too wide is not checked again until a change other than an append,
+     * or until the array doubles, since appends only widen it.
+     *
+     * @return the up-to-date range counts, or null if the range is too wide or they are disabled
+     */
+    private IntRangeCounts freshRangeCounts() {
+        if (rangeCountsModCount == modCount) return rangeCounts;
+
+        rangeCounts = null;
+        if (!rangeCountsEnabled || size == 0) return null;
+        if (wideRangeModCount >= 0 && rewriteModCount <= wideRangeModCount && size < 2L * wideRangeSize) return null;
+
+        rangeCounts = IntRangeCounts.ofNarrow(elements, size);
+        if (rangeCounts != null) {
+            rangeCountsModCount = modCount;
+            wideRangeModCount = -1;
+        } else {
+            wideRangeModCount = modCount;
+            wideRangeSize = size;
+        }
+        return rangeCounts;
+    }
+
+    /**
+     * Returns the range counts if they were valid right before the current modification,
+     * marking them valid after it. The caller applies the modification to them.
+     *
+     * @return the counts to update, or null if they are stale or not built
+     */
+    private IntRangeCounts trackedRangeCounts() {
+        if (rangeCounts == null || rangeCountsModCount != modCount - 1) return null;
+
+        rangeCountsModCount = modCount;
+        return rangeCounts;
+    }
+
+    /**
+     * Drops the range counts, they are rebuilt on next use if the range is still narrow.
+     */
+    private void dropRangeCounts() {
+        rangeCounts = null;
+        rangeCountsModCount = -1;
+        wideRangeModCount = -1;
+    }
+
+    /**
+     * Returns the position index, rebuilding it first if positions have shifted.
+     * @return the up-to-date position index
+     */
+    private IntPositionIndex freshPositionIndex() {
+        if (positionIndexStale) {
+            positionIndex.rebuild(elements, size);
+            positionIndexStale = false;
+        }
+        return positionIndex;
+    }
+
+    /**
+     * Records appended elements in the range counts and the position index if they are up to date.
+     * @param from the index of the first appended element
+     */
+    private void indexAppended(int from) {
+        IntRangeCounts counts = trackedRangeCounts();
+        for (int i = from; counts != null && i < size; i++) {
+            if (counts.covers(elements[i])) {
+                counts.add(elements[i]);
+            } else {
+                // The range widened, the counts are rebuilt for it on next use if it is still narrow
+                dropRangeCounts();
+                counts = null;
+            }
+        }
+
+        if (positionIndex == null || positionIndexStale) return;
+
+        for (int i = from; i < size; i++) {
+            positionIndex.append(elements[i], i);
+        }
+    }
+
+    /**
+     * Saves all elements to a snapshot file, replacing the file if it exists.
+     * The file holds a 24-byte header (magic, version, element count and a CRC32C
+     * of the payload) followed by the elements as little-endian int32 values.
+     *
+     * @param path the file to write
+     * @throws IOException if the file cannot be written
+     */
+    @Override
+    public void saveTo(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer chunk = ByteBuffer.allocateDirect(SNAPSHOT_CHUNK_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            CRC32C checksum = new CRC32C();
+
+            // Payload goes after the header, staged through one direct buffer with bulk puts
+            channel.position(SNAPSHOT_HEADER_BYTES);
+            int chunkInts = SNAPSHOT_CHUNK_BYTES / Integer.BYTES;
+            for (int from = 0; from < size; from += chunkInts) {
+                int len = Math.min(chunkInts, size - from);
+                chunk.clear();
+                chunk.asIntBuffer().put(elements, from, len);
+                chunk.limit(len * Integer.BYTES);
+
+                checksum.update(chunk);
+                chunk.flip();
+                while (chunk.hasRemaining()) channel.write(chunk);
+            }
+
+            // Header is written last, once the checksum is known
+            ByteBuffer header = ByteBuffer.allocate(SNAPSHOT_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(SNAPSHOT_MAGIC)
+                    .putInt(SNAPSHOT_VERSION)
+                    .putLong(size)
+                    .putInt((int) checksum.getValue())
+                    .putInt(0)
+                    .flip();
+            while (header.hasRemaining()) channel.write(header, header.position());
+        }
+    }
+
+    /**
+     * Replaces all elements with those of a snapshot file written by {@link #saveTo(Path)}.
+     * The payload is memory-mapped and copied into the array with bulk gets.
+     *
+     * @param path the file to read
+     * @throws IOException if the file cannot be read, is not a snapshot or is corrupted
+     */
+    @Override
+    public void loadFrom(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(SNAPSHOT_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0)
+                    throw new IOException("Truncated snapshot header");
+            }
+            header.flip();
+
+            if (header.getInt() != SNAPSHOT_MAGIC)
+                throw new IOException("Not an array snapshot");
+            int version = header.getInt();
+            if (version != SNAPSHOT_VERSION)
+                throw new IOException("Unsupported snapshot version: " + version);
+            long count = header.getLong();
+            int expectedChecksum = header.getInt();
+
+            if (count < 0 || count > GrowthPolicy.MAX_ARRAY_LENGTH)
+                throw new IOException("Invalid element count: " + count);
+            if (channel.size() != SNAPSHOT_HEADER_BYTES + count * Integer.BYTES)
+                throw new IOException("Snapshot size does not match its element count");
+
+            // Maps the payload in chunks, mappings are limited to 2 GiB each
+            long chunkInts = (Integer.MAX_VALUE / Integer.BYTES) & -SNAPSHOT_CHUNK_BYTES;
+
+            // The checksum is verified before anything is copied, so a corrupted file leaves the array intact
+            CRC32C checksum = new CRC32C();
+            for (long from = 0; from < count; from += chunkInts) {
+                checksum.update(mapPayload(channel, from, Math.min(chunkInts, count - from)));
+            }
+            if ((int) checksum.getValue() != expectedChecksum)
+                throw new IOException("Snapshot checksum mismatch");
+
+            int newSize = (int) count;
+            int[] target = newSize <= elements.length ? elements : new int[newSize];
+            for (long from = 0; from < count; from += chunkInts) {
+                int len = (int) Math.min(chunkInts, count - from);
+                mapPayload(channel, from, len).asIntBuffer().get(target, (int) from, len);
+            }
+
+            if (target == elements) Arrays.fill(elements, newSize, Math.max(size, newSize), 0);
+            elements = target;
+            size = newSize;
+            rewriteModCount = ++modCount;
+            positionIndexStale = true;
+        }
+    }
+
+    /**
+     * Maps a range of the snapshot payload as little-endian bytes.
+     *
+     * @param channel the open snapshot file
+     * @param from the index of the first element to map
+     * @param len the number of elements to map
+     * @return the mapped range
+     * @throws IOException if the file cannot be mapped
+     */
+    private static ByteBuffer mapPayload(FileChannel channel, long from, long len) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, SNAPSHOT_HEADER_BYTES + from * Integer.BYTES,
+                len * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Clears all elements from the dynamic array.
+     * Resets size to 0 and clears internal storage, releasing it
+     * back to the initial capacity when shrinking is enabled.
+     */
+    @Override
+    public void clear() {
+        // A recorded clear keeps the old array for undo, so it is swapped out instead of zeroed
+        ClearEntry entry = journal != null && size > 0 ? new ClearEntry(elements, size) : null;
+        if (entry != null || (shrinkThreshold > 0f && elements.length > initialCapacity)) {
+            elements = new int[initialCapacity];
+        } else {
+            Arrays.fill(elements, 0, size, 0);
+        }
+        if (size > 0) rewriteModCount = ++modCount;
+        size = 0;
+
+        if (positionIndex != null) {
+            positionIndex.clear();
+            positionIndexStale = false;
+        }
+        IntRangeCounts counts = trackedRangeCounts();
+        if (counts != null) counts.clear();
+        if (entry != null) record(entry);
+    }
+
+    /**
+     * Removes duplicate values so that every value appears only once.
+     * Surviving elements are compacted in a single pass with one write cursor.
+     *
+     * @param mode how duplicates are detected and what order is kept
+     * @return the number of removed elements
+     */
+    @Override
+    public int distinctInPlace(DistinctMode mode) {
+        if (size < 2) return 0;
+
+        int write;
+        DedupeEntry entry = null;
+        IntRangeCounts counts = freshRangeCounts();
+        if (mode == DistinctMode.SORTED && counts != null) {
+            // The bitmap walk yields the distinct values already in order
+            write = counts.writeDistinct(elements);
+            rewriteModCount = ++modCount;
+            positionIndexStale = true;
+        } else if (mode == DistinctMode.SORTED) {
+            sort();
+
+            // Equal values are adjacent, so only the previous survivor is compared
+            write = 1;
+            for (int read = 1; read < size; read++) {
+                if (elements[read] != elements[write - 1]) {
+                    elements[write++] = elements[read];
+                }
+            }
+        } else {
+            if (counts != null && !counts.hasDuplicates()) return 0;
+
+            IntHashSet seen = counts == null ? new IntHashSet(size) : null;
+            long[] seenBits = counts != null ? counts.newBitmap() : null;
+            if (journal != null) entry = new DedupeEntry(size);
+
+            // First occurrence wins, later ones are skipped by the write cursor
+            write = 0;
+            for (int read = 0; read < size; read++) {
+                int value = elements[read];
+                if (seen != null ? seen.add(value) : counts.markFirst(seenBits, value)) {
+                    elements[write++] = value;
+                } else if (entry != null) {
+                    entry.markRemoved(read, value);
+                }
+            }
+        }
+
+        int removed = size - write;
+        Arrays.fill(elements, write, size, 0);
+        size = write;
+        if (removed == 0) return 0;
+
+        rewriteModCount = ++modCount;
+        positionIndexStale = true;
+        if (entry != null) record(entry);
+        shrinkIfSparse();
+        return removed;
+    }
+
+    /**
+     * Enables the undo and redo journal, or disables it with a limit of 0.
+     * Appends, replacements, stable deduplication and clears are recorded as compact
+     * deltas; any other mutation makes the history stale, and it is dropped.
+     *
+     * @param limitBytes the maximum memory retained by the history, 0 to disable it
+     * @throws IllegalArgumentException if limitBytes is negative
+     */
+    public void setJournalLimit(long limitBytes) {
+        if (limitBytes < 0)
+            throw new IllegalArgumentException("Invalid journal limit: " + limitBytes);
+
+        journal = limitBytes == 0 ? null : new MutationJournal(limitBytes);
+        journalModCount = modCount;
+    }
+
+    /**
+     * Reverts the most recent recorded change in O(size of the change).
+     * The position index, if enabled, is rebuilt on its next use.
+     *
+     * @return true if a change was reverted, false if there is nothing to undo
+     */
+    @Override
+    public boolean undo() {
+        if (!isJournalCurrent() || !journal.undo()) return false;
+
+        rewriteModCount = ++modCount;
+        journalModCount = modCount;
+        positionIndexStale = true;
+        return true;
+    }
+
+    /**
+     * Reapplies the most recently reverted change in O(size of the change).
+     *
+     * @return true if a change was reapplied, false if there is nothing to redo
+     */
+    @Override
+    public boolean redo() {
+        if (!isJournalCurrent() || !journal.redo()) return false;
+
+        rewriteModCount = ++modCount;
+        journalModCount = modCount;
+        positionIndexStale = true;
+        return true;
+    }
+
+    /**
+     * Ends the current change, so that appends made after it are undone separately.
+     * Appends in between checkpoints are recorded as a single range.
+     */
+    @Override
+    public void checkpoint() {
+        if (journal != null && journal.last() instanceof AppendEntry) {
+            ((AppendEntry) journal.last()).closed = true;
+        }
+    }
+
+    /**
+     * Checks that the journal is enabled, dropping its history if an unrecorded mutation made it stale.
+     * @return true if the journal is enabled
+     */
+    private boolean isJournalCurrent() {
+        if (journal == null) return false;
+
+        if (journalModCount != modCount) {
+            journal.clear();
+            journalModCount = modCount;
+        }
+        return true;
+    }
+
+    /**
+     * Records a change that was just made, after its modification count increment.
+     * @param entry the change to record
+     */
+    private void record(MutationJournal.Entry entry) {
+        // A mutation in between that was not recorded leaves nothing to undo safely
+        if (journalModCount != modCount - 1) journal.clear();
+        journal.record(entry);
+        journalModCount = modCount;
+    }
+
+    /**
+     * Records an append, merging it into the previous one when it continues it.
+     * @param from the index of the first appended element
+     */
+    private void journalAppend(int from) {
+        MutationJournal.Entry last = journal.last();
+        if (journalModCount == modCount - 1 && last instanceof AppendEntry && !((AppendEntry) last).closed
+                && ((AppendEntry) last).to == from) {
+            ((AppendEntry) last).to = size;
+            journalModCount = modCount;
+        } else {
+            record(new AppendEntry(from, size));
+        }
+    }
+
+    /**
+     * Replaces every occurrence of a value, recording the replaced positions as a bitmap.
+     * The first and last matches are found from either end, then only the elements
+     * between them are rewritten, by the same kernels as without the journal, into a
+     * bitmap that covers just that span.
+     *
+     * @param oldValue the value to replace
+     * @param newValue the value to put in its place
+     * @return the number of replaced elements
+     */
+    private int replaceAllJournaled(int oldValue, int newValue) {
+        ReplaceEntry entry;
+        if (positionIndex != null) {
+            int[] positions = freshPositionIndex().positionsOf(oldValue);
+            if (positions.length == 0) return 0;
+
+            entry = new ReplaceEntry(oldValue, newValue, positions[0], positions[positions.length - 1]);
+            for (int position : positions) entry.mark(position);
+            positionIndex.replaceAll(elements, oldValue, newValue);
+            if (positionIndex.isFragmented()) positionIndexStale = true;
+        } else if (isParallel()) {
+            int first = ParallelKernels.indexOf(elements, size, oldValue);
+            if (first < 0) return 0;
+
+            int last = ParallelKernels.lastIndexOf(elements, size, oldValue);
+            entry = new ReplaceEntry(oldValue, newValue, first, last);
+            entry.count = ParallelKernels.replaceAll(elements, first, last + 1, oldValue, newValue,
+                    entry.words, entry.base);
+        } else {
+            int first = IntKernels.INSTANCE.indexOf(elements, 0, size, oldValue);
+            if (first < 0) return 0;
+
+            int last = IntKernels.INSTANCE.lastIndexOf(elements, first, size, oldValue);
+            entry = new ReplaceEntry(oldValue, newValue, first, last);
+            entry.count = IntKernels.INSTANCE.replaceAll(elements, first, last + 1, oldValue, newValue,
+                    entry.words, entry.base);
+        }
+
+        rewriteModCount = ++modCount;
+        record(entry);
+        return entry.count;
+    }
+
+    /** Append of the elements in [from, to); their values are only kept while undone */
+    private final class AppendEntry implements MutationJournal.Entry {
+        private final int from;
+        private int to;
+        private int[] values;
+        private boolean closed;
+
+        AppendEntry(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public long bytes() {
+            return values == null ? 16 : 16 + (long) values.length * Integer.BYTES;
+        }
+
+        @Override
+        public void undo() {
+            values = Arrays.copyOfRange(elements, from, to);
+            Arrays.fill(elements, from, to, 0);
+            size = from;
+            closed = true;
+        }
+
+        @Override
+        public void redo() {
+            ensureCapacity(to);
+            System.arraycopy(values, 0, elements, from, values.length);
+            size = to;
+            values = null;
+        }
+    }
+
+    /** Replacement of oldValue by newValue, at the positions set in a bitmap starting at base */
+    private final class ReplaceEntry implements MutationJournal.Entry {
+        private final int oldValue;
+        private final int newValue;
+        private final int base;
+        private final long[] words;
+        private int count;
+
+        ReplaceEntry(int oldValue, int newValue, int first, int last) {
+            this.oldValue = oldValue;
+            this.newValue = newValue;
+            this.base = first & -64;
+            this.words = new long[((last - base) >>> 6) + 1];
+        }
+
+        void mark(int position) {
+            words[(position - base) >>> 6] |= 1L << position;
+            count++;
+        }
+
+        @Override
+        public long bytes() {
+            return 32 + (long) words.length * Long.BYTES;
+        }
+
+        @Override
+        public void undo() {
+            fill(oldValue);
+        }
+
+        @Override
+        public void redo() {
+            fill(newValue);
+        }
+
+        /** Writes a value at every marked position, visiting only the set bits */
+        private void fill(int value) {
+            for (int w = 0; w < words.length; w++) {
+                for (long bits = words[w]; bits != 0; bits &= bits - 1) {
+                    elements[base + (w << 6) + Long.numberOfTrailingZeros(bits)] = value;
+                }
+            }
+        }
+    }
+
+    /** Stable deduplication, as the bitset of removed positions and the removed values in order */
+    private final class DedupeEntry implements MutationJournal.Entry {
+        private final int originalSize;
+        private final long[] removedPositions;
+        private int[] removedValues = new int[16];
+        private int removedCount;
+
+        DedupeEntry(int originalSize) {
+            this.originalSize = originalSize;
+            this.removedPositions = new long[(originalSize + 63) >>> 6];
+        }
+
+        void markRemoved(int position, int value) {
+            removedPositions[position >>> 6] |= 1L << position;
+            if (removedCount == removedValues.length) {
+                removedValues = Arrays.copyOf(removedValues, removedCount * 2);
+            }
+            removedValues[removedCount++] = value;
+        }
+
+        @Override
+        public long bytes() {
+            return 32 + (long) removedPositions.length * Long.BYTES + (long) removedValues.length * Integer.BYTES;
+        }
+
+        @Override
+        public void undo() {
+            if (elements.length < originalSize) resize(originalSize);
+
+            // Filling from the back, survivors only ever move right, so none is overwritten early
+            int survivor = size;
+            int removed = removedCount;
+            for (int i = originalSize - 1; i >= 0; i--) {
+                boolean wasRemoved = (removedPositions[i >>> 6] & (1L << i)) != 0;
+                elements[i] = wasRemoved ? removedValues[--removed] : elements[--survivor];
+            }
+            size = originalSize;
+        }
+
+        @Override
+        public void redo() {
+            int write = 0;
+            for (int read = 0; read < originalSize; read++) {
+                if ((removedPositions[read >>> 6] & (1L << read)) == 0) {
+                    elements[write++] = elements[read];
+                }
+            }
+            Arrays.fill(elements, write, originalSize, 0);
+            size = write;
+        }
+    }
+
+    /** Clear, keeping a reference to the retired internal array while it can be undone */
+    private final class ClearEntry implements MutationJournal.Entry {
+        private int[] retired;
+        private int retiredSize;
+
+        ClearEntry(int[] retired, int retiredSize) {
+            this.retired = retired;
+            this.retiredSize = retiredSize;
+        }
+
+        @Override
+        public long bytes() {
+            return retired == null ? 16 : 16 + (long) retired.length * Integer.BYTES;
+        }
+
+        @Override
+        public void undo() {
+            elements = retired;
+            size = retiredSize;
+            retired = null;
+        }
+
+        @Override
+        public void redo() {
+            retired = elements;
+            retiredSize = size;
+            elements = new int[initialCapacity];
+            size = 0;
+        }
+    }
+
+    /** Execution modes for {@link #setExecutionMode(ExecutionMode, int)} */
+    public enum ExecutionMode {
+        /** Always scans on the calling thread */
+        SEQUENTIAL,
+        /** Always splits scans across the common fork-join pool */
+        PARALLEL,
+        /** Scans in parallel once the array reaches the threshold */
+        AUTO
+    }
+}
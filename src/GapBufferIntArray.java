@@ -0,0 +1,352 @@
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Class representing a list of integers stored as a gap buffer.
+ * The free capacity is kept as a gap inside the array at the position of the last edit,
+ * so inserting or removing next to it only moves the gap boundary. Moving the gap to
+ * another position shifts just the elements in between, which makes a sequence of edits
+ * around a cursor O(1) amortized each. An element is read at its index, or past the gap.
+ */
+class GapBufferIntArray implements IntList {
+    /** Internal storage, elements before gapStart and from gapEnd on */
+    private int[] buffer = new int[16];
+
+    /** Index of the first free slot, also the list index of the edit cursor */
+    private int gapStart;
+
+    /** Index of the first element after the gap */
+    private int gapEnd = buffer.length;
+
+    /** Number of elements shifted while moving the gap */
+    private long shiftedElements;
+
+    /**
+     * Adds a new value to the end of the list.
+     * The gap moves to the end first, so a run of appends shifts the tail only once.
+     *
+     * @param value the integer value to add
+     */
+    @Override
+    public void add(int value) {
+        insert(size(), value);
+    }
+
+    /**
+     * Adds a range of values to the end of the list.
+     *
+     * @param src the array holding the values to add
+     * @param off the index of the first value in src
+     * @param len the number of values to add
+     * @throws IndexOutOfBoundsException if the range is outside of src
+     */
+    @Override
+    public void addAll(int[] src, int off, int len) {
+        if (off < 0 || len < 0 || off > src.length - len)
+            throw new IndexOutOfBoundsException("Invalid range: " + off + ".." + (off + len));
+
+        insertRange(size(), src, off, len);
+    }
+
+    /**
+     * Inserts values at the specified index, moving the gap there first.
+     *
+     * @param index the index where the first value will be placed
+     * @param values the values to insert
+     * @throws IndexOutOfBoundsException if index is out of bounds
+     */
+    @Override
+    public void insert(int index, int... values) {
+        if (index < 0 || index > size())
+            throw new IndexOutOfBoundsException("Invalid index: " + index);
+
+        insertRange(index, values, 0, values.length);
+    }
+
+    /**
+     * Ensures the buffer can hold at least the given number of elements without growing.
+     *
+     * @param minCapacity the required capacity
+     */
+    @Override
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity > buffer.length) {
+            resize(GrowthPolicy.DOUBLING.newCapacity(buffer.length, minCapacity));
+        }
+    }
+
+    /**
+     * Returns the element at the specified index, skipping the gap.
+     *
+     * @param index the index of the element to retrieve
+     * @return the value stored at the specified index
+     * @throws IndexOutOfBoundsException if index is out of bounds
+     */
+    @Override
+    public int getValue(int index) {
+        if (index < 0 || index >= size())
+            throw new IndexOutOfBoundsException("Invalid index: " + index);
+
+        return buffer[index < gapStart ? index : index + gapEnd - gapStart];
+    }
+
+    /**
+     * Updates the value at a specific index, the gap does not move.
+     *
+     * @param index the index of the element to update
+     * @param newValue the new value to set
+     * @throws IndexOutOfBoundsException if index is out of bounds
+     */
+    @Override
+    public void set(int index, int newValue) {
+        if (index < 0 || index >= size())
+            throw new IndexOutOfBoundsException("Invalid index: " + index);
+
+        buffer[index < gapStart ? index : index + gapEnd - gapStart] = newValue;
+    }
+
+    /**
+     * Removes the element at the specified index by moving the gap there and widening it.
+     *
+     * @param index the index of the element to remove
+     * @throws IndexOutOfBoundsException if index is out of bounds
+     */
+    @Override
+    public void remove(int index) {
+        removeRange(index, index + 1);
+    }
+
+    /**
+     * Removes all elements from index from (inclusive) to index to (exclusive).
+     * The gap moves to from and swallows the range.
+     *
+     * @param from the index of the first element to remove
+     * @param to the index after the last element to remove
+     * @throws IndexOutOfBoundsException if the range is out of bounds
+     */
+    @Override
+    public void removeRange(int from, int to) {
+        if (from < 0 || to > size() || from > to)
+            throw new IndexOutOfBoundsException("Invalid range: " + from + ".." + to);
+        if (from == to) return;
+
+        moveGap(from);
+        gapEnd += to - from;
+    }
+
+    /**
+     * Returns the number of elements currently stored in the list.
+     * @return the current size of the list
+     */
+    @Override
+    public int size() {
+        return buffer.length - (gapEnd - gapStart);
+    }
+
+    /**
+     * Returns the index of the first occurrence of the specified value.
+     * The parts before and after the gap are searched in turn.
+     *
+     * @param value the value to search for
+     * @return the index of the value, or -1 if not found
+     */
+    @Override
+    public int indexOf(int value) {
+        int found = IntKernels.INSTANCE.indexOf(buffer, 0, gapStart, value);
+        if (found >= 0) return found;
+
+        found = IntKernels.INSTANCE.indexOf(buffer, gapEnd, buffer.length, value);
+        return found < 0 ? -1 : found - (gapEnd - gapStart);
+    }
+
+    /**
+     * Returns the indices of all occurrences of the specified value.
+     *
+     * @param value the value to search for
+     * @return the ascending indices of the value, empty if not found
+     */
+    @Override
+    public int[] indicesOf(int value) {
+        int[] before = IntKernels.INSTANCE.indicesOf(buffer, 0, gapStart, value);
+        int[] after = IntKernels.INSTANCE.indicesOf(buffer, gapEnd, buffer.length, value);
+
+        int[] indices = Arrays.copyOf(before, before.length + after.length);
+        int gapLength = gapEnd - gapStart;
+        for (int i = 0; i < after.length; i++) {
+            indices[before.length + i] = after[i] - gapLength;
+        }
+        return indices;
+    }
+
+    /**
+     * Returns the summary statistics of the elements, computed in a single pass.
+     * @return the statistics of the current elements
+     */
+    @Override
+    public IntStats stats() {
+        IntStats stats = new IntStats();
+        IntKernels.INSTANCE.accumulate(buffer, 0, gapStart, stats);
+        IntKernels.INSTANCE.accumulate(buffer, gapEnd, buffer.length, stats);
+        return stats;
+    }
+
+    /**
+     * Replaces every occurrence of a value with a new value, in place.
+     *
+     * @param oldValue the value to replace
+     * @param newValue the value to put in its place
+     * @return the number of replaced elements
+     */
+    @Override
+    public int replaceAll(int oldValue, int newValue) {
+        return IntKernels.INSTANCE.replaceAll(buffer, 0, gapStart, oldValue, newValue)
+                + IntKernels.INSTANCE.replaceAll(buffer, gapEnd, buffer.length, oldValue, newValue);
+    }
+
+    /**
+     * Performs the given action for each element in index order.
+     * The action must not modify this list.
+     *
+     * @param action the action to perform on each value
+     */
+    @Override
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < gapStart; i++) action.accept(buffer[i]);
+        for (int i = gapEnd; i < buffer.length; i++) action.accept(buffer[i]);
+    }
+
+    /**
+     * Returns a copy of the elements in index order.
+     * @return a new array holding every element
+     */
+    @Override
+    public int[] toArray() {
+        int[] values = Arrays.copyOf(buffer, size());
+        System.arraycopy(buffer, gapEnd, values, gapStart, buffer.length - gapEnd);
+        return values;
+    }
+
+    /**
+     * Removes duplicate values so that every value appears only once.
+     * With the stable mode the gap moves to the front, then each element is either
+     * kept by moving it across the gap or removed by widening it, one O(1) edit per element.
+     *
+     * @param mode how duplicates are detected and what order is kept
+     * @return the number of removed elements
+     */
+    @Override
+    public int distinctInPlace(DistinctMode mode) {
+        int size = size();
+        if (size < 2) return 0;
+
+        if (mode == DistinctMode.SORTED) sort();
+        moveGap(0);
+
+        IntHashSet seen = mode == DistinctMode.STABLE ? new IntHashSet(size) : null;
+        while (gapEnd < buffer.length) {
+            int value = buffer[gapEnd++];
+            boolean isFirst = seen != null ? seen.add(value) : gapStart == 0 || buffer[gapStart - 1] != value;
+            if (isFirst) buffer[gapStart++] = value;
+        }
+        return size - gapStart;
+    }
+
+    /**
+     * Sorts the elements ascending with a radix sort, after closing the gap at the end.
+     */
+    @Override
+    public void sort() {
+        moveGap(size());
+        IntSorting.sort(buffer, 0, gapStart);
+    }
+
+    /**
+     * Clears all elements, the whole buffer becomes the gap.
+     */
+    @Override
+    public void clear() {
+        gapStart = 0;
+        gapEnd = buffer.length;
+    }
+
+    /**
+     * Shrinks the buffer to the number of stored elements, closing the gap.
+     */
+    @Override
+    public void trimToSize() {
+        if (gapStart < gapEnd) resize(size());
+    }
+
+    /**
+     * Returns the number of bytes held by the gap.
+     * @return the bytes allocated beyond the stored elements
+     */
+    @Override
+    public long wastedBytes() {
+        return (long) (gapEnd - gapStart) * Integer.BYTES;
+    }
+
+    /**
+     * Describes how much storage is allocated compared with the stored elements, and where the gap is.
+     * @return a single-line memory usage report
+     */
+    @Override
+    public String memoryReport() {
+        return String.format("Size: %d, Capacity: %d, Gap at: %d, Live: %d bytes, Allocated: %d bytes, "
+                        + "Wasted: %d bytes, Elements shifted: %d",
+                size(), buffer.length, gapStart, (long) size() * Integer.BYTES,
+                (long) buffer.length * Integer.BYTES, wastedBytes(), shiftedElements);
+    }
+
+    /**
+     * Inserts a range of values at a valid index.
+     *
+     * @param index the index where the first value will be placed
+     * @param src the array holding the values to insert
+     * @param off the index of the first value in src
+     * @param len the number of values to insert
+     */
+    private void insertRange(int index, int[] src, int off, int len) {
+        if (len == 0) return;
+
+        moveGap(index);
+        if (gapEnd - gapStart < len) {
+            resize(GrowthPolicy.DOUBLING.newCapacity(buffer.length, size() + len));
+        }
+        System.arraycopy(src, off, buffer, gapStart, len);
+        gapStart += len;
+    }
+
+    /**
+     * Moves the gap so that it starts at a list index, shifting the elements in between across it.
+     * @param index the new start of the gap, between 0 and size
+     */
+    private void moveGap(int index) {
+        if (index < gapStart) {
+            int moved = gapStart - index;
+            System.arraycopy(buffer, index, buffer, gapEnd - moved, moved);
+            gapStart -= moved;
+            gapEnd -= moved;
+            shiftedElements += moved;
+        } else if (index > gapStart) {
+            int moved = index - gapStart;
+            System.arraycopy(buffer, gapEnd, buffer, gapStart, moved);
+            gapStart += moved;
+            gapEnd += moved;
+            shiftedElements += moved;
+        }
+    }
+
+    /**
+     * Replaces the buffer with one of another capacity, keeping the gap at the same index.
+     * @param capacity the new capacity, at least the size
+     */
+    private void resize(int capacity) {
+        int tail = buffer.length - gapEnd;
+        int[] resized = new int[capacity];
+        System.arraycopy(buffer, 0, resized, 0, gapStart);
+        System.arraycopy(buffer, gapEnd, resized, capacity - tail, tail);
+        buffer = resized;
+        gapEnd = capacity - tail;
+    }
+}
@@ -0,0 +1,52 @@
+/**
+ * Strategy deciding how much a {@link DynamicArray} grows when it runs out of space.
+ */
+interface GrowthPolicy {
+    /** Largest array length that every JVM can allocate */
+    int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+
+    /** Doubles the capacity, fewest copies but up to half of the storage may be unused */
+    GrowthPolicy DOUBLING = current -> (long) current * 2;
+
+    /** Grows the capacity by half, trading a few more copies for less unused storage */
+    GrowthPolicy ONE_AND_A_HALF = current -> current + (long) (current >> 1);
+
+    /**
+     * Returns the preferred capacity after growing from the current capacity.
+     * The result may exceed the array length limit, callers clamp it.
+     *
+     * @param currentCapacity the capacity before growing
+     * @return the preferred new capacity
+     */
+    long grow(int currentCapacity);
+
+    /**
+     * Returns the capacity an array should grow to so it fits the required capacity.
+     * Never exceeds {@link #MAX_ARRAY_LENGTH}.
+     *
+     * @param currentCapacity the capacity before growing
+     * @param minCapacity the required minimum capacity
+     * @return the new capacity
+     * @throws OutOfMemoryError if minCapacity exceeds the array length limit
+     */
+    default int newCapacity(int currentCapacity, int minCapacity) {
+        if (minCapacity < 0 || minCapacity > MAX_ARRAY_LENGTH)
+            throw new OutOfMemoryError("Required array length too large: " + Integer.toUnsignedString(minCapacity));
+
+        long preferred = Math.min(grow(currentCapacity), MAX_ARRAY_LENGTH);
+        return (int) Math.max(preferred, minCapacity);
+    }
+
+    /**
+     * Returns a policy that grows the capacity by a fixed number of elements.
+     *
+     * @param chunk the number of elements added on each growth
+     * @return the fixed-chunk growth policy
+     */
+    static GrowthPolicy fixedChunk(int chunk) {
+        if (chunk <= 0)
+            throw new IllegalArgumentException("Chunk must be positive: " + chunk);
+
+        return current -> (long) current + chunk;
+    }
+}
@@ -0,0 +1,159 @@
+import java.util.Arrays;
+
+/**
+ * Class representing a set of primitive integers.
+ * Uses open addressing with linear probing, so values are never boxed.
+ */
+class IntHashSet {
+    /** Slot value marking an empty slot, the actual value is tracked by {@link #hasFreeKey} */
+    private static final int FREE_KEY = 0;
+
+    /** Fraction of the slots that may be occupied before the table is doubled */
+    private static final float LOAD_FACTOR = 0.5f;
+
+    /** Largest slot table length, bounded by the maximum array length */
+    private static final int MAX_TABLE_LENGTH = 1 << 30;
+
+    /** Open-addressing slot table, its length is always a power of two */
+    private int[] keys;
+
+    /** Bit mask used to wrap a hash into the slot table */
+    private int mask;
+
+    /** Number of values currently stored in the set */
+    private int size;
+
+    /** Number of stored values that triggers the next resize */
+    private int resizeThreshold;
+
+    /** Whether the value equal to {@link #FREE_KEY} is in the set */
+    private boolean hasFreeKey;
+
+    /**
+     * Constructs a new IntHashSet sized for an expected number of values.
+     *
+     * @param expectedSize the number of values expected to be added
+     */
+    public IntHashSet(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    /**
+     * Adds a value to the set.
+     *
+     * @param value the integer value to add
+     * @return true if the value was not yet in the set, false otherwise
+     * @throws IllegalStateException if the value is new and the largest slot table is full
+     */
+    public boolean add(int value) {
+        if (value == FREE_KEY) {
+            if (hasFreeKey) return false;
+            hasFreeKey = true;
+            size++;
+            return true;
+        }
+
+        int slot = hash(value) & mask;
+        while (keys[slot] != FREE_KEY) {
+            if (keys[slot] == value) return false;
+            slot = (slot + 1) & mask;
+        }
+        // One slot always stays free, or probing for an absent value would never end
+        if (size - (hasFreeKey ? 1 : 0) == keys.length - 1)
+            throw new IllegalStateException("Capacity exceeded: " + size + " values");
+        keys[slot] = value;
+
+        if (++size >= resizeThreshold && keys.length < MAX_TABLE_LENGTH) {
+            rehash(keys.length * 2);
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether the specified value exists in the set.
+     *
+     * @param value the value to check for
+     * @return true if the value exists, false otherwise
+     */
+    public boolean contains(int value) {
+        if (value == FREE_KEY) return hasFreeKey;
+
+        int slot = hash(value) & mask;
+        while (keys[slot] != FREE_KEY) {
+            if (keys[slot] == value) return true;
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of values currently stored in the set.
+     * @return the current size of the set
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all values from the set while keeping its slot table.
+     */
+    public void clear() {
+        Arrays.fill(keys, FREE_KEY);
+        hasFreeKey = false;
+        size = 0;
+    }
+
+    /**
+     * Moves every stored value into a new slot table of the given length.
+     *
+     * @param newLength the new slot table length, a power of two
+     */
+    private void rehash(int newLength) {
+        int[] oldKeys = keys;
+        allocate(newLength);
+
+        for (int key : oldKeys) {
+            if (key == FREE_KEY) continue;
+
+            int slot = hash(key) & mask;
+            while (keys[slot] != FREE_KEY) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+        }
+    }
+
+    /**
+     * Allocates an empty slot table of the given length.
+     *
+     * @param length the slot table length, a power of two
+     */
+    private void allocate(int length) {
+        keys = new int[length];
+        mask = length - 1;
+        resizeThreshold = (int) (length * LOAD_FACTOR);
+    }
+
+    /**
+     * Returns the smallest power of two table length that holds the expected size.
+     *
+     * @param expectedSize the number of values expected to be added
+     * @return slot table length
+     */
+    private static int tableSizeFor(int expectedSize) {
+        long needed = (long) Math.max(expectedSize, 4) * 2;
+        if (needed >= MAX_TABLE_LENGTH) return MAX_TABLE_LENGTH;
+        return Integer.highestOneBit((int) needed - 1) << 1;
+    }
+
+    /**
+     * Spreads the bits of a value so that sequential values do not cluster.
+     *
+     * @param value the value to hash
+     * @return mixed hash of the value
+     */
+    private static int hash(int value) {
+        int h = value * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,146 @@
+import java.util.Arrays;
+
+/**
+ * Scan and replace kernels over ranges of int arrays, as plain loops.
+ * {@link #INSTANCE} is the SIMD subclass VectorKernels, compiled from src-vector, when the
+ * jdk.incubator.vector module is present (java --add-modules jdk.incubator.vector),
+ * and these scalar loops otherwise. Setting -Darrconsole.kernels=scalar forces the
+ * scalar loops, so both can be compared on the same machine.
+ */
+class IntKernels {
+    /** Kernels used by the lists, chosen once when the class is loaded */
+    static final IntKernels INSTANCE = load();
+
+    /**
+     * Returns the lowest index holding a value.
+     *
+     * @param data the array holding the range
+     * @param from the index of the first element to search
+     * @param to the index after the last element to search
+     * @param value the value to search for
+     * @return the index of the value, or -1 if not found
+     */
+    int indexOf(int[] data, int from, int to, int value) {
+        for (int i = from; i < to; i++) {
+            if (data[i] == value) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the highest index holding a value.
+     *
+     * @param data the array holding the range
+     * @param from the index of the first element to search
+     * @param to the index after the last element to search
+     * @param value the value to search for
+     * @return the index of the value, or -1 if not found
+     */
+    int lastIndexOf(int[] data, int from, int to, int value) {
+        for (int i = to - 1; i >= from; i--) {
+            if (data[i] == value) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns every index holding a value.
+     *
+     * @param data the array holding the range
+     * @param from the index of the first element to search
+     * @param to the index after the last element to search
+     * @param value the value to search for
+     * @return the ascending indices of the value
+     */
+    int[] indicesOf(int[] data, int from, int to, int value) {
+        int[] indices = new int[8];
+        int found = 0;
+        for (int i = from; i < to; i++) {
+            if (data[i] == value) {
+                if (found == indices.length) indices = Arrays.copyOf(indices, found * 2);
+                indices[found++] = i;
+            }
+        }
+        return Arrays.copyOf(indices, found);
+    }
+
+    /**
+     * Replaces every occurrence of a value in a range.
+     *
+     * @param data the array holding the range
+     * @param from the index of the first element
+     * @param to the index after the last element
+     * @param oldValue the value to replace
+     * @param newValue the value to put in its place
+     * @return the number of replaced elements
+     */
+    int replaceAll(int[] data, int from, int to, int oldValue, int newValue) {
+        int replaced = 0;
+        for (int i = from; i < to; i++) {
+            if (data[i] == oldValue) {
+                data[i] = newValue;
+                replaced++;
+            }
+        }
+        return replaced;
+    }
+
+    /**
+     * Replaces every occurrence of a value in a range, setting the bit of each replaced position.
+     * Position i is bit i - base of the marks, counted from the lowest bit of the first word.
+     *
+     * @param data the array holding the range
+     * @param from the index of the first element
+     * @param to the index after the last element
+     * @param oldValue the value to replace
+     * @param newValue the value to put in its place
+     * @param marks the bitmap to set the replaced positions in
+     * @param base the position of the first bit, a multiple of 64 at most from
+     * @return the number of replaced elements
+     */
+    int replaceAll(int[] data, int from, int to, int oldValue, int newValue, long[] marks, int base) {
+        int replaced = 0;
+        for (int i = from; i < to; i++) {
+            if (data[i] == oldValue) {
+                data[i] = newValue;
+                marks[(i - base) >>> 6] |= 1L << i;
+                replaced++;
+            }
+        }
+        return replaced;
+    }
+
+    /**
+     * Adds the values of a range to statistics.
+     *
+     * @param data the array holding the range
+     * @param from the index of the first value
+     * @param to the index after the last value
+     * @param into the statistics to add to
+     */
+    void accumulate(int[] data, int from, int to, IntStats into) {
+        into.accumulate(data, from, to);
+    }
+
+    /**
+     * Names the kernel set, for reports.
+     * @return "scalar", or the vector shape of the SIMD kernels
+     */
+    String name() {
+        return "scalar";
+    }
+
+    /**
+     * Loads the SIMD kernels by name, so this class links without the incubator module.
+     * @return the SIMD kernels, or the scalar ones if the module is absent or disabled
+     */
+    private static IntKernels load() {
+        if ("scalar".equals(System.getProperty("arrconsole.kernels"))) return new IntKernels();
+
+        try {
+            return (IntKernels) Class.forName("VectorKernels").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return new IntKernels();
+        }
+    }
+}
@@ -0,0 +1,451 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+
+/**
+ * Interface of an ordered list of primitive integers manipulated by the console.
+ * Backends implement the basic element operations, the bulk operations have
+ * index-based default implementations that backends override with faster ones.
+ */
+interface IntList {
+    /**
+     * Adds a new value to the end of the list.
+     *
+     * @param value the integer value to add
+     */
+    void add(int value);
+
+    /**
+     * Returns the element at the specified index.
+     *
+     * @param index the index of the element to retrieve
+     * @return the value stored at the specified index
+     * @throws IndexOutOfBoundsException if index is out of bounds
+     */
+    int getValue(int index);
+
+    /**
+     * Updates the value at a specific index in the list.
+     *
+     * @param index the index of the element to update
+     * @param newValue the new value to set
+     * @throws IndexOutOfBoundsException if index is out of bounds
+     */
+    void set(int index, int newValue);
+
+    /**
+     * Removes the element at the specified index from the list.
+     *
+     * @param index the index of the element to remove
+     * @throws IndexOutOfBoundsException if index is out of bounds
+     */
+    void remove(int index);
+
+    /**
+     * Returns the number of elements currently stored in the list.
+     * @return the current size of the list
+     */
+    int size();
+
+    /**
+     * Clears all elements from the list.
+     */
+    void clear();
+
+    /**
+     * Returns the index of the first occurrence of the specified value.
+     *
+     * @param value the value to search for
+     * @return the index of the value, or -1 if not found
+     */
+    default int indexOf(int value) {
+        int size = size();
+        for (int i = 0; i < size; i++) {
+            if (getValue(i) == value) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Checks whether the specified value exists in the list.
+     *
+     * @param value the value to check for
+     * @return true if the value exists, false otherwise
+     */
+    default boolean contains(int value) {
+        return indexOf(value) != -1;
+    }
+
+    /**
+     * Appends a range of values to the end of the list.
+     *
+     * @param src the array holding the values to add
+     * @param off the index of the first value in src
+     * @param len the number of values to add
+     * @throws IndexOutOfBoundsException if the range is outside of src
+     */
+    default void addAll(int[] src, int off, int len) {
+        if (off < 0 || len < 0 || off > src.length - len)
+            throw new IndexOutOfBoundsException("Invalid range: " + off + ".." + (off + len));
+
+        for (int i = off; i < off + len; i++) {
+            add(src[i]);
+        }
+    }
+
+    /**
+     * Inserts values at the specified index, shifting later elements right.
+     * The elements from the index on are set aside, cut off, and appended after the values.
+     * Lists that keep their own order place the values where the order requires.
+     *
+     * @param index the index where the first value will be placed
+     * @param values the values to insert
+     * @throws IndexOutOfBoundsException if index is out of bounds
+     */
+    default void insert(int index, int... values) {
+        int size = size();
+        if (index < 0 || index > size)
+            throw new IndexOutOfBoundsException("Invalid index: " + index);
+        if (values.length == 0) return;
+
+        int[] tail = new int[size - index];
+        for (int i = index; i < size; i++) tail[i - index] = getValue(i);
+
+        removeRange(index, size);
+        addAll(values, 0, values.length);
+        addAll(tail, 0, tail.length);
+    }
+
+    /**
+     * Removes all elements from index from (inclusive) to index to (exclusive).
+     * The elements after the range are set aside and the list is cut back from
+     * its end, so no element is shifted more than once.
+     *
+     * @param from the index of the first element to remove
+     * @param to the index after the last element to remove
+     * @throws IndexOutOfBoundsException if the range is out of bounds
+     */
+    default void removeRange(int from, int to) {
+        int size = size();
+        if (from < 0 || to > size || from > to)
+            throw new IndexOutOfBoundsException("Invalid range: " + from + ".." + to);
+        if (from == to) return;
+
+        int[] tail = new int[size - to];
+        for (int i = to; i < size; i++) tail[i - to] = getValue(i);
+
+        // Removing the last element never shifts the others
+        for (int i = size - 1; i >= from; i--) remove(i);
+        addAll(tail, 0, tail.length);
+    }
+
+    /**
+     * Hints that the list will soon hold the given number of elements.
+     * Backends without preallocated storage ignore it.
+     *
+     * @param minCapacity the expected number of elements
+     */
+    default void ensureCapacity(int minCapacity) {
+    }
+
+    /**
+     * Performs the given action for each element in index order.
+     * The action must not modify this list.
+     *
+     * @param action the action to perform on each value
+     */
+    default void forEach(IntConsumer action) {
+        int size = size();
+        for (int i = 0; i < size; i++) {
+            action.accept(getValue(i));
+        }
+    }
+
+    /**
+     * Performs the given action for each element and its index in index order.
+     * The action must not modify this list.
+     *
+     * @param action the action to perform on each index and value
+     */
+    default void forEachIndexed(IndexedIntConsumer action) {
+        int size = size();
+        for (int i = 0; i < size; i++) {
+            action.accept(i, getValue(i));
+        }
+    }
+
+    /**
+     * Returns the summary statistics of the elements, computed in a single pass.
+     * @return the statistics of the current elements
+     */
+    default IntStats stats() {
+        IntStats stats = new IntStats();
+        forEach(stats::accept);
+        return stats;
+    }
+
+    /**
+     * Replaces every occurrence of a value with a new value.
+     *
+     * @param oldValue the value to replace
+     * @param newValue the value to put in its place
+     * @return the number of replaced elements
+     */
+    default int replaceAll(int oldValue, int newValue) {
+        int size = size();
+        int replaced = 0;
+        for (int i = 0; i < size; i++) {
+            if (getValue(i) == oldValue) {
+                set(i, newValue);
+                replaced++;
+            }
+        }
+        return replaced;
+    }
+
+    /**
+     * Returns the indices of all occurrences of the specified value.
+     *
+     * @param value the value to search for
+     * @return the ascending indices of the value, empty if not found
+     */
+    default int[] indicesOf(int value) {
+        int size = size();
+        int[] indices = new int[8];
+        int found = 0;
+        for (int i = 0; i < size; i++) {
+            if (getValue(i) == value) {
+                if (found == indices.length) indices = Arrays.copyOf(indices, found * 2);
+                indices[found++] = i;
+            }
+        }
+        return Arrays.copyOf(indices, found);
+    }
+
+    /**
+     * Removes duplicate values so that every value appears only once.
+     * Survivors are gathered in one pass, then written back in place of the old elements.
+     *
+     * @param mode how duplicates are detected and what order is kept
+     * @return the number of removed elements
+     */
+    default int distinctInPlace(DistinctMode mode) {
+        int size = size();
+        if (size < 2) return 0;
+
+        int[] survivors = new int[size];
+        int kept = 0;
+        if (mode == DistinctMode.SORTED) {
+            for (int i = 0; i < size; i++) survivors[i] = getValue(i);
+            IntSorting.sort(survivors, 0, size);
+
+            // Equal values are adjacent, so only the previous survivor is compared
+            kept = 1;
+            for (int i = 1; i < size; i++) {
+                if (survivors[i] != survivors[kept - 1]) survivors[kept++] = survivors[i];
+            }
+        } else {
+            IntHashSet seen = new IntHashSet(size);
+            for (int i = 0; i < size; i++) {
+                int value = getValue(i);
+                if (seen.add(value)) survivors[kept++] = value;
+            }
+        }
+
+        clear();
+        addAll(survivors, 0, kept);
+        return size - kept;
+    }
+
+    /**
+     * Returns a copy of the elements in index order.
+     * @return a new array holding every element
+     */
+    default int[] toArray() {
+        int[] values = new int[size()];
+        forEachIndexed((index, value) -> values[index] = value);
+        return values;
+    }
+
+    /**
+     * Returns a count that grows with every change of the elements, for lists that track it.
+     * Results computed at an unchanged count are still valid.
+     *
+     * @return the modification count, or -1 if changes are not tracked
+     */
+    default long modCount() {
+        return -1;
+    }
+
+    /**
+     * Tells whether every change since a modification count only appended elements,
+     * so results computed at that count can be extended with the new elements.
+     *
+     * @param modCount a modification count returned earlier
+     * @return true if only appends happened since, false if unknown
+     */
+    default boolean isAppendOnlySince(long modCount) {
+        return false;
+    }
+
+    /**
+     * Marks the end of a change for lists that keep an undo history,
+     * so that the appends of one action are undone together.
+     */
+    default void checkpoint() {
+    }
+
+    /**
+     * Reverts the most recent change, for lists that keep an undo history.
+     * @return true if a change was reverted, false if there is nothing to undo
+     */
+    default boolean undo() {
+        return false;
+    }
+
+    /**
+     * Reapplies the most recently reverted change, for lists that keep an undo history.
+     * @return true if a change was reapplied, false if there is nothing to redo
+     */
+    default boolean redo() {
+        return false;
+    }
+
+    /**
+     * Sorts the elements ascending with a radix sort.
+     */
+    default void sort() {
+        int[] values = toArray();
+        IntSorting.sort(values, 0, values.length);
+        clear();
+        addAll(values, 0, values.length);
+    }
+
+    /**
+     * Returns the index of the first occurrence of a value, assuming the list is sorted ascending.
+     * The result is undefined if the list is not sorted.
+     *
+     * @param value the value to search for
+     * @return the index of the value, or (-(insertion point) - 1) if not found
+     */
+    default int binarySearch(int value) {
+        int low = 0;
+        int high = size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (getValue(mid) < value) low = mid + 1;
+            else high = mid;
+        }
+        return low < size() && getValue(low) == value ? low : -low - 1;
+    }
+
+    /**
+     * Returns the k-th largest value with introselect, without reordering the list.
+     *
+     * @param k the rank from the top, 1 for the largest
+     * @param distinct whether equal values count once
+     * @return the k-th largest value
+     * @throws IllegalArgumentException if k is less than 1
+     * @throws NoSuchElementException if there are fewer than k values, or distinct values
+     */
+    default int kthLargest(int k, boolean distinct) {
+        if (k < 1)
+            throw new IllegalArgumentException("Invalid k: " + k);
+
+        int[] values = toArray();
+        int count = values.length;
+        if (distinct) {
+            IntHashSet seen = new IntHashSet(count);
+            count = 0;
+            for (int value : values) {
+                if (seen.add(value)) values[count++] = value;
+            }
+        }
+        if (k > count)
+            throw new NoSuchElementException("Only " + count + (distinct ? " distinct" : "") + " values");
+
+        return IntSorting.select(values, 0, count, count - k);
+    }
+
+    /**
+     * Returns the k largest values, streaming the elements through a bounded heap.
+     *
+     * @param k the number of values to return
+     * @return at most k values, largest first
+     * @throws IllegalArgumentException if k is negative
+     */
+    default int[] topK(int k) {
+        if (k < 0)
+            throw new IllegalArgumentException("Invalid k: " + k);
+
+        IntTopK top = new IntTopK(Math.min(k, size()));
+        forEach(top);
+        return top.toDescendingArray();
+    }
+
+    /**
+     * Releases unused storage, if the backend keeps any.
+     */
+    default void trimToSize() {
+    }
+
+    /**
+     * Returns the number of bytes held by unused storage.
+     * @return the bytes allocated beyond the stored elements, 0 if not tracked
+     */
+    default long wastedBytes() {
+        return 0;
+    }
+
+    /**
+     * Describes how much storage is allocated compared with the stored elements.
+     * @return a single-line memory usage report
+     */
+    default String memoryReport() {
+        return "Size: " + size() + ", Live: " + (long) size() * Integer.BYTES + " bytes, allocation not tracked";
+    }
+
+    /**
+     * Saves all elements to a snapshot file.
+     *
+     * @param path the file to write
+     * @throws IOException if the file cannot be written
+     * @throws UnsupportedOperationException if the backend has no snapshot support
+     */
+    default void saveTo(Path path) throws IOException {
+        throw new UnsupportedOperationException("Snapshots are not supported by " + getClass().getName());
+    }
+
+    /**
+     * Replaces all elements with those of a snapshot file.
+     *
+     * @param path the file to read
+     * @throws IOException if the file cannot be read, is not a snapshot or is corrupted
+     * @throws UnsupportedOperationException if the backend has no snapshot support
+     */
+    default void loadFrom(Path path) throws IOException {
+        throw new UnsupportedOperationException("Snapshots are not supported by " + getClass().getName());
+    }
+
+    /** Action performed on an element together with its index */
+    @FunctionalInterface
+    interface IndexedIntConsumer {
+        /**
+         * Performs this action on an element.
+         *
+         * @param index the index of the element
+         * @param value the value of the element
+         */
+        void accept(int index, int value);
+    }
+
+    /** Strategies for {@link #distinctInPlace(DistinctMode)} */
+    enum DistinctMode {
+        /** Keeps the first occurrence of each value in its original order */
+        STABLE,
+        /** Sorts the list ascending first, faster but the original order is lost */
+        SORTED
+    }
+}
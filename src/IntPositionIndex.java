@@ -0,0 +1,320 @@
+import java.util.Arrays;
+
+/**
+ * Class representing a secondary index from each value to the positions holding it.
+ * Positions of a value are kept ascending in a primitive list, so lookups and
+ * replacements cost time proportional to the number of matches.
+ */
+class IntPositionIndex {
+    /** Slot count marking a slot that was never used */
+    private static final int EMPTY = -1;
+
+    /** Largest slot table length, bounded by the maximum array length */
+    private static final int MAX_TABLE_LENGTH = 1 << 30;
+
+    /** Open-addressing table of indexed values, its length is always a power of two */
+    private int[] keys;
+
+    /** Number of positions per slot, EMPTY for unused slots and 0 for retired values */
+    private int[] counts;
+
+    /** Ascending positions per slot, only the first counts[slot] entries are valid */
+    private int[][] positions;
+
+    /** Bit mask used to wrap a hash into the slot table */
+    private int mask;
+
+    /** Number of slots holding a key, including retired values */
+    private int usedSlots;
+
+    /** Number of slots whose value no longer occurs */
+    private int retiredSlots;
+
+    /**
+     * Constructs an empty IntPositionIndex.
+     */
+    public IntPositionIndex() {
+        allocate(16);
+    }
+
+    /**
+     * Rebuilds the index from scratch for the given elements.
+     *
+     * @param data the array holding the elements
+     * @param size the number of elements to index
+     */
+    public void rebuild(int[] data, int size) {
+        allocate(tableSizeFor(Math.min(size, 1 << 16)));
+        for (int i = 0; i < size; i++) {
+            append(data[i], i);
+        }
+    }
+
+    /**
+     * Removes every value from the index.
+     */
+    public void clear() {
+        Arrays.fill(counts, EMPTY);
+        Arrays.fill(positions, null);
+        usedSlots = 0;
+        retiredSlots = 0;
+    }
+
+    /**
+     * Records a value stored at a position past every indexed position.
+     *
+     * @param value the stored value
+     * @param position the position of the value
+     */
+    public void append(int value, int position) {
+        int slot = slotFor(value);
+        int count = counts[slot];
+        int[] list = positions[slot];
+
+        if (count == 0) retiredSlots--;
+        if (list == null || count == list.length) {
+            list = positions[slot] = Arrays.copyOf(list == null ? new int[0] : list, Math.max(count * 2, 2));
+        }
+        list[count] = position;
+        counts[slot] = count + 1;
+    }
+
+    /**
+     * Records that the value at a position changed.
+     *
+     * @param position the position of the changed element
+     * @param oldValue the value previously stored at the position
+     * @param newValue the value now stored at the position
+     */
+    public void move(int position, int oldValue, int newValue) {
+        if (oldValue == newValue) return;
+
+        // Drops the position from the old value's list
+        int oldSlot = find(oldValue);
+        int[] oldList = positions[oldSlot];
+        int at = Arrays.binarySearch(oldList, 0, counts[oldSlot], position);
+        System.arraycopy(oldList, at + 1, oldList, at, counts[oldSlot] - at - 1);
+        if (--counts[oldSlot] == 0) retiredSlots++;
+
+        // Inserts the position into the new value's list, keeping it ascending
+        int newSlot = slotFor(newValue);
+        int count = counts[newSlot];
+        int[] newList = positions[newSlot];
+        if (count == 0) retiredSlots--;
+        if (newList == null || count == newList.length) {
+            newList = positions[newSlot] = Arrays.copyOf(newList == null ? new int[0] : newList, Math.max(count * 2, 2));
+        }
+        int insertAt = -Arrays.binarySearch(newList, 0, count, position) - 1;
+        System.arraycopy(newList, insertAt, newList, insertAt + 1, count - insertAt);
+        newList[insertAt] = position;
+        counts[newSlot] = count + 1;
+    }
+
+    /**
+     * Replaces every occurrence of a value in the data and in the index.
+     *
+     * @param data the array holding the indexed elements
+     * @param oldValue the value to replace
+     * @param newValue the value to put in its place
+     * @return the number of replaced elements
+     */
+    public int replaceAll(int[] data, int oldValue, int newValue) {
+        int oldSlot = find(oldValue);
+        if (oldSlot < 0) return 0;
+
+        // Replacing a value with itself only counts the matches
+        int replaced = counts[oldSlot];
+        if (replaced == 0 || oldValue == newValue) return replaced;
+
+        int[] oldList = positions[oldSlot];
+        for (int i = 0; i < replaced; i++) {
+            data[oldList[i]] = newValue;
+        }
+
+        int newSlot = slotFor(newValue);
+        // The table may have been resized, so the old slot is looked up again
+        oldSlot = find(oldValue);
+        int newCount = counts[newSlot];
+
+        if (newCount == 0) {
+            // The new value takes over the old value's list as is
+            retiredSlots--;
+            positions[newSlot] = oldList;
+            counts[newSlot] = replaced;
+        } else {
+            positions[newSlot] = merge(positions[newSlot], newCount, oldList, replaced);
+            counts[newSlot] = newCount + replaced;
+        }
+
+        positions[oldSlot] = null;
+        counts[oldSlot] = 0;
+        retiredSlots++;
+        return replaced;
+    }
+
+    /**
+     * Returns the number of positions holding a value.
+     *
+     * @param value the value to look up
+     * @return the number of occurrences of the value
+     */
+    public int count(int value) {
+        int slot = find(value);
+        return slot < 0 ? 0 : counts[slot];
+    }
+
+    /**
+     * Returns the lowest position holding a value.
+     *
+     * @param value the value to look up
+     * @return the first position of the value, or -1 if not found
+     */
+    public int first(int value) {
+        int slot = find(value);
+        return slot < 0 || counts[slot] == 0 ? -1 : positions[slot][0];
+    }
+
+    /**
+     * Returns the positions holding a value in ascending order.
+     *
+     * @param value the value to look up
+     * @return a copy of the positions of the value
+     */
+    public int[] positionsOf(int value) {
+        int slot = find(value);
+        return slot < 0 || counts[slot] == 0 ? new int[0] : Arrays.copyOf(positions[slot], counts[slot]);
+    }
+
+    /**
+     * Checks whether most used slots belong to values that no longer occur,
+     * in which case a rebuild makes the index compact again.
+     *
+     * @return true if the index should be rebuilt
+     */
+    public boolean isFragmented() {
+        return retiredSlots > 1024 && retiredSlots * 2 > usedSlots;
+    }
+
+    /**
+     * Merges two ascending position lists into a new list.
+     *
+     * @param a the first list
+     * @param aCount the number of valid positions in a
+     * @param b the second list
+     * @param bCount the number of valid positions in b
+     * @return the merged ascending list
+     */
+    private static int[] merge(int[] a, int aCount, int[] b, int bCount) {
+        int[] merged = new int[aCount + bCount];
+        int i = 0, j = 0, k = 0;
+        while (i < aCount && j < bCount) {
+            merged[k++] = a[i] < b[j] ? a[i++] : b[j++];
+        }
+        System.arraycopy(a, i, merged, k, aCount - i);
+        System.arraycopy(b, j, merged, k + aCount - i, bCount - j);
+        return merged;
+    }
+
+    /**
+     * Returns the slot holding a value.
+     *
+     * @param value the value to look up
+     * @return the slot of the value, or -1 if it was never indexed
+     */
+    private int find(int value) {
+        int slot = hash(value) & mask;
+        while (counts[slot] != EMPTY) {
+            if (keys[slot] == value) return slot;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the slot holding a value, claiming a new slot if it was never indexed.
+     *
+     * @param value the value to look up
+     * @return the slot of the value
+     */
+    private int slotFor(int value) {
+        int slot = hash(value) & mask;
+        while (counts[slot] != EMPTY) {
+            if (keys[slot] == value) return slot;
+            slot = (slot + 1) & mask;
+        }
+
+        if (usedSlots + 1 > keys.length / 2 && keys.length < MAX_TABLE_LENGTH) {
+            rehash(keys.length * 2);
+            return slotFor(value);
+        }
+
+        keys[slot] = value;
+        counts[slot] = 0;
+        usedSlots++;
+        retiredSlots++;
+        return slot;
+    }
+
+    /**
+     * Moves every used slot into a new table of the given length.
+     *
+     * @param newLength the new table length, a power of two
+     */
+    private void rehash(int newLength) {
+        int[] oldKeys = keys, oldCounts = counts;
+        int[][] oldPositions = positions;
+        allocate(newLength);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            // Retired values are dropped while rehashing
+            if (oldCounts[i] <= 0) continue;
+
+            int slot = hash(oldKeys[i]) & mask;
+            while (counts[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[i];
+            counts[slot] = oldCounts[i];
+            positions[slot] = oldPositions[i];
+            usedSlots++;
+        }
+    }
+
+    /**
+     * Allocates an empty table of the given length.
+     *
+     * @param length the table length, a power of two
+     */
+    private void allocate(int length) {
+        keys = new int[length];
+        counts = new int[length];
+        positions = new int[length][];
+        Arrays.fill(counts, EMPTY);
+        mask = length - 1;
+        usedSlots = 0;
+        retiredSlots = 0;
+    }
+
+    /**
+     * Returns the smallest power of two table length that holds the expected keys.
+     *
+     * @param expectedKeys the number of keys expected to be added
+     * @return table length
+     */
+    private static int tableSizeFor(int expectedKeys) {
+        long needed = (long) Math.max(expectedKeys, 8) * 2;
+        if (needed >= MAX_TABLE_LENGTH) return MAX_TABLE_LENGTH;
+        return Integer.highestOneBit((int) needed - 1) << 1;
+    }
+
+    /**
+     * Spreads the bits of a value so that sequential values do not cluster.
+     *
+     * @param value the value to hash
+     * @return mixed hash of the value
+     */
+    private static int hash(int value) {
+        int h = value * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,345 @@
+import java.util.Arrays;
+
+/**
+ * Class counting the occurrences of every value of a narrow range, with an occupancy bitmap.
+ * A second bitmap marks the non-empty words of the first, so the largest and smallest
+ * values and the next smaller value are found with a few highest-set-bit lookups.
+ * Membership is a single array read, and the distinct values can be walked in order
+ * without sorting.
+ */
+class IntRangeCounts {
+    /** Widest value range that is counted, 2^16 values take 256 KiB of counts */
+    static final int MAX_WIDTH = 1 << 16;
+
+    /** Smallest value of the range */
+    private final int base;
+
+    /** Occurrences per value, indexed by value - base */
+    private final int[] counts;
+
+    /** Bit per value, set while its count is positive */
+    private final long[] occupied;
+
+    /** Bit per word of occupied, set while the word is not zero */
+    private final long[] summary;
+
+    /** Number of counted values, how many of them are odd, and how many are distinct */
+    private int total, oddCount, distinct;
+
+    /** Sum of the counted values */
+    private long sum;
+
+    /**
+     * Constructs empty counts for a range of values.
+     *
+     * @param min the smallest value of the range
+     * @param max the largest value of the range
+     * @throws IllegalArgumentException if the range is empty or wider than MAX_WIDTH
+     */
+    public IntRangeCounts(int min, int max) {
+        long width = (long) max - min + 1;
+        if (width < 1 || width > MAX_WIDTH)
+            throw new IllegalArgumentException("Invalid range: " + min + ".." + max);
+
+        this.base = min;
+        this.counts = new int[(int) width];
+        this.occupied = new long[(int) ((width + 63) >>> 6)];
+        this.summary = new long[(occupied.length + 63) >>> 6];
+    }
+
+    /**
+     * Counts the first values of an array if they span a narrow range.
+     * The range must be no wider than MAX_WIDTH, and the counts no larger than the values themselves.
+     * Finding the range stops as soon as it is too wide.
+     *
+     * @param data the array holding the values
+     * @param size the number of values to count
+     * @return the new counts, or null if the range is too wide
+     */
+    static IntRangeCounts ofNarrow(int[] data, int size) {
+        if (size == 0) return null;
+
+        long limit = Math.min(MAX_WIDTH, size) - 1;
+        int min = data[0], max = data[0];
+        for (int i = 1; i < size; i++) {
+            int value = data[i];
+            if (value < min) min = value;
+            else if (value > max) max = value;
+            else continue;
+            if ((long) max - min > limit) return null;
+        }
+        return of(data, size, min, max);
+    }
+
+    /**
+     * Counts the first values of an array, all of them within min and max.
+     *
+     * @param data the array holding the values
+     * @param size the number of values to count
+     * @param min the smallest value
+     * @param max the largest value
+     * @return the new counts
+     */
+    private static IntRangeCounts of(int[] data, int size, int min, int max) {
+        IntRangeCounts rangeCounts = new IntRangeCounts(min, max);
+        int[] counts = rangeCounts.counts;
+        long sum = 0;
+        int oddCount = 0;
+        // Only the counts are touched per element, the bitmaps are derived from them afterwards
+        for (int i = 0; i < size; i++) {
+            int value = data[i];
+            counts[value - min]++;
+            sum += value;
+            oddCount += value & 1;
+        }
+        for (int offset = 0; offset < counts.length; offset++) {
+            if (counts[offset] != 0) rangeCounts.setBit(offset);
+        }
+        rangeCounts.total = size;
+        rangeCounts.sum = sum;
+        rangeCounts.oddCount = oddCount;
+        return rangeCounts;
+    }
+
+    /**
+     * Checks whether a value lies within the counted range.
+     *
+     * @param value the value to check
+     * @return true if the value can be counted
+     */
+    public boolean covers(int value) {
+        return value - base >= 0 && value - base < counts.length;
+    }
+
+    /**
+     * Returns the number of occurrences of a value.
+     *
+     * @param value the value to look up
+     * @return the occurrences, 0 for values outside the range
+     */
+    public int count(int value) {
+        return covers(value) ? counts[value - base] : 0;
+    }
+
+    /**
+     * Counts one more occurrence of a covered value.
+     * @param value the value to count
+     */
+    public void add(int value) {
+        int offset = value - base;
+        if (counts[offset]++ == 0) setBit(offset);
+        total++;
+        sum += value;
+        if ((value & 1) != 0) oddCount++;
+    }
+
+    /**
+     * Counts one less occurrence of a counted value.
+     * @param value the value to uncount
+     */
+    public void remove(int value) {
+        int offset = value - base;
+        if (--counts[offset] == 0) clearBit(offset);
+        total--;
+        sum -= value;
+        if ((value & 1) != 0) oddCount--;
+    }
+
+    /**
+     * Moves every occurrence of a value to another covered value.
+     *
+     * @param oldValue the value that was replaced
+     * @param newValue the covered value that replaced it
+     */
+    public void replaceAll(int oldValue, int newValue) {
+        int moved = count(oldValue);
+        if (moved == 0 || oldValue == newValue) return;
+
+        counts[oldValue - base] = 0;
+        clearBit(oldValue - base);
+        int offset = newValue - base;
+        if (counts[offset] == 0) setBit(offset);
+        counts[offset] += moved;
+        sum += (long) (newValue - oldValue) * moved;
+        oddCount += ((newValue & 1) - (oldValue & 1)) * moved;
+    }
+
+    /**
+     * Forgets every occurrence, the range stays the same.
+     */
+    public void clear() {
+        Arrays.fill(counts, 0);
+        Arrays.fill(occupied, 0L);
+        Arrays.fill(summary, 0L);
+        total = 0;
+        oddCount = 0;
+        distinct = 0;
+        sum = 0;
+    }
+
+    /**
+     * Tells whether some value is counted more than once.
+     * @return true if there are duplicates
+     */
+    public boolean hasDuplicates() {
+        return distinct < total;
+    }
+
+    /**
+     * Writes every distinct value once in ascending order, walking the bitmap.
+     *
+     * @param into the array receiving the values, large enough for them
+     * @return the number of distinct values
+     */
+    public int writeDistinct(int[] into) {
+        int written = 0;
+        for (int word = 0; word < occupied.length; word++) {
+            for (long bits = occupied[word]; bits != 0; bits &= bits - 1) {
+                into[written++] = base + (word << 6) + Long.numberOfTrailingZeros(bits);
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Creates an empty bitmap over the range, for marking values seen during a pass.
+     * @return a bitmap with one clear bit per value
+     */
+    public long[] newBitmap() {
+        return new long[occupied.length];
+    }
+
+    /**
+     * Marks a covered value in a bitmap from {@link #newBitmap()}.
+     *
+     * @param bitmap the bitmap of seen values
+     * @param value the value to mark
+     * @return true if the value was not marked before
+     */
+    public boolean markFirst(long[] bitmap, int value) {
+        int offset = value - base;
+        long bit = 1L << offset;
+        if ((bitmap[offset >>> 6] & bit) != 0) return false;
+        bitmap[offset >>> 6] |= bit;
+        return true;
+    }
+
+    /**
+     * Derives the summary statistics of the counted values from the bitmap.
+     * The largest values come from highest-set-bit lookups; the largest odd and even
+     * values are found by walking down from the largest.
+     *
+     * @return the statistics of the counted values
+     */
+    public IntStats stats() {
+        if (total == 0) return new IntStats();
+
+        int maxOffset = highestBelow(counts.length);
+        int secondOffset = highestBelow(maxOffset);
+        int minOffset = lowest();
+
+        // The largest odd and even values are usually among the first few below the maximum
+        int highestOdd = 0, highestOddCount = 0, highestEven = 0, highestEvenCount = 0;
+        for (int offset = maxOffset; offset >= 0 && (highestOddCount == 0 || highestEvenCount == 0);
+             offset = highestBelow(offset)) {
+            int value = base + offset;
+            if ((value & 1) != 0 && highestOddCount == 0) {
+                highestOdd = value;
+                highestOddCount = counts[offset];
+            } else if ((value & 1) == 0 && highestEvenCount == 0) {
+                highestEven = value;
+                highestEvenCount = counts[offset];
+            }
+        }
+
+        return IntStats.summary(total, sum, base + minOffset, base + maxOffset, counts[maxOffset],
+                secondOffset < 0 ? 0 : base + secondOffset, secondOffset < 0 ? 0 : counts[secondOffset],
+                oddCount, highestOdd, highestOddCount, highestEven, highestEvenCount);
+    }
+
+    /**
+     * Returns the width of the counted range.
+     * @return the number of values the range covers
+     */
+    public int width() {
+        return counts.length;
+    }
+
+    /**
+     * Returns the memory held by the counts and bitmaps.
+     * @return the retained bytes
+     */
+    public long bytes() {
+        return (long) counts.length * Integer.BYTES + (long) (occupied.length + summary.length) * Long.BYTES;
+    }
+
+    /**
+     * Sets the bit of a value whose count became positive.
+     * @param offset the offset of the value
+     */
+    private void setBit(int offset) {
+        occupied[offset >>> 6] |= 1L << offset;
+        summary[offset >>> 12] |= 1L << (offset >>> 6);
+        distinct++;
+    }
+
+    /**
+     * Clears the bit of a value whose count dropped to zero.
+     * @param offset the offset of the value
+     */
+    private void clearBit(int offset) {
+        distinct--;
+        int word = offset >>> 6;
+        occupied[word] &= ~(1L << offset);
+        if (occupied[word] == 0) summary[word >>> 6] &= ~(1L << word);
+    }
+
+    /**
+     * Returns the largest offset below a limit whose value occurs.
+     *
+     * @param limit the exclusive upper bound
+     * @return the offset, or -1 if no smaller value occurs
+     */
+    private int highestBelow(int limit) {
+        if (limit <= 0) return -1;
+
+        int word = (limit - 1) >>> 6;
+        long bits = occupied[word] & (-1L >>> (63 - ((limit - 1) & 63)));
+        if (bits == 0) {
+            word = highestSetBelow(summary, word);
+            if (word < 0) return -1;
+            bits = occupied[word];
+        }
+        return (word << 6) + 63 - Long.numberOfLeadingZeros(bits);
+    }
+
+    /**
+     * Returns the smallest offset whose value occurs, there must be one.
+     * @return the offset
+     */
+    private int lowest() {
+        int summaryWord = 0;
+        while (summary[summaryWord] == 0) summaryWord++;
+        int word = (summaryWord << 6) + Long.numberOfTrailingZeros(summary[summaryWord]);
+        return (word << 6) + Long.numberOfTrailingZeros(occupied[word]);
+    }
+
+    /**
+     * Returns the highest set bit of a bitmap below a limit.
+     *
+     * @param bits the bitmap
+     * @param limit the exclusive upper bound
+     * @return the index of the bit, or -1 if none is set
+     */
+    private static int highestSetBelow(long[] bits, int limit) {
+        if (limit <= 0) return -1;
+
+        int word = (limit - 1) >>> 6;
+        long masked = bits[word] & (-1L >>> (63 - ((limit - 1) & 63)));
+        while (masked == 0) {
+            if (--word < 0) return -1;
+            masked = bits[word];
+        }
+        return (word << 6) + 63 - Long.numberOfLeadingZeros(masked);
+    }
+}
@@ -0,0 +1,179 @@
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+
+/**
+ * Class reading whitespace- or comma-separated tokens from a byte stream.
+ * Integers are parsed straight from a large byte buffer, so reading a number
+ * never creates a String. Text from a '#' to the end of the line is skipped.
+ */
+class IntScanner implements Closeable {
+    /** Size of the read buffer in bytes */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** Stream the tokens are read from */
+    private final InputStream in;
+
+    /** Read buffer, valid between pos and limit */
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    /** Index of the next unread byte in the buffer */
+    private int pos;
+
+    /** Number of valid bytes in the buffer */
+    private int limit;
+
+    /** Number of bytes read from the stream before the current buffer */
+    private long bufferOffset;
+
+    /**
+     * Constructs a new IntScanner over a byte stream.
+     *
+     * @param in the stream to read tokens from
+     */
+    public IntScanner(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Checks whether another token is available.
+     *
+     * @return true if a token follows, false at the end of input
+     * @throws IOException if the stream cannot be read
+     */
+    public boolean hasNext() throws IOException {
+        skipSeparators();
+        return peek() != -1;
+    }
+
+    /**
+     * Reads the next token as an integer.
+     * An invalid token is skipped entirely before the exception is thrown.
+     *
+     * @return the parsed integer
+     * @throws NumberFormatException if the token is not an int, including overflow
+     * @throws NoSuchElementException if there are no more tokens
+     * @throws IOException if the stream cannot be read
+     */
+    public int nextInt() throws IOException {
+        skipSeparators();
+        int c = peek();
+        if (c == -1) throw new NoSuchElementException("End of input");
+
+        long start = offset();
+        boolean negative = c == '-';
+        if (c == '-' || c == '+') {
+            pos++;
+            c = peek();
+        }
+
+        // Stops accumulating once past the int range, so the long never overflows
+        long bound = negative ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE;
+        long value = 0;
+        int digits = 0;
+        while (c >= '0' && c <= '9') {
+            if (value <= bound) value = value * 10 + (c - '0');
+            digits++;
+            pos++;
+            c = peek();
+        }
+
+        if (digits == 0 || value > bound || (c != -1 && !isSeparator(c))) {
+            skipToken();
+            throw new NumberFormatException("Invalid integer at offset " + start);
+        }
+        return (int) (negative ? -value : value);
+    }
+
+    /**
+     * Reads the next token as text.
+     *
+     * @return the token
+     * @throws NoSuchElementException if there are no more tokens
+     * @throws IOException if the stream cannot be read
+     */
+    public String nextWord() throws IOException {
+        skipSeparators();
+        if (peek() == -1) throw new NoSuchElementException("End of input");
+
+        // Bytes are gathered first so characters split across refills decode correctly
+        ByteArrayOutputStream word = new ByteArrayOutputStream();
+        int c;
+        while ((c = peek()) != -1 && !isSeparator(c)) {
+            int start = pos;
+            while (pos < limit && !isSeparator(buffer[pos])) pos++;
+            word.write(buffer, start, pos - start);
+        }
+        return word.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the number of bytes consumed so far.
+     * @return the offset of the next unread byte in the stream
+     */
+    public long offset() {
+        return bufferOffset + pos;
+    }
+
+    /** Closes the underlying stream */
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Skips whitespace, commas and comments up to the next token.
+     * @throws IOException if the stream cannot be read
+     */
+    private void skipSeparators() throws IOException {
+        int c;
+        while ((c = peek()) != -1) {
+            if (c == '#') {
+                while ((c = peek()) != -1 && c != '\n') pos++;
+            } else if (isSeparator(c)) {
+                pos++;
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Skips the rest of the current token.
+     * @throws IOException if the stream cannot be read
+     */
+    private void skipToken() throws IOException {
+        int c;
+        while ((c = peek()) != -1 && !isSeparator(c)) pos++;
+    }
+
+    /**
+     * Returns the next unread byte without consuming it, refilling the buffer when empty.
+     *
+     * @return the next byte as 0..255, or -1 at the end of input
+     * @throws IOException if the stream cannot be read
+     */
+    private int peek() throws IOException {
+        if (pos == limit) {
+            bufferOffset += limit;
+            pos = 0;
+            limit = Math.max(in.read(buffer, 0, BUFFER_SIZE), 0);
+            if (limit == 0) return -1;
+        }
+        // Unsigned, so a 0xFF byte is not taken for the end of input
+        return buffer[pos] & 0xFF;
+    }
+
+    /**
+     * Checks whether a byte separates tokens.
+     *
+     * @param c the byte to check
+     * @return true for whitespace and commas
+     */
+    private static boolean isSeparator(int c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == ',' || c == '#';
+    }
+}
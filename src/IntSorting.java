@@ -0,0 +1,265 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Sorting, searching and selection kernels for ranges of int arrays.
+ * Sorting is an LSD radix sort, one pass per byte with a reused buffer, so it is
+ * linear in the number of elements and never compares. Selection is introselect.
+ */
+final class IntSorting {
+    /** Number of buckets per radix pass, one per byte value */
+    private static final int RADIX = 256;
+
+    /** Flips the sign bit so that signed ints order like unsigned ones */
+    private static final int SIGN_FLIP = 0x80000000;
+
+    /** Ranges shorter than this are sorted with Arrays.sort, a radix pass costs more */
+    private static final int RADIX_THRESHOLD = 256;
+
+    /** Ranges shorter than this are sorted in place instead of partitioned further */
+    private static final int SELECT_THRESHOLD = 16;
+
+    /** Smallest range worth sorting in parallel */
+    static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    private IntSorting() {}
+
+    /**
+     * Sorts a range ascending with an LSD radix sort.
+     *
+     * @param data the array holding the range
+     * @param from the index of the first element to sort
+     * @param to the index after the last element to sort
+     */
+    static void sort(int[] data, int from, int to) {
+        if (to - from < RADIX_THRESHOLD) {
+            Arrays.sort(data, from, to);
+            return;
+        }
+        radixSort(data, from, to, new int[to - from], 0, 0, 4);
+    }
+
+    /**
+     * Sorts a range ascending on the common pool.
+     * One parallel pass scatters the elements by their highest byte into 256
+     * independent buckets, which are then radix sorted on the lower bytes in parallel.
+     *
+     * @param data the array holding the range
+     * @param from the index of the first element to sort
+     * @param to the index after the last element to sort
+     */
+    static void parallelSort(int[] data, int from, int to) {
+        int length = to - from;
+        if (length < PARALLEL_THRESHOLD || !ParallelKernels.isAvailable()) {
+            sort(data, from, to);
+            return;
+        }
+
+        // Counts the highest byte of every chunk in parallel
+        int chunks = ForkJoinPool.getCommonPoolParallelism() * 4;
+        int chunkSize = (length + chunks - 1) / chunks;
+        int[][] counts = new int[chunks][RADIX];
+        ForkJoinTask.invokeAll(chunkTasks(chunks, chunk -> {
+            int start = from + chunk * chunkSize, end = Math.min(to, start + chunkSize);
+            int[] count = counts[chunk];
+            for (int i = start; i < end; i++) count[digit(data[i], 3)]++;
+        }));
+
+        // Every chunk writes its part of each bucket at its own offset, so scattering needs no locks
+        int[][] offsets = new int[chunks][RADIX];
+        int[] bucketStart = new int[RADIX + 1];
+        int next = 0;
+        for (int bucket = 0; bucket < RADIX; bucket++) {
+            bucketStart[bucket] = next;
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                offsets[chunk][bucket] = next;
+                next += counts[chunk][bucket];
+            }
+        }
+        bucketStart[RADIX] = next;
+
+        int[] scattered = new int[length];
+        ForkJoinTask.invokeAll(chunkTasks(chunks, chunk -> {
+            int start = from + chunk * chunkSize, end = Math.min(to, start + chunkSize);
+            int[] offset = offsets[chunk];
+            for (int i = start; i < end; i++) scattered[offset[digit(data[i], 3)]++] = data[i];
+        }));
+
+        // Each bucket is sorted on the three lower bytes, using its final slot in data as the buffer
+        ForkJoinTask.invokeAll(chunkTasks(RADIX, bucket -> {
+            int start = bucketStart[bucket], end = bucketStart[bucket + 1];
+            if (end - start < RADIX_THRESHOLD) {
+                Arrays.sort(scattered, start, end);
+            } else {
+                radixSort(scattered, start, end, data, from + start, 0, 3);
+            }
+            System.arraycopy(scattered, start, data, from + start, end - start);
+        }));
+    }
+
+    /**
+     * Returns the index of the first occurrence of a value in a sorted range.
+     *
+     * @param data the array holding the range, sorted ascending
+     * @param from the index of the first element to search
+     * @param to the index after the last element to search
+     * @param value the value to search for
+     * @return the index of the value, or (-(insertion point) - 1) if not found
+     */
+    static int binarySearch(int[] data, int from, int to, int value) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (data[mid] < value) low = mid + 1;
+            else high = mid;
+        }
+        return low < to && data[low] == value ? low : -low - 1;
+    }
+
+    /**
+     * Returns the value that would be at a rank if the range were sorted, reordering the range.
+     * Quickselect with median-of-three pivots; when partitioning goes badly for
+     * 2 log2(n) rounds, the remaining range is sorted, so the worst case is O(n log n).
+     *
+     * @param data the array holding the range
+     * @param from the index of the first element
+     * @param to the index after the last element
+     * @param rank the ascending rank to select, 0 for the smallest
+     * @return the value at the rank
+     * @throws IndexOutOfBoundsException if rank is outside the range
+     */
+    static int select(int[] data, int from, int to, int rank) {
+        if (rank < 0 || rank >= to - from)
+            throw new IndexOutOfBoundsException("Invalid rank: " + rank);
+
+        int target = from + rank;
+        int low = from;
+        int high = to - 1;
+        int budget = 2 * (32 - Integer.numberOfLeadingZeros(to - from));
+        while (high - low >= SELECT_THRESHOLD) {
+            if (budget-- == 0) {
+                Arrays.sort(data, low, high + 1);
+                return data[target];
+            }
+
+            // Three-way partition, so runs of duplicates are settled in one round
+            int pivot = medianOfThree(data[low], data[(low + high) >>> 1], data[high]);
+            int lt = low, i = low, gt = high;
+            while (i <= gt) {
+                if (data[i] < pivot) swap(data, lt++, i++);
+                else if (data[i] > pivot) swap(data, i, gt--);
+                else i++;
+            }
+
+            if (target < lt) high = lt - 1;
+            else if (target > gt) low = gt + 1;
+            else return pivot;
+        }
+        Arrays.sort(data, low, high + 1);
+        return data[target];
+    }
+
+    /**
+     * Radix sorts a range on a run of bytes, lowest byte first.
+     * Passes where every element has the same byte are skipped.
+     *
+     * @param data the array holding the range, also holding the result
+     * @param from the index of the first element
+     * @param to the index after the last element
+     * @param buffer scratch space of at least to - from elements from bufferFrom
+     * @param bufferFrom the index of the scratch space in buffer
+     * @param firstByte the lowest byte to sort on, 0 is the least significant
+     * @param lastByte the byte after the highest one to sort on, at most 4
+     */
+    private static void radixSort(int[] data, int from, int to, int[] buffer, int bufferFrom,
+                                  int firstByte, int lastByte) {
+        int length = to - from;
+        int[] src = data;
+        int srcFrom = from;
+        int[] dst = buffer;
+        int dstFrom = bufferFrom;
+        int[] count = new int[RADIX];
+
+        for (int pass = firstByte; pass < lastByte; pass++) {
+            Arrays.fill(count, 0);
+            for (int i = srcFrom; i < srcFrom + length; i++) count[digit(src[i], pass)]++;
+            if (count[digit(src[srcFrom], pass)] == length) continue;
+
+            // Turns counts into bucket starts, then places elements stably
+            int next = dstFrom;
+            for (int bucket = 0; bucket < RADIX; bucket++) {
+                int bucketSize = count[bucket];
+                count[bucket] = next;
+                next += bucketSize;
+            }
+            for (int i = srcFrom; i < srcFrom + length; i++) dst[count[digit(src[i], pass)]++] = src[i];
+
+            int[] swapArray = src; src = dst; dst = swapArray;
+            int swapFrom = srcFrom; srcFrom = dstFrom; dstFrom = swapFrom;
+        }
+
+        // An odd number of passes leaves the result in the buffer
+        if (srcFrom != from || src != data) System.arraycopy(src, srcFrom, data, from, length);
+    }
+
+    /**
+     * Returns one byte of a value, with the sign bit flipped in the highest byte.
+     *
+     * @param value the value
+     * @param pass the byte to return, 0 is the least significant
+     * @return the byte as an unsigned bucket index
+     */
+    private static int digit(int value, int pass) {
+        return ((value ^ SIGN_FLIP) >>> (pass * 8)) & (RADIX - 1);
+    }
+
+    /**
+     * Creates one task per part of a split job.
+     *
+     * @param parts the number of parts
+     * @param work the work of one part, given the index of the part
+     * @return the tasks, ready to invoke
+     */
+    private static RecursiveAction[] chunkTasks(int parts, IntConsumer work) {
+        RecursiveAction[] tasks = new RecursiveAction[parts];
+        for (int part = 0; part < parts; part++) {
+            int index = part;
+            tasks[part] = new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    work.accept(index);
+                }
+            };
+        }
+        return tasks;
+    }
+
+    /**
+     * Returns the median of three values.
+     *
+     * @param a the first value
+     * @param b the second value
+     * @param c the third value
+     * @return the value between the other two
+     */
+    private static int medianOfThree(int a, int b, int c) {
+        return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+    }
+
+    /**
+     * Swaps two elements.
+     *
+     * @param data the array holding the elements
+     * @param i the index of the first element
+     * @param j the index of the second element
+     */
+    private static void swap(int[] data, int i, int j) {
+        int value = data[i];
+        data[i] = data[j];
+        data[j] = value;
+    }
+}
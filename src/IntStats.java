@@ -0,0 +1,325 @@
+/**
+ * Class holding summary statistics of a sequence of integers.
+ * Every statistic is gathered in a single pass and stored in primitive fields,
+ * so an instance can be reset and reused without allocating.
+ */
+class IntStats {
+    /** Number of accumulated values */
+    private int count;
+
+    /** Sum of all accumulated values */
+    private long sum;
+
+    /** Smallest and largest accumulated values */
+    private int min, max;
+
+    /** Number of occurrences of the largest value */
+    private int maxCount;
+
+    /** Largest value smaller than the maximum, valid when secondCount is positive */
+    private int second;
+
+    /** Number of occurrences of the second largest distinct value */
+    private int secondCount;
+
+    /** Number of odd and even values */
+    private int oddCount, evenCount;
+
+    /** Largest odd and even values, valid when the matching count is positive */
+    private int highestOdd, highestEven;
+
+    /** Number of occurrences of the largest odd and even values */
+    private int highestOddCount, highestEvenCount;
+
+    /** Reusable one-element buffer so single values share the bulk kernel */
+    private final int[] single = new int[1];
+
+    /**
+     * Constructs an empty IntStats.
+     */
+    public IntStats() {
+        reset();
+    }
+
+    /**
+     * Clears all statistics so the instance can be reused.
+     */
+    public void reset() {
+        count = 0;
+        sum = 0;
+        min = Integer.MAX_VALUE;
+        max = Integer.MIN_VALUE;
+        maxCount = 0;
+        second = Integer.MIN_VALUE;
+        secondCount = 0;
+        oddCount = 0;
+        evenCount = 0;
+        highestOdd = Integer.MIN_VALUE;
+        highestEven = Integer.MIN_VALUE;
+        highestOddCount = 0;
+        highestEvenCount = 0;
+    }
+
+    /**
+     * Adds a single value to the statistics.
+     *
+     * @param value the value to accumulate
+     */
+    public void accept(int value) {
+        single[0] = value;
+        accumulate(single, 0, 1);
+    }
+
+    /**
+     * Adds a value occurring several times in a row, in constant time.
+     *
+     * @param value the value to accumulate
+     * @param occurrences the number of occurrences, 0 to skip
+     */
+    public void acceptRun(int value, int occurrences) {
+        if (occurrences == 0) return;
+
+        count += occurrences;
+        sum += (long) value * occurrences;
+        min = Math.min(min, value);
+        mergeTop(value, occurrences);
+
+        if ((value & 1) == 1) {
+            oddCount += occurrences;
+            if (highestOddCount == 0 || value > highestOdd) {
+                highestOdd = value;
+                highestOddCount = occurrences;
+            } else if (value == highestOdd) {
+                highestOddCount += occurrences;
+            }
+        } else {
+            evenCount += occurrences;
+            if (highestEvenCount == 0 || value > highestEven) {
+                highestEven = value;
+                highestEvenCount = occurrences;
+            } else if (value == highestEven) {
+                highestEvenCount += occurrences;
+            }
+        }
+    }
+
+    /**
+     * Adds a range of values to the statistics in one pass.
+     * The running state is kept in locals so the loop never touches fields.
+     *
+     * @param data the array holding the values
+     * @param from the index of the first value
+     * @param to the index after the last value
+     */
+    public void accumulate(int[] data, int from, int to) {
+        long sum = this.sum;
+        int min = this.min, max = this.max, maxCount = this.maxCount;
+        int second = this.second, secondCount = this.secondCount;
+        int oddCount = this.oddCount;
+        int highestOdd = this.highestOdd, highestOddCount = this.highestOddCount;
+        int highestEven = this.highestEven, highestEvenCount = this.highestEvenCount;
+
+        for (int i = from; i < to; i++) {
+            int value = data[i];
+            sum += value;
+            if (value < min) min = value;
+
+            // Top-2 distinct values, a new maximum demotes the old one to second
+            if (value > max || maxCount == 0) {
+                if (maxCount > 0) {
+                    second = max;
+                    secondCount = maxCount;
+                }
+                max = value;
+                maxCount = 1;
+            } else if (value == max) {
+                maxCount++;
+            } else if (value > second || secondCount == 0) {
+                second = value;
+                secondCount = 1;
+            } else if (value == second) {
+                secondCount++;
+            }
+
+            // Parity maxima
+            if ((value & 1) == 1) {
+                oddCount++;
+                if (value > highestOdd || highestOddCount == 0) {
+                    highestOdd = value;
+                    highestOddCount = 1;
+                } else if (value == highestOdd) {
+                    highestOddCount++;
+                }
+            } else if (value > highestEven || highestEvenCount == 0) {
+                highestEven = value;
+                highestEvenCount = 1;
+            } else if (value == highestEven) {
+                highestEvenCount++;
+            }
+        }
+
+        this.count += to - from;
+        this.sum = sum;
+        this.min = min;
+        this.max = max;
+        this.maxCount = maxCount;
+        this.second = second;
+        this.secondCount = secondCount;
+        this.oddCount = oddCount;
+        this.evenCount = this.count - oddCount;
+        this.highestOdd = highestOdd;
+        this.highestOddCount = highestOddCount;
+        this.highestEven = highestEven;
+        this.highestEvenCount = highestEvenCount;
+    }
+
+    /**
+     * Adds the statistics of another instance, as if its values had been
+     * accumulated into this one. Used to combine results of separate chunks.
+     *
+     * @param other the statistics to add
+     */
+    public void merge(IntStats other) {
+        if (other.count == 0) return;
+
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        oddCount += other.oddCount;
+        evenCount += other.evenCount;
+
+        // The other maximum is merged before its second, keeping the top-2 order
+        mergeTop(other.max, other.maxCount);
+        mergeTop(other.second, other.secondCount);
+
+        if (other.highestOddCount > 0) {
+            if (highestOddCount == 0 || other.highestOdd > highestOdd) {
+                highestOdd = other.highestOdd;
+                highestOddCount = other.highestOddCount;
+            } else if (other.highestOdd == highestOdd) {
+                highestOddCount += other.highestOddCount;
+            }
+        }
+        if (other.highestEvenCount > 0) {
+            if (highestEvenCount == 0 || other.highestEven > highestEven) {
+                highestEven = other.highestEven;
+                highestEvenCount = other.highestEvenCount;
+            } else if (other.highestEven == highestEven) {
+                highestEvenCount += other.highestEvenCount;
+            }
+        }
+    }
+
+    /**
+     * Creates statistics from precomputed totals, for kernels that gather them in their own way.
+     * Values whose count is 0 are ignored.
+     *
+     * @param count the number of values
+     * @param sum the sum of the values
+     * @param min the smallest value
+     * @param max the largest value
+     * @param maxCount the occurrences of the largest value
+     * @param second the largest value smaller than max
+     * @param secondCount the occurrences of second, 0 if there is none
+     * @param oddCount the number of odd values
+     * @param highestOdd the largest odd value
+     * @param highestOddCount the occurrences of highestOdd, 0 if there is none
+     * @param highestEven the largest even value
+     * @param highestEvenCount the occurrences of highestEven, 0 if there is none
+     * @return the new statistics
+     */
+    static IntStats summary(int count, long sum, int min, int max, int maxCount, int second, int secondCount,
+                            int oddCount, int highestOdd, int highestOddCount, int highestEven, int highestEvenCount) {
+        IntStats stats = new IntStats();
+        if (count == 0) return stats;
+
+        stats.count = count;
+        stats.sum = sum;
+        stats.min = min;
+        stats.max = max;
+        stats.maxCount = maxCount;
+        if (secondCount > 0) {
+            stats.second = second;
+            stats.secondCount = secondCount;
+        }
+        stats.oddCount = oddCount;
+        stats.evenCount = count - oddCount;
+        if (highestOddCount > 0) {
+            stats.highestOdd = highestOdd;
+            stats.highestOddCount = highestOddCount;
+        }
+        if (highestEvenCount > 0) {
+            stats.highestEven = highestEven;
+            stats.highestEvenCount = highestEvenCount;
+        }
+        return stats;
+    }
+
+    /**
+     * Adds a value with a number of occurrences to the top-2 distinct values.
+     *
+     * @param value the value to add
+     * @param occurrences the number of occurrences of the value, 0 to skip
+     */
+    private void mergeTop(int value, int occurrences) {
+        if (occurrences == 0) return;
+
+        if (maxCount == 0 || value > max) {
+            if (maxCount > 0) {
+                second = max;
+                secondCount = maxCount;
+            }
+            max = value;
+            maxCount = occurrences;
+        } else if (value == max) {
+            maxCount += occurrences;
+        } else if (secondCount == 0 || value > second) {
+            second = value;
+            secondCount = occurrences;
+        } else if (value == second) {
+            secondCount += occurrences;
+        }
+    }
+
+    /** @return the number of accumulated values */
+    public int count() { return count; }
+
+    /** @return the sum of all accumulated values */
+    public long sum() { return sum; }
+
+    /** @return the smallest value, or Integer.MAX_VALUE if empty */
+    public int min() { return min; }
+
+    /** @return the largest value, or Integer.MIN_VALUE if empty */
+    public int max() { return max; }
+
+    /** @return the number of occurrences of the largest value */
+    public int maxCount() { return maxCount; }
+
+    /** @return whether there are at least two distinct values */
+    public boolean hasSecond() { return secondCount > 0; }
+
+    /** @return the second largest distinct value, valid if {@link #hasSecond()} */
+    public int second() { return second; }
+
+    /** @return the number of occurrences of the second largest distinct value */
+    public int secondCount() { return secondCount; }
+
+    /** @return the number of odd values */
+    public int oddCount() { return oddCount; }
+
+    /** @return the number of even values */
+    public int evenCount() { return evenCount; }
+
+    /** @return the largest odd value, valid if {@link #oddCount()} is positive */
+    public int highestOdd() { return highestOdd; }
+
+    /** @return the number of occurrences of the largest odd value */
+    public int highestOddCount() { return highestOddCount; }
+
+    /** @return the largest even value, valid if {@link #evenCount()} is positive */
+    public int highestEven() { return highestEven; }
+
+    /** @return the number of occurrences of the largest even value */
+    public int highestEvenCount() { return highestEvenCount; }
+}
@@ -0,0 +1,100 @@
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Class keeping the k largest values of a stream in a bounded min-heap.
+ * The smallest kept value sits at the root, so a new value is compared once and
+ * most values of a long stream are rejected without touching the heap.
+ * Memory is O(k) however many values are offered.
+ */
+class IntTopK implements IntConsumer {
+    /** Heap of the kept values, the smallest at index 0 */
+    private final int[] heap;
+
+    /** Number of values in the heap */
+    private int size;
+
+    /**
+     * Constructs a new IntTopK.
+     *
+     * @param k the number of largest values to keep
+     * @throws IllegalArgumentException if k is negative
+     */
+    public IntTopK(int k) {
+        if (k < 0)
+            throw new IllegalArgumentException("Invalid k: " + k);
+
+        this.heap = new int[k];
+    }
+
+    /**
+     * Offers a value, keeping it if it is among the k largest so far.
+     *
+     * @param value the value to offer
+     */
+    @Override
+    public void accept(int value) {
+        if (size < heap.length) {
+            heap[size] = value;
+            siftUp(size++);
+        } else if (size > 0 && value > heap[0]) {
+            heap[0] = value;
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Returns the kept values, largest first.
+     * @return at most k values in descending order
+     */
+    public int[] toDescendingArray() {
+        int[] values = Arrays.copyOf(heap, size);
+        IntSorting.sort(values, 0, values.length);
+        for (int i = 0, j = values.length - 1; i < j; i++, j--) {
+            int value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }
+        return values;
+    }
+
+    /**
+     * Returns the number of kept values.
+     * @return the number of values, at most k
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Moves a value up until its parent is not larger.
+     * @param index the index of the value
+     */
+    private void siftUp(int index) {
+        int value = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent] <= value) break;
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = value;
+    }
+
+    /**
+     * Moves a value down until no child is smaller.
+     * @param index the index of the value
+     */
+    private void siftDown(int index) {
+        int value = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && heap[child + 1] < heap[child]) child++;
+            if (value <= heap[child]) break;
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = value;
+    }
+}
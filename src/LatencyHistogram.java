@@ -0,0 +1,113 @@
+/**
+ * Class recording durations in log-linear buckets, in the style of HdrHistogram.
+ * Every power-of-two range is split into 64 linear buckets, so any recorded value
+ * is reported within 1/64 of its true value while the bucket array stays fixed in
+ * size. Recording is a few shifts and an array increment, and never allocates.
+ */
+class LatencyHistogram {
+    /** Number of bits of linear precision below each power of two */
+    private static final int SUB_BUCKET_BITS = 7;
+
+    /** Values below this are counted exactly, one bucket per value */
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    /** Number of linear buckets in each following power-of-two range */
+    private static final int HALF_SUB_BUCKET_COUNT = SUB_BUCKET_COUNT / 2;
+
+    /** Enough buckets for every non-negative long */
+    private static final int BUCKET_COUNT = bucketIndex(Long.MAX_VALUE) + 1;
+
+    /** Number of recorded values in each bucket */
+    private final long[] counts = new long[BUCKET_COUNT];
+
+    /** Number of recorded values */
+    private long count;
+
+    /** Sum of the recorded values */
+    private long total;
+
+    /** Smallest recorded value */
+    private long min = Long.MAX_VALUE;
+
+    /** Largest recorded value */
+    private long max;
+
+    /**
+     * Records one duration.
+     *
+     * @param value the duration, negative values are recorded as 0
+     */
+    public void record(long value) {
+        value = Math.max(value, 0);
+        counts[bucketIndex(value)]++;
+        count++;
+        total += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Returns the value below which the given percentage of recorded values fall.
+     * The result is the upper end of the bucket holding that value, capped at the maximum.
+     *
+     * @param percentile the percentage in [0, 100]
+     * @return the value at the percentile, 0 if nothing was recorded
+     */
+    public long percentile(double percentile) {
+        if (count == 0) return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.min(highestEquivalentValue(i), max);
+        }
+        return max;
+    }
+
+    /** @return the number of recorded values */
+    public long count() { return count; }
+
+    /** @return the sum of the recorded values */
+    public long total() { return total; }
+
+    /** @return the smallest recorded value, 0 if nothing was recorded */
+    public long min() { return count == 0 ? 0 : min; }
+
+    /** @return the largest recorded value */
+    public long max() { return max; }
+
+    /** @return the mean of the recorded values, 0 if nothing was recorded */
+    public double mean() { return count == 0 ? 0 : (double) total / count; }
+
+    /**
+     * Returns the bucket counting a value.
+     * Small values have one bucket each; larger ones are shifted until they fall in
+     * [64, 128), and the shift picks the range while the remainder picks the bucket.
+     *
+     * @param value a non-negative value
+     * @return the index of its bucket
+     */
+    private static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) return (int) value;
+
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - (SUB_BUCKET_BITS - 1);
+        return SUB_BUCKET_COUNT + (shift - 1) * HALF_SUB_BUCKET_COUNT
+                + (int) ((value >>> shift) - HALF_SUB_BUCKET_COUNT);
+    }
+
+    /**
+     * Returns the largest value counted by a bucket.
+     *
+     * @param index the index of the bucket
+     * @return the upper end of its range
+     */
+    private static long highestEquivalentValue(int index) {
+        if (index < SUB_BUCKET_COUNT) return index;
+
+        int offset = index - SUB_BUCKET_COUNT;
+        int shift = offset / HALF_SUB_BUCKET_COUNT + 1;
+        long subBucket = offset % HALF_SUB_BUCKET_COUNT + HALF_SUB_BUCKET_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
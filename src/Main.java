@@ -1,30 +1,127 @@
 import java.io.BufferedReader;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.InputStreamReader;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.BiConsumer;
 
 /**
  * Console-based program that manipulates a dynamic array
+ * Runs an interactive menu, or a batch script when started with --script or --batch
  */
 public class Main{
+    /* ==========================
+     * CONSTANTS
+     ==========================*/
+    /** Action name container, used to determine number of actions */
+    private static final String[] ACTION_NAMES = {
+            "Terminate Program",
+            "Add value/s to the array",
+            "Show all values of the array",
+            "Remove all elements",
+            "Get sum of highest odd and even",
+            "Display indices of a value",
+            "Replace elements with new value",
+            "Show second largest element",
+            "Remove duplicate elements",
+            "Show memory usage",
+            "Trim unused capacity",
+            "Save array to file",
+            "Load array from file",
+            "Sort the array",
+            "Show k-th largest element",
+            "Show top k elements",
+            "Show median",
+            "Undo last change",
+            "Redo last undone change",
+            "Insert value/s at an index",
+            "Import integers from a text file"
+    };
+
+    /** Hidden menu option showing the session statistics, accepted but not listed, and not moved by new options */
+    private static final int STATS_OPTION = 99;
+
+    /** Most values reserved up front for a typed count, larger batches grow as values arrive */
+    private static final int MAX_PRESIZE = 1 << 16;
+
     /* ==========================
      * INSTANCE FIELDS
      ==========================*/
     /** Console input reader */
     private BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
 
-    /** Dynamic array to be manipulated in the program */
-    private DynamicArray arr = new DynamicArray(2);
+    /** Script reader in batch mode, null when running interactively */
+    private IntScanner script;
+
+    /** Buffered console output, flushed at the end of each action and before input is read */
+    private final ConsoleWriter out = new ConsoleWriter(new FileOutputStream(FileDescriptor.out));
+
+    /** List to be manipulated in the program, a dynamic array unless --backend picks another */
+    private IntList arr;
+
+    /** Cap for number of elements, unlimited unless --max-elements sets one */
+    private int maxElements = GrowthPolicy.MAX_ARRAY_LENGTH;
+
+    /** What happens to loaded values once the element cap is reached */
+    private StreamIngester.OverflowPolicy overflowPolicy = StreamIngester.OverflowPolicy.REJECT;
+
+    /** File receiving loaded values beyond the element cap under the spill policy */
+    private Path spillPath = Paths.get("spill.txt");
+
+    /** File loaded before the menu or script starts, "-" for standard input, null if none */
+    private String ingestPath;
+
+    /** Text file imported with parallel parsing before the menu or script starts, null if none */
+    private Path importPath;
+
+    /** Whether the script is read from standard input */
+    private boolean isScriptFromStdin;
+
+    /** Call counts and latencies of the menu actions */
+    private final ActionMetrics metrics = new ActionMetrics(ACTION_NAMES);
+
+    /** Time spent waiting for console input, excluded from action latencies */
+    private long inputWaitNanos;
+
+    /** File the session statistics are written to on exit, null if none */
+    private Path statsPath;
+
+    /** Memory kept for undoing changes in MiB, 0 disables undo */
+    private int undoLimitMiB = 64;
+
+    /** Whether the array backend indexes positions for find and replace, off unless --position-index is given */
+    private boolean isPositionIndexEnabled;
+
+    /** Memory kept for repeated query results in MiB, 0 disables the cache */
+    private int cacheLimitMiB = 16;
+
+    /** Results of the read-only actions kept between changes, null if the cache is disabled */
+    private QueryCache queries;
+
+    /** Thread loading the --ingest file while actions run, null if the load is not in the background */
+    private Thread ingestThread;
 
-    /** Cap for number of elements */
-    private final int MAX_ELEMENTS = 100;
+    /** Messages of the background load, shown by the main thread between actions */
+    private final Queue<Runnable> pendingMessages = new ConcurrentLinkedQueue<>();
 
     /* ==========================
      * ENTRY-POINT METHOD
      ==========================*/
-    /** @param args (not-used) */
+    /** @param args command-line flags, see {@link #showUsage()} */
     public static void main(String[] args){
         try{
-            new Main().run();
+            Main program = new Main();
+            if(program.parseArguments(args))
+                program.run();
         }catch(Exception e){
             e.printStackTrace();
         }
@@ -35,34 +132,37 @@ public class Main{
      ==========================*/
     /** Runs the actual program flow */
     private void run(){
+        // The concurrent list can be appended to while the actions read it
+        if(ingestPath != null && arr instanceof ConcurrentIntArray)
+            startBackgroundLoad(ingestPath);
+        else if(ingestPath != null)
+            loadIntegersFromFile(ingestPath);
+        if(importPath != null)
+            importIntegersFromFile(importPath);
+
+        // Batch mode skips the menu entirely
+        if(!isInteractive()){
+            runScript();
+            close();
+            return;
+        }
+
         // Flag for program continuation
         boolean isContinueProgram = true;
 
-        // Populates array for program initialization
-        getIntegersForArray();
-
-        // Action name container, used to determine number of actions
-        String[] actionNames = {
-                "Terminate Program",
-                "Add value/s to the array",
-                "Show all values of the array",
-                "Remove all elements",
-                "Get sum of highest odd and even",
-                "Display indices of a value",
-                "Replace elements with new value",
-                "Show second largest element",
-                "Remove duplicate elements"
-        };
+        // Populates array for program initialization, unless it was loaded at startup
+        if(ingestPath == null && importPath == null)
+            getIntegersForArray();
 
         showIntroduction();
 
         while(isContinueProgram){
             // Shows options and gets a choice
             showProgramName();
-            showOptions(actionNames);
+            showOptions(ACTION_NAMES);
             showEnterPrompt("choice");
 
-            int choice = getIntWithinRange(0,actionNames.length-1);
+            int choice = getMenuChoice();
 
             // If choice is not 0, then perform action
             // Otherwise, prompt for termination
@@ -77,6 +177,197 @@ public class Main{
         close();
     }
 
+    /**
+     * Runs script commands until the script ends, prompts are not shown
+     * Commands: load FILE, run OPTION [INPUTS...], exit
+     */
+    private void runScript(){
+        try{
+            while(script.hasNext()){
+                String command = script.nextWord();
+                switch(command){
+                    case "load":
+                        loadIntegersFromFile(script.nextWord());
+                        break;
+                    case "run":
+                        // Option 0 terminates like in the menu, without a confirmation
+                        int choice = getMenuChoice();
+                        if(choice==0) return;
+                        actionMenu(choice);
+                        break;
+                    case "exit":
+                        return;
+                    default:
+                        showMessage(ConsoleTag.ERROR, "Unknown script command: " + command);
+                }
+            }
+        }catch(NoSuchElementException e){
+            showMessage(ConsoleTag.ERROR, "Script ended while expecting a value");
+        }catch(IOException | UncheckedIOException e){
+            showMessage(ConsoleTag.ERROR, "Unable to read script: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Applies command-line flags
+     * @param args the flags passed to the program
+     * @return true if the program should run, false if the flags are invalid
+     * @throws IOException if the script file cannot be opened
+     */
+    private boolean parseArguments(String[] args) throws IOException{
+        for(int i=0; i<args.length; i++){
+            switch(args[i]){
+                case "--script":
+                    if(i+1 >= args.length){
+                        showUsage();
+                        return false;
+                    }
+                    script = new IntScanner(new FileInputStream(args[++i]));
+                    break;
+                case "--batch":
+                    script = new IntScanner(System.in);
+                    isScriptFromStdin = true;
+                    break;
+                case "--max-elements":
+                    if(i+1 >= args.length || (maxElements = parseCount(args[++i])) < 0){
+                        showUsage();
+                        return false;
+                    }
+                    break;
+                case "--overflow":
+                    if(i+1 >= args.length || (overflowPolicy = parseOverflowPolicy(args[++i])) == null){
+                        showUsage();
+                        return false;
+                    }
+                    break;
+                case "--spill-file":
+                    if(i+1 >= args.length){
+                        showUsage();
+                        return false;
+                    }
+                    spillPath = Paths.get(args[++i]);
+                    break;
+                case "--stats":
+                    if(i+1 >= args.length){
+                        showUsage();
+                        return false;
+                    }
+                    statsPath = Paths.get(args[++i]);
+                    break;
+                case "--ingest":
+                    if(i+1 >= args.length){
+                        showUsage();
+                        return false;
+                    }
+                    ingestPath = args[++i];
+                    break;
+                case "--import":
+                    if(i+1 >= args.length){
+                        showUsage();
+                        return false;
+                    }
+                    importPath = Paths.get(args[++i]);
+                    break;
+                case "--undo-limit":
+                    if(i+1 >= args.length || (undoLimitMiB = parseCount(args[++i])) < 0){
+                        showUsage();
+                        return false;
+                    }
+                    break;
+                case "--cache-limit":
+                    if(i+1 >= args.length || (cacheLimitMiB = parseCount(args[++i])) < 0){
+                        showUsage();
+                        return false;
+                    }
+                    break;
+                case "--position-index":
+                    isPositionIndexEnabled = true;
+                    break;
+                case "--backend":
+                    if(i+1 >= args.length || (arr = createBackend(args[++i])) == null){
+                        showUsage();
+                        return false;
+                    }
+                    break;
+                default:
+                    showUsage();
+                    return false;
+            }
+        }
+        // Standard input cannot hold both the values and the commands
+        if("-".equals(ingestPath) && (isInteractive() || isScriptFromStdin)){
+            showUsage();
+            return false;
+        }
+        if(arr == null)
+            arr = createBackend("array");
+        if(arr instanceof DynamicArray){
+            ((DynamicArray) arr).setJournalLimit((long) undoLimitMiB << 20);
+            ((DynamicArray) arr).setPositionIndexEnabled(isPositionIndexEnabled);
+        }
+        if(cacheLimitMiB > 0)
+            queries = new QueryCache(arr, (long) cacheLimitMiB << 20);
+        return true;
+    }
+
+    /**
+     * Parses a non-negative element count given on the command line
+     * @param text the count to parse
+     * @return the count, or -1 if it is not a non-negative int
+     */
+    private static int parseCount(String text){
+        try{
+            return Math.max(Integer.parseInt(text), -1);
+        }catch(NumberFormatException e){
+            return -1;
+        }
+    }
+
+    /**
+     * Parses the overflow policy named on the command line
+     * @param name one of reject, spill or keep-last
+     * @return the policy, or null if the name is unknown
+     */
+    private static StreamIngester.OverflowPolicy parseOverflowPolicy(String name){
+        switch(name){
+            case "reject":
+                return StreamIngester.OverflowPolicy.REJECT;
+            case "spill":
+                return StreamIngester.OverflowPolicy.SPILL;
+            case "keep-last":
+                return StreamIngester.OverflowPolicy.KEEP_LAST;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Creates the list implementation named on the command line
+     * @param name one of array, segmented, offheap, sorted, compressed, concurrent or gap
+     * @return the new list, or null if the name is unknown
+     */
+    private static IntList createBackend(String name){
+        switch(name){
+            case "array":
+                // Releases storage when a quarter full
+                return new DynamicArray(2, GrowthPolicy.DOUBLING, 0.25f);
+            case "segmented":
+                return new SegmentedIntArray();
+            case "offheap":
+                return new OffHeapIntArray();
+            case "sorted":
+                return new SortedIntArray();
+            case "compressed":
+                return new CompressedIntArray();
+            case "concurrent":
+                return new ConcurrentIntArray();
+            case "gap":
+                return new GapBufferIntArray();
+            default:
+                return null;
+        }
+    }
+
     /* ==========================
      * ACTION METHODS
      ==========================*/
@@ -85,6 +376,41 @@ public class Main{
      * @param choice chosen index of the action to be performed
      */
     private void actionMenu(int choice){
+        if(choice == STATS_OPTION){
+            showStatistics();
+            showPendingMessages();
+            out.flush();
+            return;
+        }
+
+        ActionEvent event = new ActionEvent();
+        event.begin();
+        long start = System.nanoTime();
+        long waitedBefore = inputWaitNanos;
+
+        performAction(choice);
+        arr.checkpoint();
+        showPendingMessages();
+
+        // Each action is an output boundary, writing the output is part of its cost
+        out.flush();
+        long waited = inputWaitNanos - waitedBefore;
+        metrics.record(choice, System.nanoTime() - start - waited);
+
+        event.end();
+        if(event.shouldCommit()){
+            event.action = ACTION_NAMES[choice];
+            event.elements = arr.size();
+            event.inputWait = waited;
+            event.commit();
+        }
+    }
+
+    /**
+     * Performs the action of a menu choice
+     * @param choice chosen index of the action to be performed
+     */
+    private void performAction(int choice){
         switch(choice){
             case 1:
                 getIntegersForArray();
@@ -112,6 +438,43 @@ public class Main{
             case 8:
                 removeDuplicates();
                 break;
+            case 9:
+                showMemoryUsage();
+                break;
+            case 10:
+                trimUnusedCapacity();
+                break;
+            case 11:
+                saveArrayToFile();
+                break;
+            case 12:
+                loadArrayFromFile();
+                break;
+            case 13:
+                sortArray();
+                break;
+            case 14:
+                showKthLargest();
+                break;
+            case 15:
+                showTopK();
+                break;
+            case 16:
+                showMedian();
+                break;
+            case 17:
+                undoLastChange();
+                break;
+            case 18:
+                redoLastChange();
+                break;
+            case 19:
+                insertIntegersAtIndex();
+                break;
+            case 20:
+                showEnterPrompt("text file path to import");
+                importIntegersFromFile(Paths.get(getString()));
+                break;
             default:
                 showMessage(ConsoleTag.DEBUG, "No set action for index" + choice);
         }
@@ -120,15 +483,36 @@ public class Main{
     /** Gets integers to populate the dynamic array */
     private void getIntegersForArray(){
         showEnterPrompt("number of values");
-        int availableSpace = MAX_ELEMENTS-arr.size();
+        int availableSpace = Math.max(0, maxElements-arr.size());
         int num = getIntWithinRange(0,availableSpace);
 
+        // Grows storage once for the whole batch, unless the count is too large to trust before the values come
+        arr.ensureCapacity(arr.size() + Math.min(num, MAX_PRESIZE));
         for(int i=0; i<num; i++){
             showEnterPrompt("index ["+ i +"]");
             arr.add(getInt());
         }
     }
 
+    /** Gets integers to insert before the element at a chosen index */
+    private void insertIntegersAtIndex(){
+        showEnterPrompt("index to insert at");
+        int index = getIntWithinRange(0,arr.size());
+        showEnterPrompt("number of values");
+        int availableSpace = Math.max(0, maxElements-arr.size());
+        int num = getIntWithinRange(0,availableSpace);
+
+        // Reads every value first, so the elements are moved once for the whole batch
+        int[] values = new int[Math.min(num, MAX_PRESIZE)];
+        for(int i=0; i<num; i++){
+            showEnterPrompt("index ["+ (index+i) +"]");
+            if(i == values.length)
+                values = Arrays.copyOf(values, Math.min(num, GrowthPolicy.DOUBLING.newCapacity(i, i+1)));
+            values[i] = getInt();
+        }
+        arr.insert(index, values);
+    }
+
     /** Gets integers to populate the dynamic array */
     private void showIntegers(){
         showMessage(ConsoleTag.INFO, "Showing integers in the array");
@@ -137,9 +521,16 @@ public class Main{
             return;
         }
         println();
-        for(int i=0; i<arr.size(); i++){
-            printf("%s", arr.getValue(i) + ((i<arr.size()-1)?",":""));
+        // Repeated showings of an unchanged array reuse the rendered text
+        CharSequence rendered = queries != null ? queries.render() : null;
+        if(rendered != null){
+            out.print(rendered);
+            return;
         }
+        arr.forEachIndexed((i, value) -> {
+            if(i>0) out.print(',');
+            out.print(value);
+        });
     }
     /** Removes all elements in the dynamic array */
     private void removeAllElements(){
@@ -157,33 +548,9 @@ public class Main{
             return;
         }
 
-        // Flags for discerning highest and parity, respectively
-        boolean isUniqueOdd = false, isUniqueEven = false;
-        boolean hasOdd = false, hasEven = false;
-
-        // Storage for highest numbers
-        int highestOdd=0, highestEven=0;
-
-        // Stores indices of the initial highest values
-        int oddIndex=0, evenIndex=0;
-
-        // Determines if parity exists, also allocates an initial value for highest values
-        // Also gets the index of the initial value
-        for (int i=0;i<arr.size();i++) {
-            if (!hasOdd && (arr.getValue(i) & 1) == 1) {
-                highestOdd = arr.getValue(i) ;
-                hasOdd = true;
-                oddIndex = i;
-                isUniqueOdd = true;
-            }
-            if (!hasEven && (arr.getValue(i)  & 1) == 0) {
-                highestEven = arr.getValue(i) ;
-                hasEven = true;
-                evenIndex = i;
-                isUniqueEven = true;
-            }
-            if (hasOdd && hasEven) break;
-        }
+        // Determines the highest values and recurring check in one pass
+        IntStats stats = queries != null ? queries.stats() : arr.stats();
+        boolean hasOdd = stats.oddCount() > 0, hasEven = stats.evenCount() > 0;
 
         // Shows system message of parity check
         if(!hasOdd || !hasEven){
@@ -191,45 +558,26 @@ public class Main{
             return;
         }
 
-        // Determines the highest values and recurring check in one pass
-        for(int i=0; i<arr.size();i++){
-            // Disregards the initial indices during checks
-            if(i == oddIndex || i == evenIndex) continue;
-
-            // Gets highest odd number
-            if((arr.getValue(i) & 1) == 1 && arr.getValue(i) >highestOdd) {
-                highestOdd = arr.getValue(i) ;
-                isUniqueOdd = true;
-            }
-            // If recurring, then set unique odd flag to false
-            else if(arr.getValue(i)  == highestOdd) isUniqueOdd = false;
-
-            // Gets highest even number
-            if((arr.getValue(i)  & 1) == 0 && arr.getValue(i) >highestEven) {
-                highestEven = arr.getValue(i) ;
-                isUniqueEven = true;
-            }
-            // If recurring, then set unique even flag to false
-            else if(arr.getValue(i)  == highestEven) isUniqueEven = false;
-        }
-
+        // Flags for discerning highest values that do not recur
+        boolean isUniqueOdd = stats.highestOddCount() == 1;
+        boolean isUniqueEven = stats.highestEvenCount() == 1;
 
         // If highest values are determined, displays values and the sum
         if(isUniqueOdd && isUniqueEven){
             showMessage(ConsoleTag.INFO, "Successfully got the sum of highest odd and even");
-            printf("%nHighest Odd: %d", highestOdd);
-            printf("%nHighest Even: %d", highestEven);
-            printf("%nSum of the two: %d", (highestOdd+highestEven));
+            printf("%nHighest Odd: %d", stats.highestOdd());
+            printf("%nHighest Even: %d", stats.highestEven());
+            printf("%nSum of the two: %d", (stats.highestOdd()+stats.highestEven()));
             return;
         }
 
         // If highest value is not present, display the value that is recurring
         showMessage(ConsoleTag.INFO, "Unable to display sum");
         if(!isUniqueOdd) {
-            printf("%nRecurring highest odd number: %d", highestOdd);
+            printf("%nRecurring highest odd number: %d", stats.highestOdd());
         }
         if(!isUniqueEven){
-            printf("%nRecurring highest even number: %d", highestEven);
+            printf("%nRecurring highest even number: %d", stats.highestEven());
         }
     }
     /** Display the indices of all occurrences of a target value. */
@@ -240,22 +588,20 @@ public class Main{
             return;
         }
         showEnterPrompt("an element to find indices");
-        boolean isThereOccurrence = false;
         int findIndex = getInt();
 
-
-        for (int i = 0; i < arr.size(); i++) {
-            if(findIndex == arr.getValue(i)){
-                if(!isThereOccurrence) {
-                    printf("Element found at indices: ");
-                    isThereOccurrence = true;
-                }
-                printf("%s ", i);
+        // Looks up every index of the target, then prints them in order
+        int[] indices = queries != null ? queries.indicesOf(findIndex) : arr.indicesOf(findIndex);
+        if(indices.length > 0){
+            printf("Element found at indices: ");
+            for(int index : indices){
+                out.print(index);
+                out.print(' ');
             }
+            return;
         }
 
-        if(!isThereOccurrence)
-            showMessage(ConsoleTag.SYSTEM, "There are no occurrences of the target value " + findIndex);
+        showMessage(ConsoleTag.SYSTEM, "There are no occurrences of the target value " + findIndex);
     }
 
     /** Replaces all occurrences of a given value in the dynamic array with a new value. */
@@ -275,19 +621,11 @@ public class Main{
         showEnterPrompt("new value");
         int newValue = getInt();
 
-        // Flag for tracking replacements
-        boolean isReplaced = false;
-
         // Replaces old values if found with new value
-        for (int i = 0; i < arr.size(); i++) {
-            if (arr.getValue(i) == oldValue) {
-                arr.set(i, newValue);
-                isReplaced = true;
-            }
-        }
+        int replaced = arr.replaceAll(oldValue, newValue);
 
         // If value replaced, print an indicative message
-        if (isReplaced) {
+        if (replaced > 0) {
             printf("All occurrences of %d replaced with %d%n", oldValue, newValue);
         }
     }
@@ -301,35 +639,14 @@ public class Main{
             showMessage(ConsoleTag.SYSTEM, "Not enough elements to find second largest");
             return;
         }
-        // Determine the largest value in the array
-        int largest = arr.getValue(0);
-        for (int i = 1; i < arr.size(); i++) {
-            if (arr.getValue(i) > largest) largest = arr.getValue(i);
-        }
-
-        // Find the second largest distinct value
-        int secondLargest = 0;
-        boolean secondAssigned = false;
-        boolean duplicateFound = false;
-
-        for (int i = 0; i < arr.size(); i++) {
-            int val = arr.getValue(i);
-            if (val < largest) {
-                if (!secondAssigned || val > secondLargest) {
-                    secondLargest = val;
-                    secondAssigned = true;
-                    duplicateFound = false;
-                } else if (val == secondLargest) {
-                    duplicateFound = true;
-                }
-            }
-        }
+        // Determines the largest and second largest distinct values in one pass
+        IntStats stats = queries != null ? queries.stats() : arr.stats();
 
         // Display result or indicate no valid second largest
-        if (!secondAssigned || duplicateFound) {
+        if (!stats.hasSecond() || stats.secondCount() > 1) {
             showMessage(ConsoleTag.SYSTEM, "No valid second largest element");
         } else {
-            showMessage(ConsoleTag.INFO,"Second largest element: " + secondLargest);
+            showMessage(ConsoleTag.INFO,"Second largest element: " + stats.second());
         }
     }
     /**
@@ -342,24 +659,232 @@ public class Main{
             return;
         }
 
-        int origSize =arr.size();
-        for (int i = 0; i < arr.size(); i++) {
-            int current = arr.getValue(i);
+        // Keeps the first occurrence of each value, compacting in one pass
+        int removed = arr.distinctInPlace(IntList.DistinctMode.STABLE);
 
-            // Check all later elements for duplicates of current
-            for (int j = i + 1; j < arr.size(); j++) {
-                if (arr.getValue(j) == current) {
-                    arr.remove(j);
-                    // Adjust index since size shrinks
-                    j--;
-                }
-            }
-        }
         // Shows the number of removed elements
-        showMessage(ConsoleTag.SYSTEM, "Removed " + (origSize - arr.size()) + " elements");
+        showMessage(ConsoleTag.SYSTEM, "Removed " + removed + " elements");
+    }
+
+    /**
+     * Appends integers read from a file until its end, applying the overflow policy at the element cap
+     * @param path the file holding whitespace- or comma-separated integers, "-" for standard input
+     */
+    private void loadIntegersFromFile(String path){
+        loadIntegersFromFile(path, this::showMessage);
+    }
+
+    /**
+     * Appends the integers of a file to the array, reporting through a callback
+     * @param path the file to read, "-" for standard input
+     * @param report receives each message with its logging tag
+     */
+    private void loadIntegersFromFile(String path, BiConsumer<ConsoleTag, String> report){
+        StreamIngester ingester = new StreamIngester(maxElements, overflowPolicy, spillPath);
+        try(IntScanner in = new IntScanner("-".equals(path) ? new FileInputStream(FileDescriptor.in) : new FileInputStream(path))){
+            StreamIngester.Result result = ingester.ingest(in, arr,
+                    message -> report.accept(ConsoleTag.ERROR, message + " in " + path));
+            report.accept(ConsoleTag.INFO, "Loaded " + result.appended() + " values from " + path);
+
+            if(result.truncated())
+                report.accept(ConsoleTag.SYSTEM, "Element cap of " + maxElements + " reached, remaining values skipped");
+            else if(result.overflowed() > 0 && overflowPolicy == StreamIngester.OverflowPolicy.SPILL)
+                report.accept(ConsoleTag.SYSTEM, "Element cap of " + maxElements + " reached, spilled "
+                        + result.overflowed() + " values to " + spillPath);
+            else if(result.overflowed() > 0)
+                report.accept(ConsoleTag.SYSTEM, "Element cap of " + maxElements + " reached, kept the last "
+                        + arr.size() + " values after reading " + result.overflowed() + " more");
+        }catch(IOException e){
+            report.accept(ConsoleTag.ERROR, "Unable to read " + path + ": " + e.getMessage());
+        }
     }
 
+    /**
+     * Appends the integers of a text file, parsing its chunks in parallel
+     * Overflow policies other than reject need the streaming loader, which is used instead
+     * @param path the file holding whitespace- or comma-separated integers
+     */
+    private void importIntegersFromFile(Path path){
+        if(overflowPolicy != StreamIngester.OverflowPolicy.REJECT){
+            loadIntegersFromFile(path.toString());
+            return;
+        }
 
+        long start = System.nanoTime();
+        try{
+            ParallelImporter.Result result = new ParallelImporter(maxElements).importFile(path, arr,
+                    message -> showMessage(ConsoleTag.ERROR, message + " in " + path));
+            showMessage(ConsoleTag.INFO, String.format("Imported %d values from %s in %d ms, %d chunks",
+                    result.appended(), path, (System.nanoTime() - start) / 1_000_000, result.chunks()));
+
+            if(result.truncated())
+                showMessage(ConsoleTag.SYSTEM, "Element cap of " + maxElements + " reached, remaining values skipped");
+        }catch(IOException e){
+            showMessage(ConsoleTag.ERROR, "Unable to import " + path + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Starts loading a file into the concurrent array on its own thread
+     * @param path the file to read, "-" for standard input
+     */
+    private void startBackgroundLoad(String path){
+        showMessage(ConsoleTag.INFO, "Loading " + path + " in the background");
+        ingestThread = new Thread(() -> loadIntegersFromFile(path,
+                (tag, message) -> pendingMessages.add(() -> showMessage(tag, message))), "ingest");
+        ingestThread.setDaemon(true);
+        ingestThread.start();
+    }
+
+    /** Shows the messages the background load posted since the last action */
+    private void showPendingMessages(){
+        for(Runnable message = pendingMessages.poll(); message != null; message = pendingMessages.poll())
+            message.run();
+    }
+
+    /** Displays the call counts and latencies of the actions, and the cost counters of the array */
+    private void showStatistics(){
+        showMessage(ConsoleTag.INFO, "Session statistics");
+        println();
+        print(metrics.report());
+        showMessage(ConsoleTag.INFO, "Scan kernels: " + IntKernels.INSTANCE.name());
+        if(queries != null)
+            showMessage(ConsoleTag.INFO, queries.report());
+        if(arr instanceof DynamicArray)
+            showMessage(ConsoleTag.INFO, ((DynamicArray) arr).counterReport());
+    }
+
+    /** Writes the session statistics to the file given with --stats */
+    private void writeStatistics(){
+        String report = metrics.report() + System.lineSeparator();
+        if(arr instanceof DynamicArray)
+            report += ((DynamicArray) arr).counterReport() + System.lineSeparator();
+        if(queries != null)
+            report += queries.report() + System.lineSeparator();
+        try{
+            Files.writeString(statsPath, report);
+        }catch(IOException e){
+            showMessage(ConsoleTag.ERROR, "Unable to write statistics to " + statsPath + ": " + e.getMessage());
+        }
+    }
+
+    /** Displays how much storage the dynamic array holds compared with its elements */
+    private void showMemoryUsage(){
+        showMessage(ConsoleTag.INFO, arr.memoryReport());
+    }
+
+    /** Releases the unused capacity of the dynamic array */
+    private void trimUnusedCapacity(){
+        long released = arr.wastedBytes();
+        arr.trimToSize();
+        showMessage(ConsoleTag.SYSTEM, "Released " + released + " bytes of unused capacity");
+    }
+
+    /** Saves all elements of the dynamic array to a snapshot file */
+    private void saveArrayToFile(){
+        showEnterPrompt("file path to save to");
+        String path = getString();
+        try{
+            arr.saveTo(Paths.get(path));
+            showMessage(ConsoleTag.INFO, "Saved " + arr.size() + " elements to " + path);
+        }catch(IOException e){
+            showMessage(ConsoleTag.ERROR, "Unable to save to " + path + ": " + e.getMessage());
+        }catch(UnsupportedOperationException e){
+            showMessage(ConsoleTag.ERROR, e.getMessage());
+        }
+    }
+
+    /** Replaces all elements of the dynamic array with those of a snapshot file */
+    private void loadArrayFromFile(){
+        showEnterPrompt("file path to load from");
+        String path = getString();
+        try{
+            arr.loadFrom(Paths.get(path));
+            showMessage(ConsoleTag.INFO, "Loaded " + arr.size() + " elements from " + path);
+        }catch(IOException e){
+            showMessage(ConsoleTag.ERROR, "Unable to load from " + path + ": " + e.getMessage());
+        }catch(UnsupportedOperationException e){
+            showMessage(ConsoleTag.ERROR, e.getMessage());
+        }
+    }
+
+    /** Sorts the elements of the dynamic array in ascending order */
+    private void sortArray(){
+        arr.sort();
+        showMessage(ConsoleTag.INFO, "Sorted " + arr.size() + " elements in ascending order");
+    }
+
+    /** Displays the k-th largest element for a chosen k, counting duplicates or not */
+    private void showKthLargest(){
+        if(arr.size()==0){
+            showMessage(ConsoleTag.SYSTEM, "There are no elements in the array");
+            return;
+        }
+        showEnterPrompt("k, 1 for the largest");
+        int k = getIntWithinRange(1, arr.size());
+        showEnterPrompt("whether equal values count once (y/n)");
+        boolean distinct = getBoolean();
+
+        // Selects without sorting, on a copy so the array keeps its order
+        try{
+            showMessage(ConsoleTag.INFO, "Element " + k + " from the top: " + arr.kthLargest(k, distinct));
+        }catch(NoSuchElementException e){
+            showMessage(ConsoleTag.SYSTEM, "No element " + k + " from the top: " + e.getMessage());
+        }
+    }
+
+    /** Displays the k largest elements for a chosen k, largest first */
+    private void showTopK(){
+        if(arr.size()==0){
+            showMessage(ConsoleTag.SYSTEM, "There are no elements in the array");
+            return;
+        }
+        showEnterPrompt("k, the number of elements");
+        int k = getIntWithinRange(1, arr.size());
+
+        // Streams the elements through a heap of k values
+        int[] top = arr.topK(k);
+        showMessage(ConsoleTag.INFO, "Top " + k + " elements");
+        println();
+        for(int i=0; i<top.length; i++){
+            if(i>0) out.print(',');
+            out.print(top[i]);
+        }
+    }
+
+    /** Displays the median, the mean of the two middle elements for an even count */
+    private void showMedian(){
+        int size = arr.size();
+        if(size==0){
+            showMessage(ConsoleTag.SYSTEM, "There are no elements in the array");
+            return;
+        }
+
+        // The middle elements are the k-th largest for k at the middle of the order
+        int upper = arr.kthLargest((size + 1) / 2, false);
+        if(size % 2 == 1){
+            showMessage(ConsoleTag.INFO, "Median: " + upper);
+        }else{
+            int lower = arr.kthLargest(size / 2 + 1, false);
+            showMessage(ConsoleTag.INFO, "Median: " + ((long) lower + upper) / 2.0);
+        }
+    }
+
+    /** Reverts the most recent change to the array */
+    private void undoLastChange(){
+        if(arr.undo())
+            showMessage(ConsoleTag.INFO, "Undid the last change, the array now has " + arr.size() + " elements");
+        else
+            showMessage(ConsoleTag.SYSTEM, "Nothing to undo");
+    }
+
+    /** Reapplies the most recently undone change to the array */
+    private void redoLastChange(){
+        if(arr.redo())
+            showMessage(ConsoleTag.INFO, "Redid the last undone change, the array now has " + arr.size() + " elements");
+        else
+            showMessage(ConsoleTag.SYSTEM, "Nothing to redo");
+    }
 
     /**
      * Prompts program termination
@@ -391,11 +916,46 @@ public class Main{
     }
 
     /**
-     * Shows an enter prompt with expected input type
+     * Shows an enter prompt with expected input type, suppressed in batch mode
      * @param prompt expected input type
      */
     private void showEnterPrompt(String prompt){
-        printf("%nEnter %s: ", prompt);
+        if(!isInteractive()) return;
+        println();
+        print("Enter ");
+        print(prompt);
+        print(": ");
+    }
+
+    /** Shows the accepted command-line flags */
+    private void showUsage(){
+        print("Usage: java Main [--script FILE | --batch] [--backend NAME] [--ingest FILE]");
+        print("\n                 [--max-elements N] [--overflow POLICY] [--spill-file FILE]");
+        print("\n                 [--import FILE] [--stats FILE] [--undo-limit MIB] [--cache-limit MIB]");
+        print("\n                 [--position-index]");
+        print("\n  --script FILE   run the commands in FILE without prompts");
+        print("\n  --batch         run commands read from standard input without prompts");
+        print("\n  --backend NAME  store the integers in array (default), segmented, offheap, sorted,");
+        print("\n                  compressed (run-length and bit-packed blocks for repetitive data),");
+        print("\n                  concurrent (thread-safe, --ingest then loads while actions run),");
+        print("\n                  or gap (gap buffer, cheap inserts and removals near the last edit)");
+        print("\n  --ingest FILE   load the integers of FILE until its end before starting, - for standard input with --script");
+        print("\n  --import FILE   load the integers of a text file before starting, parsed in parallel");
+        print("\n  --max-elements N  cap the number of elements, unlimited by default");
+        print("\n  --overflow POLICY  at the cap: reject (default) stops loading, spill appends the rest");
+        print("\n                  to the spill file, keep-last evicts the oldest values");
+        print("\n  --spill-file FILE  file for spilled values, spill.txt by default");
+        print("\n  --stats FILE    write action counts and latencies to FILE on exit");
+        print("\n  --undo-limit MIB  memory kept for undo with the array backend, 64 by default, 0 disables undo");
+        print("\n  --cache-limit MIB  memory kept for repeated query results with the array backend,");
+        print("\n                  16 by default, 0 disables the cache");
+        print("\n  --position-index  index the positions of every value with the array backend, so repeated");
+        print("\n                  finds and replaces skip the scan at the cost of memory per distinct value");
+        print("\nRun with java --add-modules jdk.incubator.vector to scan with vector instructions,");
+        print("\n  or -Darrconsole.kernels=scalar to keep the plain loops");
+        print("\nScript commands: load FILE | run OPTION [INPUTS...] | exit");
+        println();
+        out.flush();
     }
 
     /**
@@ -404,7 +964,10 @@ public class Main{
      * @param message the message to be conveyed
      */
     private void showMessage(ConsoleTag tag, String message){
-        printf("%n%s %s", tag.label(), message);
+        println();
+        print(tag.label());
+        out.print(' ');
+        print(message);
     }
 
     /**
@@ -413,9 +976,22 @@ public class Main{
      */
     private void showOptions(String[] options){
         for(int i=1; i<options.length; i++)
-            printf("%n[%d] %s", i, options[i]);
+            showOption(i, options[i]);
 
-        printf("%n[%d] %s", 0, options[0]);
+        showOption(0, options[0]);
+    }
+
+    /**
+     * Shows a single numbered option
+     * @param number the number used to choose the option
+     * @param option the option to be displayed
+     */
+    private void showOption(int number, String option){
+        println();
+        out.print('[');
+        out.print(number);
+        print("] ");
+        print(option);
     }
 
 
@@ -427,9 +1003,12 @@ public class Main{
      * @return valid integer input
      */
     private int getInt(){
+        if(!isInteractive()) return getScriptInt();
+
+        out.flush();
         while(true){
             try{
-                return Integer.parseInt(reader.readLine());
+                return Integer.parseInt(readLine());
             }catch(NumberFormatException e){
                 showMessage(ConsoleTag.ERROR, "Invalid number format. Please try again");
             }catch(IOException e){
@@ -439,6 +1018,22 @@ public class Main{
         }
     }
 
+    /**
+     * Gets the next integer of the batch script, skipping invalid tokens
+     * @return valid integer input
+     */
+    private int getScriptInt(){
+        while(true){
+            try{
+                return script.nextInt();
+            }catch(NumberFormatException e){
+                showMessage(ConsoleTag.ERROR, e.getMessage() + " in script");
+            }catch(IOException e){
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
     /**
      * Gets an integer input within an inclusive range of min-max
      * @param min minimum integer input (inclusive)
@@ -456,14 +1051,38 @@ public class Main{
         }
     }
 
+    /**
+     * Gets a menu choice, one of the listed options or the hidden statistics option
+     * @return valid choice
+     */
+    private int getMenuChoice(){
+        while(true){
+            int num = getInt();
+            if((num >= 0 && num < ACTION_NAMES.length) || num == STATS_OPTION){
+                return num;
+            }
+            showMessage(ConsoleTag.ERROR, "Invalid number. Must be within [0.."+(ACTION_NAMES.length-1)+"].");
+            showEnterPrompt("new integer");
+        }
+    }
+
     /**
      * Gets a string input
      * @return valid string
      */
     private String getString(){
+        if(!isInteractive()){
+            try{
+                return script.nextWord();
+            }catch(IOException e){
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        out.flush();
         while(true){
             try{
-                return reader.readLine();
+                return readLine();
             }catch(IOException e){
                 showMessage(ConsoleTag.ERROR, "Invalid input, Please try again");
             }
@@ -471,6 +1090,20 @@ public class Main{
         }
     }
 
+    /**
+     * Reads a console line, counting the wait so it is not charged to the running action
+     * @return the line, or null at the end of input
+     * @throws IOException if the console cannot be read
+     */
+    private String readLine() throws IOException{
+        long start = System.nanoTime();
+        try{
+            return reader.readLine();
+        }finally{
+            inputWaitNanos += System.nanoTime() - start;
+        }
+    }
+
     /**
      * Gets a boolean value
      * @return valid boolean
@@ -512,19 +1145,19 @@ public class Main{
         String label(){return this.label;}
     }
 
-    /** Shorthand print method */
+    /** Shorthand print method, writes into the output buffer */
     private void print(String message){
-        System.out.print(message);
+        out.print(message);
     }
 
-    /** Shorthand printf method */
+    /** Shorthand printf method, for occasional formatted messages */
     private void printf(String format, Object... args){
-        System.out.printf(format, args);
+        out.print(String.format(format, args));
     }
 
     /** Shorthand println method for explicit line spacing */
     private void println(){
-        System.out.println();
+        out.newLine();
     }
 
     /**
@@ -549,160 +1182,34 @@ public class Main{
         return false;
     }
 
-    /** Closes the BufferedReader obj to assure resource-saving if JVM garbage collection fails */
-    private void close(){
-        try{
-            reader.close();
-        }catch(IOException ignored){}
-    }
-}
-
-/**
- * Class representing a simple dynamic array of integers.
- * Automatically expands capacity when the array becomes full.
- */
-class DynamicArray {
-    /** Internal storage for array elements */
-    private int[] elements;
-
-    /** Number of elements currently stored in the array */
-    private int size;
-
-    /** Maximum capacity before array expansion is needed */
-    private int capacity;
-
-    /**
-     * Constructs a new DynamicArray with a specified initial capacity.
-     *
-     * @param initialCapacity the initial capacity of the dynamic array
-     */
-    public DynamicArray(int initialCapacity) {
-        elements = new int[initialCapacity];
-        this.capacity = initialCapacity;
-        size = 0;
-    }
-
-    /**
-     * Adds a new value to the end of the dynamic array.
-     * Automatically expands the array if needed.
-     *
-     * @param value the integer value to add
-     */
-    public void add(int value) {
-        if (size >= elements.length) {
-            expandArray();
-        }
-        elements[size++] = value;
-    }
-
-    /**
-     * Removes the element at the specified index from the array.
-     * Elements to the right of the removed element are shifted left.
-     * @param index the index of the element to remove
-     * @throws IndexOutOfBoundsException if index is out of bounds
-     */
-    public void remove(int index) {
-        if (index < 0 || index >= size)
-            throw new IndexOutOfBoundsException("Invalid index: " + index);
-
-        for (int i = index; i < size - 1; i++) {
-            elements[i] = elements[i + 1];
-        }
-
-        elements[size - 1] = 0;
-        size--;
-    }
-
-    /**
-     * Updates the value at a specific index in the array.
-     * @param index the index of the element to update
-     * @param newValue the new value to set
-     */
-    public void set(int index, int newValue) {
-        if (index < 0 || index >= size)
-            throw new IndexOutOfBoundsException("Invalid index: " + index);
-
-        elements[index] = newValue;
-    }
-
-    /**
-     * Returns the number of elements currently stored in the array.
-     * @return the current size of the array
-     */
-    public int size() {
-        return size;
-    }
-
-    /**
-     * Returns the element at the specified index.
-     *
-     * @param index the index of the element to retrieve
-     * @return the value stored at the specified index
-     * @throws IndexOutOfBoundsException if index is out of bounds
-     */
-    public int getValue(int index) {
-        if (index < 0 || index >= size)
-            throw new IndexOutOfBoundsException("Invalid index: " + index);
-
-        return elements[index];
-    }
-
     /**
-     * Returns the current capacity of the dynamic array.
-     * @return the maximum number of elements the array can hold before expanding
+     * Checks whether the program reads from the console rather than a script
+     * @return true in interactive mode
      */
-    public int capacity() {
-        return capacity;
-    }
-
-    /**
-     * Doubles the capacity of the internal array when full.
-     * Copies existing elements to the new array.
-     */
-    private void expandArray() {
-        int newCapacity = capacity * 2;
-        int[] temp = new int[newCapacity];
-
-        for (int i = 0; i < capacity; i++) {
-            temp[i] = elements[i];
-        }
-
-        elements = temp;
-        capacity = newCapacity;
+    private boolean isInteractive(){
+        return script == null;
     }
 
-    /**
-     * Returns the index of the first occurrence of the specified value,
-     * or throws an error if the value is not found.
-     * @param value the value to search for
-     * @return the index of the value, or -1 if not found
-     */
-    public int indexOf(int value) {
-        for (int i = 0; i < size; i++) {
-            if (elements[i] == value) {
-                return i;
+    /** Closes the BufferedReader obj to assure resource-saving if JVM garbage collection fails */
+    private void close(){
+        if(ingestThread != null){
+            if(ingestThread.isAlive())
+                showMessage(ConsoleTag.SYSTEM, "Waiting for the background load to finish");
+            out.flush();
+            try{
+                ingestThread.join();
+            }catch(InterruptedException e){
+                Thread.currentThread().interrupt();
             }
+            showPendingMessages();
         }
-        return -1;
-    }
-
-    /**
-     * Checks whether the specified value exists in the dynamic array.
-     * @param value the value to check for
-     * @return true if the value exists, false otherwise
-     */
-    public boolean contains(int value) {
-        return indexOf(value) != -1;
+        if(statsPath != null)
+            writeStatistics();
+        out.flush();
+        try{
+            reader.close();
+            if(script != null) script.close();
+        }catch(IOException ignored){}
     }
+}
 
-    /**
-     * Clears all elements from the dynamic array.
-     * Resets size to 0 and optionally clears internal storage.
-     */
-    public void clear() {
-        for (int i = 0; i < size; i++) {
-            elements[i] = 0; // optional: clear values
-        }
-        size = 0;
-    }
-}
\ No newline at end of file
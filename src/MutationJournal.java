@@ -0,0 +1,146 @@
+import java.util.ArrayDeque;
+
+/**
+ * Class keeping undo and redo stacks of compact mutation deltas within a memory budget.
+ * Each entry knows how to revert and reapply its own change and how many bytes it
+ * retains. When the budget is exceeded the oldest undo entries are dropped first,
+ * so the most recent changes always stay undoable.
+ */
+class MutationJournal {
+    /** A recorded change that can be reverted and reapplied */
+    interface Entry {
+        /**
+         * Returns the memory retained by this entry, which may change between undo and redo.
+         * @return the retained bytes
+         */
+        long bytes();
+
+        /** Reverts the change, the target is in the state right after it */
+        void undo();
+
+        /** Reapplies the change, the target is in the state right before it */
+        void redo();
+    }
+
+    /** Changes that can be undone, the most recent first */
+    private final ArrayDeque<Entry> undoStack = new ArrayDeque<>();
+
+    /** Undone changes that can be redone, the most recently undone first */
+    private final ArrayDeque<Entry> redoStack = new ArrayDeque<>();
+
+    /** Maximum number of bytes retained by all entries */
+    private final long limitBytes;
+
+    /** Number of bytes retained by all entries */
+    private long bytes;
+
+    /**
+     * Constructs a new, empty MutationJournal.
+     *
+     * @param limitBytes the maximum number of bytes retained by all entries
+     * @throws IllegalArgumentException if limitBytes is not positive
+     */
+    public MutationJournal(long limitBytes) {
+        if (limitBytes <= 0)
+            throw new IllegalArgumentException("Invalid journal limit: " + limitBytes);
+
+        this.limitBytes = limitBytes;
+    }
+
+    /**
+     * Records a new change. Redo is no longer possible after a new change.
+     * An entry larger than the whole budget cannot be kept, so the journal is cleared instead.
+     *
+     * @param entry the change that was just made
+     * @return true if the change can be undone
+     */
+    public boolean record(Entry entry) {
+        clearRedo();
+        if (entry.bytes() > limitBytes) {
+            clear();
+            return false;
+        }
+        undoStack.push(entry);
+        bytes += entry.bytes();
+        trim();
+        return true;
+    }
+
+    /**
+     * Returns the most recent change, so a continuing change can be merged into it.
+     * @return the most recent undoable entry, or null if there is none
+     */
+    public Entry last() {
+        return undoStack.peek();
+    }
+
+    /**
+     * Reverts the most recent change.
+     * @return true if a change was reverted, false if there was none
+     */
+    public boolean undo() {
+        Entry entry = undoStack.poll();
+        if (entry == null) return false;
+
+        bytes -= entry.bytes();
+        entry.undo();
+        bytes += entry.bytes();
+        redoStack.push(entry);
+        trim();
+        return true;
+    }
+
+    /**
+     * Reapplies the most recently reverted change.
+     * @return true if a change was reapplied, false if there was none
+     */
+    public boolean redo() {
+        Entry entry = redoStack.poll();
+        if (entry == null) return false;
+
+        bytes -= entry.bytes();
+        entry.redo();
+        bytes += entry.bytes();
+        undoStack.push(entry);
+        trim();
+        return true;
+    }
+
+    /**
+     * Drops every entry.
+     */
+    public void clear() {
+        undoStack.clear();
+        redoStack.clear();
+        bytes = 0;
+    }
+
+    /** @return the number of changes that can be undone */
+    public int undoDepth() { return undoStack.size(); }
+
+    /** @return the number of changes that can be redone */
+    public int redoDepth() { return redoStack.size(); }
+
+    /** @return the number of bytes retained by all entries */
+    public long bytes() { return bytes; }
+
+    /**
+     * Drops every redo entry.
+     */
+    private void clearRedo() {
+        for (Entry entry : redoStack) bytes -= entry.bytes();
+        redoStack.clear();
+    }
+
+    /**
+     * Drops the oldest entries until the budget is met, undo history before redo history.
+     */
+    private void trim() {
+        while (bytes > limitBytes && !undoStack.isEmpty()) {
+            bytes -= undoStack.removeLast().bytes();
+        }
+        while (bytes > limitBytes && !redoStack.isEmpty()) {
+            bytes -= redoStack.removeLast().bytes();
+        }
+    }
+}
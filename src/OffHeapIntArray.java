@@ -0,0 +1,339 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Class representing a dynamic array of integers stored outside the Java heap.
+ * Elements live in fixed-size direct buffers addressed by a long index, so the
+ * array can exceed 2^31 elements and growing never copies existing elements,
+ * only the small chunk directory. Past 2^31 elements, the long methods and the
+ * whole-array scans (forEach, stats, replaceAll, topK) keep working, while methods
+ * of the int API throw.
+ * Direct memory is capped by -XX:MaxDirectMemorySize, which defaults to the
+ * maximum heap size, so large arrays need that flag raised as well.
+ */
+class OffHeapIntArray implements IntList {
+    /** Number of elements per chunk as a power of two, 2^20 ints is 4 MiB */
+    private static final int CHUNK_SHIFT = 20;
+
+    /** Number of elements per chunk */
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+    /** Bit mask extracting the offset within a chunk from an index */
+    private static final long CHUNK_MASK = CHUNK_SIZE - 1;
+
+    /** Directory of allocated chunks, only the first chunkCount entries are used */
+    private IntBuffer[] chunks = new IntBuffer[8];
+
+    /** Number of allocated chunks */
+    private int chunkCount;
+
+    /** Number of elements currently stored in the array */
+    private long size;
+
+    /**
+     * Adds a new value to the end of the array.
+     * Allocates one new chunk when the last chunk is full.
+     *
+     * @param value the integer value to add
+     */
+    @Override
+    public void add(int value) {
+        if (size == (long) chunkCount << CHUNK_SHIFT) {
+            addChunk();
+        }
+        chunks[(int) (size >>> CHUNK_SHIFT)].put((int) (size & CHUNK_MASK), value);
+        size++;
+    }
+
+    /**
+     * Returns the element at the specified index.
+     *
+     * @param index the index of the element to retrieve
+     * @return the value stored at the specified index
+     * @throws IndexOutOfBoundsException if index is out of bounds
+     */
+    public int getValue(long index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Invalid index: " + index);
+
+        return chunks[(int) (index >>> CHUNK_SHIFT)].get((int) (index & CHUNK_MASK));
+    }
+
+    /**
+     * Returns the element at the specified int index.
+     *
+     * @param index the index of the element to retrieve
+     * @return the value stored at the specified index
+     * @throws IndexOutOfBoundsException if index is out of bounds
+     */
+    @Override
+    public int getValue(int index) {
+        return getValue((long) index);
+    }
+
+    /**
+     * Updates the value at a specific index in the array.
+     *
+     * @param index the index of the element to update
+     * @param newValue the new value to set
+     * @throws IndexOutOfBoundsException if index is out of bounds
+     */
+    public void set(long index, int newValue) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Invalid index: " + index);
+
+        chunks[(int) (index >>> CHUNK_SHIFT)].put((int) (index & CHUNK_MASK), newValue);
+    }
+
+    /**
+     * Updates the value at a specific int index in the array.
+     *
+     * @param index the index of the element to update
+     * @param newValue the new value to set
+     * @throws IndexOutOfBoundsException if index is out of bounds
+     */
+    @Override
+    public void set(int index, int newValue) {
+        set((long) index, newValue);
+    }
+
+    /**
+     * Removes the element at the specified index from the array.
+     * Elements to the right are shifted left one chunk at a time with block moves.
+     *
+     * @param index the index of the element to remove
+     * @throws IndexOutOfBoundsException if index is out of bounds
+     */
+    public void remove(long index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Invalid index: " + index);
+
+        int lastChunk = (int) ((size - 1) >>> CHUNK_SHIFT);
+        int chunk = (int) (index >>> CHUNK_SHIFT);
+        int offset = (int) (index & CHUNK_MASK);
+
+        while (chunk <= lastChunk) {
+            IntBuffer current = chunks[chunk];
+            int end = chunk == lastChunk ? (int) (((size - 1) & CHUNK_MASK) + 1) : CHUNK_SIZE;
+
+            // Shifts the rest of this chunk left, then pulls in the head of the next chunk
+            current.put(offset, current, offset + 1, end - offset - 1);
+            if (chunk < lastChunk) {
+                current.put(CHUNK_SIZE - 1, chunks[chunk + 1].get(0));
+            }
+            offset = 0;
+            chunk++;
+        }
+
+        size--;
+        chunks[(int) (size >>> CHUNK_SHIFT)].put((int) (size & CHUNK_MASK), 0);
+    }
+
+    /**
+     * Removes the element at the specified int index from the array.
+     *
+     * @param index the index of the element to remove
+     * @throws IndexOutOfBoundsException if index is out of bounds
+     */
+    @Override
+    public void remove(int index) {
+        remove((long) index);
+    }
+
+    /**
+     * Returns the number of elements, while it fits the int API.
+     * The index loops of the int API stop working past that, so they fail here instead
+     * of silently skipping elements.
+     *
+     * @return the current size of the array
+     * @throws ArithmeticException if there are more than Integer.MAX_VALUE elements, see {@link #longSize()}
+     */
+    @Override
+    public int size() {
+        if (size > Integer.MAX_VALUE)
+            throw new ArithmeticException("Size exceeds the int API: " + size);
+
+        return (int) size;
+    }
+
+    /**
+     * Returns the number of elements currently stored in the array.
+     * @return the current size of the array
+     */
+    public long longSize() {
+        return size;
+    }
+
+    /**
+     * Returns the index of the first occurrence of the specified value.
+     *
+     * @param value the value to search for
+     * @return the index of the value, or -1 if not found
+     */
+    public long longIndexOf(int value) {
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            IntBuffer current = chunks[chunk];
+            long base = (long) chunk << CHUNK_SHIFT;
+            int end = (int) Math.min(CHUNK_SIZE, size - base);
+
+            for (int i = 0; i < end; i++) {
+                if (current.get(i) == value) return base + i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index of the first occurrence of the specified value.
+     *
+     * @param value the value to search for
+     * @return the index of the value, or -1 if not found
+     * @throws ArithmeticException if the index does not fit in an int
+     */
+    @Override
+    public int indexOf(int value) {
+        return Math.toIntExact(longIndexOf(value));
+    }
+
+    /**
+     * Checks whether the specified value exists in the array.
+     *
+     * @param value the value to check for
+     * @return true if the value exists, false otherwise
+     */
+    @Override
+    public boolean contains(int value) {
+        return longIndexOf(value) != -1;
+    }
+
+    /**
+     * Clears all elements from the array.
+     * Chunks are dropped, their native memory is freed once they are collected.
+     */
+    @Override
+    public void clear() {
+        Arrays.fill(chunks, 0, chunkCount, null);
+        chunkCount = 0;
+        size = 0;
+    }
+
+    /**
+     * Performs the given action for each element in index order, one chunk at a time.
+     * The action must not modify this array.
+     *
+     * @param action the action to perform on each value
+     */
+    @Override
+    public void forEach(IntConsumer action) {
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            IntBuffer current = chunks[chunk];
+            int end = (int) Math.min(CHUNK_SIZE, size - ((long) chunk << CHUNK_SHIFT));
+
+            for (int i = 0; i < end; i++) {
+                action.accept(current.get(i));
+            }
+        }
+    }
+
+    /**
+     * Replaces every occurrence of a value with a new value, one chunk at a time.
+     *
+     * @param oldValue the value to replace
+     * @param newValue the value to put in its place
+     * @return the number of replaced elements
+     * @throws ArithmeticException if the number of replaced elements does not fit in an int,
+     *         they are replaced all the same
+     */
+    @Override
+    public int replaceAll(int oldValue, int newValue) {
+        long replaced = 0;
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            IntBuffer current = chunks[chunk];
+            int end = (int) Math.min(CHUNK_SIZE, size - ((long) chunk << CHUNK_SHIFT));
+
+            for (int i = 0; i < end; i++) {
+                if (current.get(i) == oldValue) {
+                    current.put(i, newValue);
+                    replaced++;
+                }
+            }
+        }
+        return Math.toIntExact(replaced);
+    }
+
+    /**
+     * Returns the indices of all occurrences of the specified value, one chunk at a time.
+     *
+     * @param value the value to search for
+     * @return the ascending indices of the value, empty if not found
+     * @throws ArithmeticException if an occurrence lies at an index that does not fit in an int
+     */
+    @Override
+    public int[] indicesOf(int value) {
+        int[] indices = new int[8];
+        int found = 0;
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            IntBuffer current = chunks[chunk];
+            long base = (long) chunk << CHUNK_SHIFT;
+            int end = (int) Math.min(CHUNK_SIZE, size - base);
+
+            for (int i = 0; i < end; i++) {
+                if (current.get(i) == value) {
+                    if (found == indices.length) indices = Arrays.copyOf(indices, found * 2);
+                    indices[found++] = Math.toIntExact(base + i);
+                }
+            }
+        }
+        return Arrays.copyOf(indices, found);
+    }
+
+    /**
+     * Returns the k largest values, streaming every chunk through a bounded heap.
+     *
+     * @param k the number of values to return
+     * @return at most k values, largest first
+     * @throws IllegalArgumentException if k is negative
+     */
+    @Override
+    public int[] topK(int k) {
+        if (k < 0)
+            throw new IllegalArgumentException("Invalid k: " + k);
+
+        IntTopK top = new IntTopK((int) Math.min(k, size));
+        forEach(top);
+        return top.toDescendingArray();
+    }
+
+    /**
+     * Describes how much native memory is allocated compared with the stored elements.
+     * @return a single-line memory usage report
+     */
+    @Override
+    public String memoryReport() {
+        return String.format("Size: %d, Live: %d bytes, Off-heap allocated: %d bytes in %d chunks",
+                size, size * Integer.BYTES, allocatedBytes(), chunkCount);
+    }
+
+    /**
+     * Returns the number of bytes of native memory held by the chunks.
+     * @return the allocated off-heap bytes
+     */
+    public long allocatedBytes() {
+        return (long) chunkCount * CHUNK_SIZE * Integer.BYTES;
+    }
+
+    /**
+     * Allocates one more chunk, growing the directory when it is full.
+     */
+    private void addChunk() {
+        if (chunkCount == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunks.length * 2);
+        }
+        chunks[chunkCount++] = ByteBuffer.allocateDirect(CHUNK_SIZE * Integer.BYTES)
+                .order(ByteOrder.nativeOrder())
+                .asIntBuffer();
+    }
+}
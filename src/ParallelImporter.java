@@ -0,0 +1,327 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/**
+ * Class importing the integers of a text file into a list with parallel parsing.
+ * The file is cut into chunks at separators, preferably line ends, each chunk is
+ * memory-mapped and parsed byte by byte on the common pool, and the parsed values are
+ * appended in file order after growing the list once. A chunk cut inside a comment
+ * drops what it parsed before its first line end, once the chunks before it tell so. The format is the one read by
+ * {@link IntScanner}: whitespace- or comma-separated ints with '#' comments.
+ */
+class ParallelImporter {
+    /** Smallest chunk worth handing to another thread */
+    private static final long MIN_CHUNK_BYTES = 1 << 20;
+
+    /** Largest chunk, well below the 2 GiB limit of one mapping */
+    private static final long MAX_CHUNK_BYTES = 1 << 28;
+
+    /** Chunks created per worker thread, extra chunks balance uneven workers */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    /** How far past a nominal chunk end a line end is looked for, before any separator is taken */
+    private static final int LINE_SEARCH_BYTES = 1 << 20;
+
+    /** Maximum number of elements the list may hold after importing */
+    private final int maxElements;
+
+    /**
+     * Constructs a new ParallelImporter.
+     *
+     * @param maxElements the maximum number of elements the list may hold
+     * @throws IllegalArgumentException if maxElements is negative
+     */
+    public ParallelImporter(int maxElements) {
+        if (maxElements < 0)
+            throw new IllegalArgumentException("Invalid maximum number of elements: " + maxElements);
+
+        this.maxElements = maxElements;
+    }
+
+    /**
+     * Appends the integers of a file to a list.
+     * Invalid tokens are skipped and reported to onInvalid in file order, after parsing.
+     * Values beyond the maximum number of elements are not appended.
+     *
+     * @param path the file to import
+     * @param target the list to append to
+     * @param onInvalid receives the message of each invalid token
+     * @return what was appended
+     * @throws IOException if the file cannot be read
+     */
+    public Result importFile(Path path, IntList target, Consumer<String> onInvalid) throws IOException {
+        Chunk[] chunks;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            chunks = split(channel);
+            ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    ForkJoinTask.invokeAll(chunks);
+                }
+            });
+        }
+
+        long parsed = 0;
+        long invalid = 0;
+        boolean inComment = false;
+        for (Chunk chunk : chunks) {
+            if (chunk.failure != null) throw chunk.failure;
+            // Everything up to the first line end of a chunk that starts inside a comment is comment
+            if (inComment) {
+                chunk.first = chunk.firstLineCount;
+                chunk.firstInvalid = chunk.firstLineInvalidCount;
+            }
+            inComment = chunk.hasLineEnd ? chunk.endsInComment : inComment || chunk.endsInComment;
+
+            parsed += chunk.count - chunk.first;
+            invalid += chunk.invalidCount - chunk.firstInvalid;
+            for (int i = chunk.firstInvalid; i < chunk.invalidCount; i++) {
+                onInvalid.accept("Invalid integer at offset " + chunk.invalidOffsets[i]);
+            }
+        }
+
+        // One growth for everything, then each chunk is a single block copy
+        long room = Math.max(0, maxElements - target.size());
+        long appended = Math.min(parsed, room);
+        target.ensureCapacity(target.size() + (int) appended);
+        long left = appended;
+        for (Chunk chunk : chunks) {
+            int len = (int) Math.min(chunk.count - chunk.first, left);
+            target.addAll(chunk.values, chunk.first, len);
+            chunk.values = null;
+            left -= len;
+        }
+        return new Result(appended, invalid, parsed > appended, chunks.length);
+    }
+
+    /**
+     * Cuts a file into chunks that start and end on separators.
+     *
+     * @param channel the open file
+     * @return the chunks in file order
+     * @throws IOException if the file cannot be read
+     */
+    private static Chunk[] split(FileChannel channel) throws IOException {
+        long fileSize = channel.size();
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        long chunkBytes = Math.min(MAX_CHUNK_BYTES,
+                Math.max(MIN_CHUNK_BYTES, fileSize / ((long) parallelism * CHUNKS_PER_THREAD)));
+
+        Chunk[] chunks = new Chunk[(int) Math.min(Integer.MAX_VALUE, fileSize / chunkBytes + 1)];
+        int count = 0;
+        long start = 0;
+        while (start < fileSize) {
+            long end = start + chunkBytes >= fileSize ? fileSize : boundaryAfter(channel, start + chunkBytes);
+            // A separator further than the largest chunk cannot be used, the token is cut there
+            end = Math.min(end, start + MAX_CHUNK_BYTES);
+            chunks[count++] = new Chunk(channel, start, end);
+            start = end;
+        }
+        return Arrays.copyOf(chunks, count);
+    }
+
+    /**
+     * Finds where a chunk should end at or after a position.
+     * A line end is preferred, as a '#' comment only ends there and the next chunk
+     * then never starts inside one; with no line end within LINE_SEARCH_BYTES, the
+     * first separator other than '#' is taken.
+     *
+     * @param channel the open file
+     * @param from the nominal end of the chunk
+     * @return the index after the chosen separator, or the file size if there is none
+     * @throws IOException if the file cannot be read
+     */
+    private static long boundaryAfter(FileChannel channel, long from) throws IOException {
+        ByteBuffer window = ByteBuffer.allocate(1 << 16);
+        long firstSeparator = -1;
+        long position = from;
+        while (position < channel.size()) {
+            window.clear();
+            int read = channel.read(window, position);
+            if (read <= 0) break;
+
+            for (int i = 0; i < read; i++) {
+                byte c = window.get(i);
+                if (c == '\n') return position + i + 1;
+                if (firstSeparator < 0 && c != '#' && isSeparator(c)) firstSeparator = position + i + 1;
+            }
+            position += read;
+            if (firstSeparator >= 0 && position - from >= LINE_SEARCH_BYTES) return firstSeparator;
+        }
+        return firstSeparator >= 0 ? firstSeparator : channel.size();
+    }
+
+    /**
+     * Checks whether a byte separates tokens, as {@link IntScanner} does.
+     *
+     * @param c the byte to check
+     * @return true for whitespace, commas and the start of a comment
+     */
+    private static boolean isSeparator(byte c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == ',' || c == '#';
+    }
+
+    /** A range of the file parsed on its own into an array of values */
+    @SuppressWarnings("serial") // Chunks are never serialized
+    private static final class Chunk extends RecursiveAction {
+        /** The open file, mapping is thread-safe */
+        private final FileChannel channel;
+
+        /** File offset of the first byte of the chunk */
+        private final long start;
+
+        /** File offset after the last byte of the chunk */
+        private final long end;
+
+        /** Parsed values, valid up to count, dropped once appended */
+        int[] values;
+
+        /** Number of parsed values */
+        int count;
+
+        /** File offsets of the invalid tokens, valid up to invalidCount */
+        long[] invalidOffsets = new long[4];
+
+        /** Number of invalid tokens */
+        int invalidCount;
+
+        /** Whether the chunk holds a line end, after which parsing no longer depends on where it started */
+        boolean hasLineEnd;
+
+        /** Numbers of values and invalid tokens before the first line end, all of them if there is none */
+        int firstLineCount, firstLineInvalidCount;
+
+        /** Whether the last comment of the chunk runs to its end, if it started outside of a comment */
+        boolean endsInComment;
+
+        /** Index of the first value and invalid token to keep, past the first line if the chunk starts in a comment */
+        int first, firstInvalid;
+
+        /** Error raised while mapping the chunk, rethrown by the importing thread */
+        IOException failure;
+
+        Chunk(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                parse(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start));
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+
+        /**
+         * Parses every token of the mapped chunk.
+         * @param bytes the mapped chunk
+         */
+        private void parse(MappedByteBuffer bytes) {
+            int limit = bytes.limit();
+            // Short tokens like "7," are the densest input, longer ones leave room to spare
+            values = new int[Math.max(16, limit >>> 3)];
+
+            int i = 0;
+            while (i < limit) {
+                byte c = bytes.get(i);
+                if (c == '#') {
+                    while (i < limit && bytes.get(i) != '\n') i++;
+                    if (i == limit) endsInComment = true;
+                    continue;
+                }
+                if (isSeparator(c)) {
+                    if (c == '\n' && !hasLineEnd) {
+                        hasLineEnd = true;
+                        firstLineCount = count;
+                        firstLineInvalidCount = invalidCount;
+                    }
+                    i++;
+                    continue;
+                }
+
+                int tokenStart = i;
+                boolean negative = c == '-';
+                if (c == '-' || c == '+') i++;
+
+                // Stops accumulating once past the int range, so the long never overflows
+                long bound = negative ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE;
+                long value = 0;
+                int digits = 0;
+                while (i < limit && (c = bytes.get(i)) >= '0' && c <= '9') {
+                    if (value <= bound) value = value * 10 + (c - '0');
+                    digits++;
+                    i++;
+                }
+
+                if (digits == 0 || value > bound || (i < limit && !isSeparator(bytes.get(i)))) {
+                    while (i < limit && !isSeparator(bytes.get(i))) i++;
+                    if (invalidCount == invalidOffsets.length)
+                        invalidOffsets = Arrays.copyOf(invalidOffsets, invalidCount * 2);
+                    invalidOffsets[invalidCount++] = start + tokenStart;
+                    continue;
+                }
+                if (count == values.length)
+                    values = Arrays.copyOf(values, GrowthPolicy.ONE_AND_A_HALF.newCapacity(count, count + 1));
+                values[count++] = (int) (negative ? -value : value);
+            }
+            if (!hasLineEnd) {
+                firstLineCount = count;
+                firstLineInvalidCount = invalidCount;
+            }
+        }
+    }
+
+    /** Outcome of one import */
+    static final class Result {
+        /** Number of values appended to the list */
+        private final long appended;
+
+        /** Number of invalid tokens skipped */
+        private final long invalid;
+
+        /** Whether values were left out because the list was full */
+        private final boolean truncated;
+
+        /** Number of chunks the file was parsed in */
+        private final int chunks;
+
+        private Result(long appended, long invalid, boolean truncated, int chunks) {
+            this.appended = appended;
+            this.invalid = invalid;
+            this.truncated = truncated;
+            this.chunks = chunks;
+        }
+
+        /** @return the number of values appended to the list */
+        public long appended() {
+            return appended;
+        }
+
+        /** @return the number of invalid tokens skipped */
+        public long invalid() {
+            return invalid;
+        }
+
+        /** @return whether values were left out because the list was full */
+        public boolean truncated() {
+            return truncated;
+        }
+
+        /** @return the number of chunks the file was parsed in */
+        public int chunks() {
+            return chunks;
+        }
+    }
+}
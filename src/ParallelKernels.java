@@ -0,0 +1,328 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fork-join versions of the {@link DynamicArray} scans and transforms.
+ * Work is split into chunks whose boundaries fall on cache-line multiples,
+ * so no two threads write to the same cache line, and runs on the common pool.
+ * Each chunk is processed by the {@link IntKernels}, vectorized when available.
+ */
+final class ParallelKernels {
+    /** Number of ints that fit in a 64-byte cache line */
+    static final int CACHE_LINE_INTS = 16;
+
+    /** Smallest chunk worth handing to another thread */
+    private static final int MIN_CHUNK = 1 << 13;
+
+    /** Chunks created per worker thread, extra chunks balance uneven workers */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private ParallelKernels() {}
+
+    /**
+     * Returns whether the common pool has more than one worker to split work across.
+     * @return true if parallel execution can help
+     */
+    static boolean isAvailable() {
+        return ForkJoinPool.getCommonPoolParallelism() > 1;
+    }
+
+    /**
+     * Computes the statistics of a range of elements in parallel.
+     *
+     * @param data the array holding the elements
+     * @param size the number of elements to scan
+     * @param into the statistics to reset and fill with the result
+     */
+    static void stats(int[] data, int size, IntStats into) {
+        into.reset();
+        into.merge(ForkJoinPool.commonPool().invoke(new StatsTask(data, 0, size, chunkSize(size))));
+    }
+
+    /**
+     * Returns the lowest index holding a value, searching chunks in parallel.
+     *
+     * @param data the array holding the elements
+     * @param size the number of elements to search
+     * @param value the value to search for
+     * @return the index of the value, or -1 if not found
+     */
+    static int indexOf(int[] data, int size, int value) {
+        return ForkJoinPool.commonPool().invoke(new IndexOfTask(data, 0, size, chunkSize(size), value));
+    }
+
+    /**
+     * Returns the highest index holding a value, searching chunks in parallel.
+     *
+     * @param data the array holding the elements
+     * @param size the number of elements to search
+     * @param value the value to search for
+     * @return the index of the value, or -1 if not found
+     */
+    static int lastIndexOf(int[] data, int size, int value) {
+        return ForkJoinPool.commonPool().invoke(new LastIndexOfTask(data, 0, size, chunkSize(size), value));
+    }
+
+    /**
+     * Returns every index holding a value, searching chunks in parallel.
+     *
+     * @param data the array holding the elements
+     * @param size the number of elements to search
+     * @param value the value to search for
+     * @return the ascending indices of the value
+     */
+    static int[] indicesOf(int[] data, int size, int value) {
+        return ForkJoinPool.commonPool().invoke(new IndicesTask(data, 0, size, chunkSize(size), value));
+    }
+
+    /**
+     * Replaces every occurrence of a value, rewriting chunks in parallel.
+     *
+     * @param data the array holding the elements
+     * @param size the number of elements to rewrite
+     * @param oldValue the value to replace
+     * @param newValue the value to put in its place
+     * @return the number of replaced elements
+     */
+    static int replaceAll(int[] data, int size, int oldValue, int newValue) {
+        return ForkJoinPool.commonPool().invoke(new ReplaceTask(data, 0, size, chunkSize(size), oldValue, newValue));
+    }
+
+    /**
+     * Replaces every occurrence of a value in a range, rewriting chunks in parallel
+     * and setting the bit of each replaced position.
+     * Chunks start on multiples of 64, so no two threads write to the same word of the marks.
+     *
+     * @param data the array holding the elements
+     * @param from the index of the first element
+     * @param to the index after the last element
+     * @param oldValue the value to replace
+     * @param newValue the value to put in its place
+     * @param marks the bitmap to set the replaced positions in, see {@link IntKernels}
+     * @param base the position of the first bit, a multiple of 64 at most from
+     * @return the number of replaced elements
+     */
+    static int replaceAll(int[] data, int from, int to, int oldValue, int newValue, long[] marks, int base) {
+        return ForkJoinPool.commonPool().invoke(
+                new MarkedReplaceTask(data, from, to, chunkSize(to - from), oldValue, newValue, marks, base));
+    }
+
+    /**
+     * Returns the chunk size that spreads a range over the common pool.
+     *
+     * @param size the number of elements to split
+     * @return chunk size, a multiple of the cache line
+     */
+    private static int chunkSize(int size) {
+        int chunks = ForkJoinPool.getCommonPoolParallelism() * CHUNKS_PER_THREAD;
+        int chunk = Math.max(MIN_CHUNK, size / chunks);
+        return (chunk + CACHE_LINE_INTS - 1) & -CACHE_LINE_INTS;
+    }
+
+    /**
+     * Returns the split point of a range, rounded down to a cache-line multiple.
+     *
+     * @param from the start of the range
+     * @param to the end of the range
+     * @return the index where the right half starts
+     */
+    private static int split(int from, int to) {
+        int mid = ((from + to) >>> 1) & -CACHE_LINE_INTS;
+        return mid > from ? mid : (from + to) >>> 1;
+    }
+
+    /** Gathers the statistics of a range */
+    @SuppressWarnings("serial") // Tasks are never serialized
+    private static final class StatsTask extends RecursiveTask<IntStats> {
+        private final int[] data;
+        private final int from, to, chunk;
+
+        StatsTask(int[] data, int from, int to, int chunk) {
+            this.data = data;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+        }
+
+        @Override
+        protected IntStats compute() {
+            if (to - from <= chunk) {
+                IntStats stats = new IntStats();
+                IntKernels.INSTANCE.accumulate(data, from, to, stats);
+                return stats;
+            }
+
+            int mid = split(from, to);
+            StatsTask left = new StatsTask(data, from, mid, chunk);
+            left.fork();
+            IntStats right = new StatsTask(data, mid, to, chunk).compute();
+            IntStats result = left.join();
+            result.merge(right);
+            return result;
+        }
+    }
+
+    /** Finds the lowest index of a value in a range */
+    @SuppressWarnings("serial")
+    private static final class IndexOfTask extends RecursiveTask<Integer> {
+        private final int[] data;
+        private final int from, to, chunk, value;
+
+        IndexOfTask(int[] data, int from, int to, int chunk, int value) {
+            this.data = data;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+            this.value = value;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (to - from <= chunk) {
+                return IntKernels.INSTANCE.indexOf(data, from, to, value);
+            }
+
+            int mid = split(from, to);
+            IndexOfTask right = new IndexOfTask(data, mid, to, chunk, value);
+            right.fork();
+            int left = new IndexOfTask(data, from, mid, chunk, value).compute();
+
+            // A match on the left wins, so the right half is no longer needed
+            if (left >= 0) {
+                right.cancel(false);
+                return left;
+            }
+            return right.join();
+        }
+    }
+
+    /** Finds the highest index of a value in a range */
+    @SuppressWarnings("serial")
+    private static final class LastIndexOfTask extends RecursiveTask<Integer> {
+        private final int[] data;
+        private final int from, to, chunk, value;
+
+        LastIndexOfTask(int[] data, int from, int to, int chunk, int value) {
+            this.data = data;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+            this.value = value;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (to - from <= chunk) {
+                return IntKernels.INSTANCE.lastIndexOf(data, from, to, value);
+            }
+
+            int mid = split(from, to);
+            LastIndexOfTask left = new LastIndexOfTask(data, from, mid, chunk, value);
+            left.fork();
+            int right = new LastIndexOfTask(data, mid, to, chunk, value).compute();
+
+            // A match on the right wins, so the left half is no longer needed
+            if (right >= 0) {
+                left.cancel(false);
+                return right;
+            }
+            return left.join();
+        }
+    }
+
+    /** Collects every index of a value in a range */
+    @SuppressWarnings("serial")
+    private static final class IndicesTask extends RecursiveTask<int[]> {
+        private final int[] data;
+        private final int from, to, chunk, value;
+
+        IndicesTask(int[] data, int from, int to, int chunk, int value) {
+            this.data = data;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+            this.value = value;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from <= chunk) {
+                return IntKernels.INSTANCE.indicesOf(data, from, to, value);
+            }
+
+            int mid = split(from, to);
+            IndicesTask left = new IndicesTask(data, from, mid, chunk, value);
+            left.fork();
+            int[] right = new IndicesTask(data, mid, to, chunk, value).compute();
+            int[] leftIndices = left.join();
+
+            int[] indices = Arrays.copyOf(leftIndices, leftIndices.length + right.length);
+            System.arraycopy(right, 0, indices, leftIndices.length, right.length);
+            return indices;
+        }
+    }
+
+    /** Replaces a value in a range */
+    @SuppressWarnings("serial")
+    private static final class ReplaceTask extends RecursiveTask<Integer> {
+        private final int[] data;
+        private final int from, to, chunk, oldValue, newValue;
+
+        ReplaceTask(int[] data, int from, int to, int chunk, int oldValue, int newValue) {
+            this.data = data;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+            this.oldValue = oldValue;
+            this.newValue = newValue;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (to - from <= chunk) {
+                return IntKernels.INSTANCE.replaceAll(data, from, to, oldValue, newValue);
+            }
+
+            int mid = split(from, to);
+            ReplaceTask left = new ReplaceTask(data, from, mid, chunk, oldValue, newValue);
+            left.fork();
+            int right = new ReplaceTask(data, mid, to, chunk, oldValue, newValue).compute();
+            return left.join() + right;
+        }
+    }
+
+    /** Replaces a value in a range and marks the replaced positions */
+    @SuppressWarnings("serial")
+    private static final class MarkedReplaceTask extends RecursiveTask<Integer> {
+        private final int[] data;
+        private final int from, to, chunk, oldValue, newValue;
+        private final long[] marks;
+        private final int base;
+
+        MarkedReplaceTask(int[] data, int from, int to, int chunk, int oldValue, int newValue, long[] marks, int base) {
+            this.data = data;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+            this.oldValue = oldValue;
+            this.newValue = newValue;
+            this.marks = marks;
+            this.base = base;
+        }
+
+        @Override
+        protected Integer compute() {
+            // The split is rounded down to a whole word of the marks
+            int mid = split(from, to) & -64;
+            if (to - from <= chunk || mid <= from) {
+                return IntKernels.INSTANCE.replaceAll(data, from, to, oldValue, newValue, marks, base);
+            }
+
+            MarkedReplaceTask left = new MarkedReplaceTask(data, from, mid, chunk, oldValue, newValue, marks, base);
+            left.fork();
+            int right = new MarkedReplaceTask(data, mid, to, chunk, oldValue, newValue, marks, base).compute();
+            return left.join() + right;
+        }
+    }
+}
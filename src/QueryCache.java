@@ -0,0 +1,268 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Class memoizing the results of read-only queries on a list between its changes.
+ * Each result remembers the modification count and size it was computed at:
+ * on an unchanged list it is returned as is, on a list that was only appended to it
+ * is extended with the new elements, and after any other change it is recomputed.
+ * The least recently used results are dropped once the memory budget is exceeded.
+ * Lists that do not track their modifications are always queried directly.
+ */
+class QueryCache {
+    /** Query kinds, stored in the high half of a result key */
+    private static final int INDICES = 0, STATS = 1, RENDERED = 2;
+
+    /** Estimated bytes of a result besides its payload, for the map entry and the key */
+    private static final long ENTRY_OVERHEAD_BYTES = 96;
+
+    /** Most characters a rendered element takes, a comma and Integer.MIN_VALUE */
+    private static final int MAX_RENDERED_CHARS = 12;
+
+    /** List the queries run on */
+    private final IntList list;
+
+    /** Maximum number of bytes retained by all results */
+    private final long limitBytes;
+
+    /** Results by key, the least recently used first */
+    private final LinkedHashMap<Long, Result> results = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** Number of bytes retained by all results */
+    private long bytes;
+
+    /** Number of queries answered by a stored result, extended one, or new computation */
+    private long hits, extensions, misses;
+
+    /** A stored query result with the list state it is valid for */
+    private abstract static class Result {
+        /** Modification count of the list the result is valid for */
+        long modCount;
+
+        /** Size of the list the result is valid for */
+        int size;
+
+        /**
+         * Returns the memory retained by the result.
+         * @return the retained bytes
+         */
+        abstract long bytes();
+
+        /**
+         * Adds the contribution of appended elements to the result.
+         *
+         * @param list the list holding the elements
+         * @param from the index of the first appended element
+         * @param to the index after the last appended element
+         */
+        abstract void extend(IntList list, int from, int to);
+    }
+
+    /** Ascending indices of one value */
+    private static final class IndicesResult extends Result {
+        /** The value the indices are of */
+        final int value;
+
+        /** The indices, with no unused slots */
+        int[] indices;
+
+        IndicesResult(int value, int[] indices) {
+            this.value = value;
+            this.indices = indices;
+        }
+
+        @Override
+        long bytes() {
+            return (long) indices.length * Integer.BYTES;
+        }
+
+        @Override
+        void extend(IntList list, int from, int to) {
+            int found = 0;
+            for (int i = from; i < to; i++) {
+                if (list.getValue(i) == value) found++;
+            }
+            if (found == 0) return;
+
+            int at = indices.length;
+            indices = Arrays.copyOf(indices, at + found);
+            for (int i = from; i < to; i++) {
+                if (list.getValue(i) == value) indices[at++] = i;
+            }
+        }
+    }
+
+    /** Summary statistics of the elements */
+    private static final class StatsResult extends Result {
+        /** Statistics owned by the result, lists may reuse the instance they return */
+        final IntStats stats = new IntStats();
+
+        @Override
+        long bytes() {
+            return 64;
+        }
+
+        @Override
+        void extend(IntList list, int from, int to) {
+            for (int i = from; i < to; i++) {
+                stats.accept(list.getValue(i));
+            }
+        }
+    }
+
+    /** Elements written out separated by commas */
+    private static final class RenderedResult extends Result {
+        /** The rendered elements, Latin-1 so one byte per character */
+        final StringBuilder text = new StringBuilder();
+
+        @Override
+        long bytes() {
+            return text.capacity();
+        }
+
+        @Override
+        void extend(IntList list, int from, int to) {
+            for (int i = from; i < to; i++) {
+                if (i > 0) text.append(',');
+                text.append(list.getValue(i));
+            }
+        }
+    }
+
+    /**
+     * Constructs a new, empty QueryCache.
+     *
+     * @param list the list the queries run on
+     * @param limitBytes the maximum number of bytes retained by all results
+     * @throws IllegalArgumentException if limitBytes is not positive
+     */
+    public QueryCache(IntList list, long limitBytes) {
+        if (limitBytes <= 0)
+            throw new IllegalArgumentException("Invalid cache limit: " + limitBytes);
+
+        this.list = list;
+        this.limitBytes = limitBytes;
+    }
+
+    /**
+     * Returns the indices of all occurrences of a value.
+     * The array may be shared with later calls and must not be modified.
+     *
+     * @param value the value to search for
+     * @return the ascending indices of the value, empty if not found
+     */
+    public int[] indicesOf(int value) {
+        if (list.modCount() < 0) return list.indicesOf(value);
+
+        return ((IndicesResult) lookup(key(INDICES, value),
+                () -> new IndicesResult(value, list.indicesOf(value)))).indices;
+    }
+
+    /**
+     * Returns the summary statistics of the elements.
+     * The statistics may be shared with later calls and must not be modified.
+     *
+     * @return the statistics of the current elements
+     */
+    public IntStats stats() {
+        if (list.modCount() < 0) return list.stats();
+
+        return ((StatsResult) lookup(key(STATS, 0), () -> {
+            StatsResult result = new StatsResult();
+            result.stats.merge(list.stats());
+            return result;
+        })).stats;
+    }
+
+    /**
+     * Returns the elements written out separated by commas.
+     * Lists whose text could not fit in the budget are not rendered.
+     *
+     * @return the rendered elements, or null if the caller should write them out itself
+     */
+    public CharSequence render() {
+        if (list.modCount() < 0 || (long) list.size() * MAX_RENDERED_CHARS > limitBytes) return null;
+
+        return ((RenderedResult) lookup(key(RENDERED, 0), () -> {
+            RenderedResult result = new RenderedResult();
+            result.extend(list, 0, list.size());
+            return result;
+        })).text;
+    }
+
+    /**
+     * Describes how often queries were answered without a full computation.
+     * @return a single-line cache report
+     */
+    public String report() {
+        return String.format("Query cache: %d hits, %d extended, %d computed, %d results, %d bytes",
+                hits, extensions, misses, results.size(), bytes);
+    }
+
+    /**
+     * Returns the stored result of a query made valid for the current list, computing it if needed.
+     *
+     * @param key the key of the query
+     * @param compute computes the result from scratch
+     * @return the valid result
+     */
+    private Result lookup(long key, Supplier<Result> compute) {
+        long modCount = list.modCount();
+        int size = list.size();
+
+        Result result = results.get(key);
+        if (result != null && result.modCount == modCount) {
+            hits++;
+            return result;
+        }
+        if (result != null && list.isAppendOnlySince(result.modCount)) {
+            bytes -= retained(result);
+            result.extend(list, result.size, size);
+            extensions++;
+        } else {
+            if (result != null) bytes -= retained(result);
+            result = compute.get();
+            results.put(key, result);
+            misses++;
+        }
+        result.modCount = modCount;
+        result.size = size;
+        bytes += retained(result);
+        trim();
+        return result;
+    }
+
+    /**
+     * Drops the least recently used results until the budget is met.
+     */
+    private void trim() {
+        Iterator<Result> iterator = results.values().iterator();
+        while (bytes > limitBytes && iterator.hasNext()) {
+            bytes -= retained(iterator.next());
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Returns the memory retained by a result and its map entry.
+     *
+     * @param result the stored result
+     * @return the retained bytes
+     */
+    private static long retained(Result result) {
+        return ENTRY_OVERHEAD_BYTES + result.bytes();
+    }
+
+    /**
+     * Combines a query kind and its argument into a result key.
+     *
+     * @param kind the query kind
+     * @param argument the value the query is about, 0 if none
+     * @return the key
+     */
+    private static long key(int kind, int argument) {
+        return (long) kind << 32 | (argument & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,298 @@
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Class representing a dynamic array of integers stored in fixed-size chunks.
+ * Chunks are addressed by shift and mask, so appending only ever allocates one
+ * new chunk and existing elements are never copied to grow the array.
+ * Chunks emptied by clear or removals go to a bounded pool and are reused by
+ * later appends, so refilling a cleared array allocates nothing.
+ */
+class SegmentedIntArray implements IntList {
+    /** Number of elements per chunk as a power of two, 2^14 ints is 64 KiB */
+    private static final int CHUNK_SHIFT = 14;
+
+    /** Number of elements per chunk */
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+    /** Bit mask extracting the offset within a chunk from an index */
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    /** Directory of allocated chunks, only the first chunkCount entries are used */
+    private int[][] chunks = new int[8][];
+
+    /** Number of allocated chunks */
+    private int chunkCount;
+
+    /** Number of elements currently stored in the array */
+    private int size;
+
+    /** Emptied chunks kept for reuse, only the first pooledCount entries are used */
+    private int[][] pool = new int[0][];
+
+    /** Number of chunks in the pool */
+    private int pooledCount;
+
+    /** Maximum number of chunks the pool keeps, the rest are left to the garbage collector */
+    private final int maxPooledChunks;
+
+    /** Number of chunks taken from the pool instead of allocated */
+    private long reusedChunks;
+
+    /**
+     * Constructs a new, empty SegmentedIntArray pooling up to 1024 chunks, 64 MiB.
+     */
+    public SegmentedIntArray() {
+        this(1024);
+    }
+
+    /**
+     * Constructs a new, empty SegmentedIntArray.
+     *
+     * @param maxPooledChunks the maximum number of emptied chunks kept for reuse, 0 disables the pool
+     * @throws IllegalArgumentException if maxPooledChunks is negative
+     */
+    public SegmentedIntArray(int maxPooledChunks) {
+        if (maxPooledChunks < 0)
+            throw new IllegalArgumentException("Invalid pool size: " + maxPooledChunks);
+
+        this.maxPooledChunks = maxPooledChunks;
+    }
+
+    /**
+     * Adds a new value to the end of the array.
+     * Allocates one new chunk when the last chunk is full.
+     *
+     * @param value the integer value to add
+     * @throws IllegalStateException if the array already holds the maximum number of elements
+     */
+    @Override
+    public void add(int value) {
+        if (size == GrowthPolicy.MAX_ARRAY_LENGTH)
+            throw new IllegalStateException("Capacity exceeded: " + size + " + 1");
+
+        if (size == chunkCount << CHUNK_SHIFT) {
+            addChunk();
+        }
+        chunks[size >>> CHUNK_SHIFT][size & CHUNK_MASK] = value;
+        size++;
+    }
+
+    /**
+     * Appends a range of values, copying one chunk-sized block at a time.
+     *
+     * @param src the array holding the values to add
+     * @param off the index of the first value in src
+     * @param len the number of values to add
+     * @throws IndexOutOfBoundsException if the range is outside of src
+     * @throws IllegalStateException if the array cannot hold len more elements
+     */
+    @Override
+    public void addAll(int[] src, int off, int len) {
+        if (off < 0 || len < 0 || off > src.length - len)
+            throw new IndexOutOfBoundsException("Invalid range: " + off + ".." + (off + len));
+        // Past this the chunk arithmetic and the size would overflow
+        if (size > GrowthPolicy.MAX_ARRAY_LENGTH - len)
+            throw new IllegalStateException("Capacity exceeded: " + size + " + " + len);
+
+        while (len > 0) {
+            if (size == chunkCount << CHUNK_SHIFT) {
+                addChunk();
+            }
+            int offset = size & CHUNK_MASK;
+            int block = Math.min(len, CHUNK_SIZE - offset);
+            System.arraycopy(src, off, chunks[size >>> CHUNK_SHIFT], offset, block);
+            size += block;
+            off += block;
+            len -= block;
+        }
+    }
+
+    /**
+     * Returns the element at the specified index.
+     *
+     * @param index the index of the element to retrieve
+     * @return the value stored at the specified index
+     * @throws IndexOutOfBoundsException if index is out of bounds
+     */
+    @Override
+    public int getValue(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Invalid index: " + index);
+
+        return chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+    }
+
+    /**
+     * Updates the value at a specific index in the array.
+     *
+     * @param index the index of the element to update
+     * @param newValue the new value to set
+     * @throws IndexOutOfBoundsException if index is out of bounds
+     */
+    @Override
+    public void set(int index, int newValue) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Invalid index: " + index);
+
+        chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK] = newValue;
+    }
+
+    /**
+     * Removes the element at the specified index from the array.
+     * Elements to the right are shifted left one chunk at a time with block moves,
+     * and the last chunk goes to the pool once it is empty.
+     *
+     * @param index the index of the element to remove
+     * @throws IndexOutOfBoundsException if index is out of bounds
+     */
+    @Override
+    public void remove(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Invalid index: " + index);
+
+        int lastChunk = (size - 1) >>> CHUNK_SHIFT;
+        int chunk = index >>> CHUNK_SHIFT;
+        int offset = index & CHUNK_MASK;
+
+        while (chunk <= lastChunk) {
+            int[] current = chunks[chunk];
+            int end = chunk == lastChunk ? ((size - 1) & CHUNK_MASK) + 1 : CHUNK_SIZE;
+
+            // Shifts the rest of this chunk left, then pulls in the head of the next chunk
+            System.arraycopy(current, offset + 1, current, offset, end - offset - 1);
+            if (chunk < lastChunk) {
+                current[CHUNK_SIZE - 1] = chunks[chunk + 1][0];
+            }
+            offset = 0;
+            chunk++;
+        }
+
+        size--;
+        chunks[size >>> CHUNK_SHIFT][size & CHUNK_MASK] = 0;
+        if (size == (chunkCount - 1) << CHUNK_SHIFT) {
+            releaseChunk();
+        }
+    }
+
+    /**
+     * Returns the number of elements currently stored in the array.
+     * @return the current size of the array
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the index of the first occurrence of the specified value.
+     *
+     * @param value the value to search for
+     * @return the index of the value, or -1 if not found
+     */
+    @Override
+    public int indexOf(int value) {
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            int[] current = chunks[chunk];
+            int base = chunk << CHUNK_SHIFT;
+            int end = Math.min(CHUNK_SIZE, size - base);
+
+            for (int i = 0; i < end; i++) {
+                if (current[i] == value) return base + i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Performs the given action for each element in index order, one chunk at a time.
+     * The action must not modify this array.
+     *
+     * @param action the action to perform on each value
+     */
+    @Override
+    public void forEach(IntConsumer action) {
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            int[] current = chunks[chunk];
+            int end = Math.min(CHUNK_SIZE, size - (chunk << CHUNK_SHIFT));
+
+            for (int i = 0; i < end; i++) {
+                action.accept(current[i]);
+            }
+        }
+    }
+
+    /**
+     * Clears all elements from the array, moving its chunks to the pool.
+     */
+    @Override
+    public void clear() {
+        while (chunkCount > 0) {
+            releaseChunk();
+        }
+        size = 0;
+    }
+
+    /**
+     * Drops the pooled chunks and shrinks the directory to the chunks in use.
+     */
+    @Override
+    public void trimToSize() {
+        pool = new int[0][];
+        pooledCount = 0;
+        chunks = Arrays.copyOf(chunks, Math.max(chunkCount, 1));
+    }
+
+    /**
+     * Returns the number of bytes held by unused slots of the last chunk and by pooled chunks.
+     * @return the bytes allocated beyond the stored elements
+     */
+    @Override
+    public long wastedBytes() {
+        return ((long) (chunkCount + pooledCount) * CHUNK_SIZE - size) * Integer.BYTES;
+    }
+
+    /**
+     * Describes how much storage is allocated compared with the stored elements.
+     * @return a single-line memory usage report
+     */
+    @Override
+    public String memoryReport() {
+        long allocatedBytes = (long) (chunkCount + pooledCount) * CHUNK_SIZE * Integer.BYTES;
+        return String.format("Size: %d, Live: %d bytes, Allocated: %d bytes in %d chunks, %d of them pooled, "
+                        + "Wasted: %d bytes, Chunks reused: %d",
+                size, (long) size * Integer.BYTES, allocatedBytes, chunkCount + pooledCount, pooledCount,
+                wastedBytes(), reusedChunks);
+    }
+
+    /**
+     * Adds one more chunk, from the pool if it has one, growing the directory when it is full.
+     * Chunks are only read up to the size, so a pooled chunk is not cleared.
+     */
+    private void addChunk() {
+        if (chunkCount == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunks.length * 2);
+        }
+        if (pooledCount > 0) {
+            chunks[chunkCount++] = pool[--pooledCount];
+            pool[pooledCount] = null;
+            reusedChunks++;
+        } else {
+            chunks[chunkCount++] = new int[CHUNK_SIZE];
+        }
+    }
+
+    /**
+     * Removes the last chunk from the directory, keeping it in the pool if there is room.
+     */
+    private void releaseChunk() {
+        int[] chunk = chunks[--chunkCount];
+        chunks[chunkCount] = null;
+        if (pooledCount == maxPooledChunks) return;
+
+        if (pooledCount == pool.length) {
+            pool = Arrays.copyOf(pool, Math.min(Math.max(pool.length * 2, 8), maxPooledChunks));
+        }
+        pool[pooledCount++] = chunk;
+    }
+}
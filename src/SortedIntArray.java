@@ -0,0 +1,341 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Class representing a list of integers that is always kept in ascending order.
+ * Values are inserted at their sorted position, so lookups are binary searches
+ * and equal values are always adjacent. Appending is O(n) because of the shift.
+ */
+class SortedIntArray implements IntList {
+    /** Internal array holding the elements in ascending order */
+    private int[] elements = new int[16];
+
+    /** Number of elements currently stored in the array */
+    private int size;
+
+    /**
+     * Inserts a value at its sorted position, after any equal values.
+     *
+     * @param value the integer value to add
+     */
+    @Override
+    public void add(int value) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, GrowthPolicy.DOUBLING.newCapacity(elements.length, size + 1));
+        }
+        int at = upperBound(value);
+        System.arraycopy(elements, at, elements, at + 1, size - at);
+        elements[at] = value;
+        size++;
+    }
+
+    /**
+     * Inserts a range of values at their sorted positions.
+     * The range is sorted on its own, then merged from the back in a single pass.
+     *
+     * @param src the array holding the values to add
+     * @param off the index of the first value in src
+     * @param len the number of values to add
+     * @throws IndexOutOfBoundsException if the range is outside of src
+     */
+    @Override
+    public void addAll(int[] src, int off, int len) {
+        if (off < 0 || len < 0 || off > src.length - len)
+            throw new IndexOutOfBoundsException("Invalid range: " + off + ".." + (off + len));
+
+        int[] added = Arrays.copyOfRange(src, off, off + len);
+        IntSorting.sort(added, 0, len);
+        ensureCapacity(size + len);
+
+        // Largest values are placed first, so no unmerged element is overwritten
+        int i = size - 1;
+        int j = len - 1;
+        int write = size + len - 1;
+        while (j >= 0) {
+            elements[write--] = i >= 0 && elements[i] > added[j] ? elements[i--] : added[j--];
+        }
+        size += len;
+    }
+
+    /**
+     * Ensures the array can hold at least the given number of elements without growing.
+     *
+     * @param minCapacity the required capacity
+     */
+    @Override
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity > elements.length) {
+            elements = Arrays.copyOf(elements, GrowthPolicy.DOUBLING.newCapacity(elements.length, minCapacity));
+        }
+    }
+
+    /**
+     * Returns the element at the specified index.
+     *
+     * @param index the index of the element to retrieve
+     * @return the value stored at the specified index
+     * @throws IndexOutOfBoundsException if index is out of bounds
+     */
+    @Override
+    public int getValue(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Invalid index: " + index);
+
+        return elements[index];
+    }
+
+    /**
+     * Replaces the value at a specific index.
+     * The new value is moved to its sorted position, so it may end up at another index.
+     *
+     * @param index the index of the element to replace
+     * @param newValue the new value to insert
+     * @throws IndexOutOfBoundsException if index is out of bounds
+     */
+    @Override
+    public void set(int index, int newValue) {
+        remove(index);
+        add(newValue);
+    }
+
+    /**
+     * Removes the element at the specified index from the array.
+     *
+     * @param index the index of the element to remove
+     * @throws IndexOutOfBoundsException if index is out of bounds
+     */
+    @Override
+    public void remove(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Invalid index: " + index);
+
+        System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+        size--;
+    }
+
+    /**
+     * Returns the number of elements currently stored in the array.
+     * @return the current size of the array
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the index of the first occurrence of the specified value by binary search.
+     *
+     * @param value the value to search for
+     * @return the index of the value, or -1 if not found
+     */
+    @Override
+    public int indexOf(int value) {
+        int at = lowerBound(value);
+        return at < size && elements[at] == value ? at : -1;
+    }
+
+    /**
+     * Returns the index of the first occurrence of a value, the array is always sorted.
+     *
+     * @param value the value to search for
+     * @return the index of the value, or (-(insertion point) - 1) if not found
+     */
+    @Override
+    public int binarySearch(int value) {
+        return IntSorting.binarySearch(elements, 0, size, value);
+    }
+
+    /**
+     * Does nothing, the elements are always in ascending order.
+     */
+    @Override
+    public void sort() {
+    }
+
+    /**
+     * Returns the k-th largest value, read from the end of the array.
+     * Without distinct this is a single lookup; with it, runs of equal values are skipped.
+     *
+     * @param k the rank from the top, 1 for the largest
+     * @param distinct whether equal values count once
+     * @return the k-th largest value
+     * @throws IllegalArgumentException if k is less than 1
+     * @throws NoSuchElementException if there are fewer than k values, or distinct values
+     */
+    @Override
+    public int kthLargest(int k, boolean distinct) {
+        if (k < 1)
+            throw new IllegalArgumentException("Invalid k: " + k);
+        if (!distinct) {
+            if (k > size) throw new NoSuchElementException("Only " + size + " values");
+            return elements[size - k];
+        }
+
+        // Jumps over each run of equal values with a binary search
+        int end = size;
+        int found = 0;
+        while (end > 0) {
+            int value = elements[end - 1];
+            if (++found == k) return value;
+            end = lowerBound(value);
+        }
+        throw new NoSuchElementException("Only " + found + " distinct values");
+    }
+
+    /**
+     * Returns the k largest values, copied from the end of the array.
+     *
+     * @param k the number of values to return
+     * @return at most k values, largest first
+     * @throws IllegalArgumentException if k is negative
+     */
+    @Override
+    public int[] topK(int k) {
+        if (k < 0)
+            throw new IllegalArgumentException("Invalid k: " + k);
+
+        int[] values = new int[Math.min(k, size)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = elements[size - 1 - i];
+        }
+        return values;
+    }
+
+    /**
+     * Returns the indices of all occurrences of the specified value.
+     * Equal values are adjacent, so the indices form one contiguous run.
+     *
+     * @param value the value to search for
+     * @return the ascending indices of the value, empty if not found
+     */
+    @Override
+    public int[] indicesOf(int value) {
+        int from = lowerBound(value);
+        int to = upperBound(value);
+        int[] indices = new int[to - from];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = from + i;
+        }
+        return indices;
+    }
+
+    /**
+     * Replaces every occurrence of a value with a new value.
+     * The run of old values is removed and an equally long run is inserted at the
+     * sorted position of the new value, with one block move.
+     *
+     * @param oldValue the value to replace
+     * @param newValue the value to put in its place
+     * @return the number of replaced elements
+     */
+    @Override
+    public int replaceAll(int oldValue, int newValue) {
+        int from = lowerBound(oldValue);
+        int count = upperBound(oldValue) - from;
+        if (count == 0 || oldValue == newValue) return count;
+
+        // Shifts the elements between the two runs over the old run, then fills the gap
+        if (newValue > oldValue) {
+            int to = upperBound(newValue);
+            System.arraycopy(elements, from + count, elements, from, to - from - count);
+            Arrays.fill(elements, to - count, to, newValue);
+        } else {
+            int to = upperBound(newValue);
+            System.arraycopy(elements, to, elements, to + count, from - to);
+            Arrays.fill(elements, to, to + count, newValue);
+        }
+        return count;
+    }
+
+    /**
+     * Removes duplicate values so that every value appears only once.
+     * The array is already sorted, so both modes compact adjacent runs in one pass.
+     *
+     * @param mode ignored, the ascending order is always kept
+     * @return the number of removed elements
+     */
+    @Override
+    public int distinctInPlace(DistinctMode mode) {
+        if (size < 2) return 0;
+
+        int kept = 1;
+        for (int i = 1; i < size; i++) {
+            if (elements[i] != elements[kept - 1]) elements[kept++] = elements[i];
+        }
+        int removed = size - kept;
+        size = kept;
+        return removed;
+    }
+
+    /**
+     * Clears all elements from the array.
+     */
+    @Override
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Shrinks the internal array to the number of stored elements.
+     */
+    @Override
+    public void trimToSize() {
+        if (elements.length > size) {
+            elements = Arrays.copyOf(elements, size);
+        }
+    }
+
+    /**
+     * Returns the number of bytes held by unused slots of the internal array.
+     * @return the bytes allocated beyond the stored elements
+     */
+    @Override
+    public long wastedBytes() {
+        return (long) (elements.length - size) * Integer.BYTES;
+    }
+
+    /**
+     * Describes how much storage is allocated compared with the stored elements.
+     * @return a single-line memory usage report
+     */
+    @Override
+    public String memoryReport() {
+        return String.format("Size: %d, Capacity: %d, Live: %d bytes, Allocated: %d bytes, Wasted: %d bytes",
+                size, elements.length, (long) size * Integer.BYTES,
+                (long) elements.length * Integer.BYTES, wastedBytes());
+    }
+
+    /**
+     * Returns the index of the first element not less than the value.
+     *
+     * @param value the value to search for
+     * @return the insertion point before any equal values
+     */
+    private int lowerBound(int value) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (elements[mid] < value) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * Returns the index of the first element greater than the value.
+     *
+     * @param value the value to search for
+     * @return the insertion point after any equal values
+     */
+    private int upperBound(int value) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (elements[mid] <= value) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+}
@@ -0,0 +1,219 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Class appending integers read from an open-ended stream to a list.
+ * Values are read until the end of input and appended in large batches, so the
+ * list grows by its own amortized policy. Once the list holds the configured
+ * maximum number of elements, the overflow policy decides what happens to the rest.
+ */
+class StreamIngester {
+    /** Number of values appended to the list at a time */
+    private static final int BATCH_SIZE = 1 << 16;
+
+    /** Maximum number of elements the list may hold after ingesting */
+    private final int maxElements;
+
+    /** What happens to values read once the list is full */
+    private final OverflowPolicy overflowPolicy;
+
+    /** File receiving overflowing values under {@link OverflowPolicy#SPILL} */
+    private final Path spillPath;
+
+    /**
+     * Constructs a new StreamIngester.
+     *
+     * @param maxElements the maximum number of elements the list may hold
+     * @param overflowPolicy what happens to values read once the list is full
+     * @param spillPath the file overflowing values are appended to under SPILL
+     * @throws IllegalArgumentException if maxElements is negative
+     */
+    public StreamIngester(int maxElements, OverflowPolicy overflowPolicy, Path spillPath) {
+        if (maxElements < 0)
+            throw new IllegalArgumentException("Invalid maximum number of elements: " + maxElements);
+
+        this.maxElements = maxElements;
+        this.overflowPolicy = overflowPolicy;
+        this.spillPath = spillPath;
+    }
+
+    /**
+     * Appends the integers of a stream to a list until the end of input.
+     * Invalid tokens are skipped and reported to onInvalid.
+     *
+     * @param in the stream of integers
+     * @param target the list to append to
+     * @param onInvalid receives the message of each invalid token
+     * @return what was appended, spilled or evicted
+     * @throws IOException if the stream cannot be read or the spill file cannot be written
+     */
+    public Result ingest(IntScanner in, IntList target, Consumer<String> onInvalid) throws IOException {
+        int[] batch = new int[BATCH_SIZE];
+        int count = 0;
+        long appended = 0;
+        long invalid = 0;
+
+        // Values are gathered into a batch and appended as one block until the list is full
+        long room = Math.max(0, maxElements - target.size());
+        while (appended + count < room && in.hasNext()) {
+            try {
+                int value = in.nextInt();
+                batch[count++] = value;
+            } catch (NumberFormatException e) {
+                invalid++;
+                onInvalid.accept(e.getMessage());
+                continue;
+            }
+            if (count == batch.length) {
+                target.addAll(batch, 0, count);
+                appended += count;
+                count = 0;
+            }
+        }
+        target.addAll(batch, 0, count);
+        appended += count;
+
+        if (!in.hasNext())
+            return new Result(appended, 0, invalid, false);
+
+        switch (overflowPolicy) {
+            case SPILL:
+                return spill(in, appended, invalid, onInvalid);
+            case KEEP_LAST:
+                return keepLast(in, target, appended, invalid, onInvalid);
+            default:
+                return new Result(appended, 0, invalid, true);
+        }
+    }
+
+    /**
+     * Appends the rest of the stream to the spill file, one value per line.
+     * The file uses the same text format as the input, so it can be loaded later.
+     */
+    private Result spill(IntScanner in, long appended, long invalid, Consumer<String> onInvalid)
+            throws IOException {
+        long spilled = 0;
+        try (OutputStream file = Files.newOutputStream(spillPath,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ConsoleWriter spill = new ConsoleWriter(file);
+            while (in.hasNext()) {
+                try {
+                    spill.print(in.nextInt());
+                } catch (NumberFormatException e) {
+                    invalid++;
+                    onInvalid.accept(e.getMessage());
+                    continue;
+                }
+                spill.newLine();
+                spilled++;
+            }
+            spill.flush();
+            if (spill.checkError())
+                throw new IOException("Unable to write spill file " + spillPath);
+        }
+        return new Result(appended, spilled, invalid, false);
+    }
+
+    /**
+     * Keeps the last maxElements values of the list followed by the rest of the stream.
+     * The rest of the stream goes through a ring that grows up to maxElements values,
+     * so at most twice the ceiling is held while reading, and the list is rewritten
+     * once at the end.
+     */
+    private Result keepLast(IntScanner in, IntList target, long appended, long invalid,
+                            Consumer<String> onInvalid) throws IOException {
+        int[] ring = new int[Math.min(maxElements, BATCH_SIZE)];
+        int next = 0;
+        long evicted = 0;
+        while (in.hasNext()) {
+            int value;
+            try {
+                value = in.nextInt();
+            } catch (NumberFormatException e) {
+                invalid++;
+                onInvalid.accept(e.getMessage());
+                continue;
+            }
+            evicted++;
+            if (maxElements == 0) continue;
+
+            // The ring only grows before its first wrap, so its order is never disturbed
+            ring[next++] = value;
+            if (next == ring.length) {
+                if (ring.length < maxElements) {
+                    ring = Arrays.copyOf(ring, (int) Math.min(maxElements, 2L * ring.length));
+                } else {
+                    next = 0;
+                }
+            }
+        }
+
+        if (evicted >= maxElements) {
+            // The ring alone holds the last values, oldest first from the write position
+            target.clear();
+            target.addAll(ring, next, ring.length - next);
+            target.addAll(ring, 0, next);
+        } else {
+            target.removeRange(0, target.size() - (maxElements - (int) evicted));
+            target.addAll(ring, 0, next);
+        }
+        return new Result(appended, evicted, invalid, false);
+    }
+
+    /** Policies for values read after the list reached its maximum number of elements */
+    enum OverflowPolicy {
+        /** Stops reading, the rest of the stream is left unread */
+        REJECT,
+        /** Appends the rest of the stream to a spill file */
+        SPILL,
+        /** Evicts the oldest elements so the list keeps the most recent values */
+        KEEP_LAST
+    }
+
+    /** Outcome of one {@link #ingest(IntScanner, IntList, Consumer)} call */
+    static final class Result {
+        /** Number of values appended to the list before it was full */
+        private final long appended;
+
+        /** Number of values spilled, or oldest elements evicted, after the list was full */
+        private final long overflowed;
+
+        /** Number of invalid tokens skipped */
+        private final long invalid;
+
+        /** Whether reading stopped before the end of input */
+        private final boolean truncated;
+
+        private Result(long appended, long overflowed, long invalid, boolean truncated) {
+            this.appended = appended;
+            this.overflowed = overflowed;
+            this.invalid = invalid;
+            this.truncated = truncated;
+        }
+
+        /** @return the number of values appended before the list was full */
+        public long appended() {
+            return appended;
+        }
+
+        /** @return the number of values spilled, or of oldest elements evicted */
+        public long overflowed() {
+            return overflowed;
+        }
+
+        /** @return the number of invalid tokens skipped */
+        public long invalid() {
+            return invalid;
+        }
+
+        /** @return true if the list filled up and the rest of the stream was left unread */
+        public boolean truncated() {
+            return truncated;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.IntUnaryOperator;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the compressed list against a reference list, including edits inside
+ * sealed blocks of every encoding.
+ */
+class CompressedIntArrayTest extends IntListReferenceTest {
+    /** Values per generated list, several full blocks and a partial tail */
+    private static final int VALUES = 5000;
+
+    /** Number of edits applied to each generated list */
+    private static final int EDITS = 1500;
+
+    @Override
+    IntList create() {
+        return new CompressedIntArray();
+    }
+
+    @Test
+    void runBlocksMatchReferenceList() {
+        editBlocks(i -> i / 100);
+    }
+
+    @Test
+    void packedBlocksMatchReferenceList() {
+        SplittableRandom random = new SplittableRandom(1);
+        editBlocks(i -> 1_000_000 + random.nextInt(256));
+    }
+
+    @Test
+    void deltaBlocksMatchReferenceList() {
+        SplittableRandom random = new SplittableRandom(2);
+        editBlocks(i -> -30_000 + i * 12 + random.nextInt(5));
+    }
+
+    /** Neighbours at both ends of the int range, whose deltas overflow an int */
+    @Test
+    void extremeBlocksMatchReferenceList() {
+        SplittableRandom random = new SplittableRandom(3);
+        editBlocks(i -> random.nextBoolean() ? Integer.MIN_VALUE + random.nextInt(4) : Integer.MAX_VALUE - random.nextInt(4));
+    }
+
+    /**
+     * Fills a list with generated values, then edits it at random positions,
+     * so edited blocks are decoded and encoded again, comparing it with a reference list after each edit.
+     *
+     * @param generator the value at each index
+     */
+    private static void editBlocks(IntUnaryOperator generator) {
+        SplittableRandom random = new SplittableRandom(VALUES);
+        int[] values = new int[VALUES];
+        for (int i = 0; i < VALUES; i++) values[i] = generator.applyAsInt(i);
+
+        CompressedIntArray list = new CompressedIntArray();
+        list.addAll(values, 0, values.length);
+        List<Integer> reference = new ArrayList<>();
+        for (int value : values) reference.add(value);
+        assertArrayEquals(values, list.toArray());
+
+        for (int edit = 0; edit < EDITS && !reference.isEmpty(); edit++) {
+            int index = random.nextInt(reference.size());
+            int neighbour = reference.get(random.nextInt(reference.size()));
+            String operation;
+            switch (random.nextInt(4)) {
+                case 0:
+                    operation = "set at " + index;
+                    list.set(index, neighbour + 1);
+                    reference.set(index, neighbour + 1);
+                    break;
+                case 1:
+                    operation = "remove at " + index;
+                    list.remove(index);
+                    reference.remove(index);
+                    break;
+                case 2:
+                    operation = "replaceAll " + neighbour;
+                    int expected = Collections.frequency(reference, neighbour);
+                    Collections.replaceAll(reference, neighbour, neighbour - 1);
+                    assertEquals(expected, list.replaceAll(neighbour, neighbour - 1), operation);
+                    break;
+                default:
+                    operation = "add";
+                    list.add(neighbour);
+                    reference.add(neighbour);
+            }
+
+            assertEquals(reference.size(), list.size(), operation);
+            assertArrayEquals(toArray(reference), list.toArray(), operation);
+            int probe = reference.isEmpty() ? 0 : reference.get(random.nextInt(reference.size()));
+            assertEquals(reference.indexOf(probe), list.indexOf(probe), "indexOf after " + operation);
+            assertArrayEquals(indicesOf(reference, probe), list.indicesOf(probe), "indicesOf after " + operation);
+            if (!reference.isEmpty()) {
+                int at = random.nextInt(reference.size());
+                assertEquals(reference.get(at).intValue(), list.getValue(at), "getValue after " + operation);
+            }
+            assertStats(reference, list.stats(), operation);
+        }
+    }
+}
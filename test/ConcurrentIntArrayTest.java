@@ -0,0 +1,119 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the concurrent list against a reference list on one thread, and its
+ * reserve-then-publish appends from several threads while readers take snapshots.
+ */
+class ConcurrentIntArrayTest extends IntListReferenceTest {
+    /** Number of appending threads */
+    private static final int APPENDERS = 8;
+
+    /** Values appended by each thread, enough to cross several chunks */
+    private static final int VALUES_PER_APPENDER = 50_000;
+
+    @Override
+    IntList create() {
+        return new ConcurrentIntArray();
+    }
+
+    /**
+     * Every thread appends its own increasing values, alone or in batches, while a reader
+     * checks that each snapshot holds a filled prefix that only grows.
+     */
+    @Test
+    void concurrentAppendsPublishEveryValueOnce() throws Exception {
+        ConcurrentIntArray list = new ConcurrentIntArray();
+        ExecutorService pool = Executors.newFixedThreadPool(APPENDERS + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean appending = new AtomicBoolean(true);
+        try {
+            List<Future<?>> appenders = new ArrayList<>();
+            for (int t = 0; t < APPENDERS; t++) {
+                int first = t * VALUES_PER_APPENDER + 1;
+                appenders.add(pool.submit(() -> {
+                    start.await();
+                    int next = first;
+                    int end = first + VALUES_PER_APPENDER;
+                    while (next < end) {
+                        int batch = Math.min(end - next, (next % 7) * 3);
+                        if (batch <= 1) {
+                            list.add(next++);
+                        } else {
+                            int[] values = new int[batch];
+                            for (int i = 0; i < batch; i++) values[i] = next++;
+                            list.addAll(values, 0, batch);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            Future<?> reader = pool.submit(() -> {
+                start.await();
+                int lastSize = 0;
+                while (appending.get()) {
+                    ConcurrentIntArray.Snapshot snapshot = list.snapshot();
+                    assertTrue(snapshot.size() >= lastSize, "published size went back");
+                    lastSize = snapshot.size();
+                    // Values start at 1, so a 0 would be a published slot that was never filled
+                    assertEquals(-1, snapshot.indexOf(0), "unfilled slot published");
+                }
+                return null;
+            });
+
+            start.countDown();
+            for (Future<?> appender : appenders) appender.get(60, TimeUnit.SECONDS);
+            appending.set(false);
+            reader.get(60, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        int total = APPENDERS * VALUES_PER_APPENDER;
+        assertEquals(total, list.size());
+
+        // Each thread appends in increasing order, so its values must stay in that order
+        int[] values = list.toArray();
+        int[] lastOfAppender = new int[APPENDERS];
+        for (int value : values) {
+            int appender = (value - 1) / VALUES_PER_APPENDER;
+            assertTrue(value > lastOfAppender[appender], "values of one thread out of order");
+            lastOfAppender[appender] = value;
+        }
+
+        int[] expected = new int[total];
+        for (int i = 0; i < total; i++) expected[i] = i + 1;
+        Arrays.sort(values);
+        assertArrayEquals(expected, values);
+        assertEquals(total, list.stats().count());
+    }
+
+    /** A snapshot keeps its view through later changes, and tells when it no longer matches */
+    @Test
+    void snapshotStaysReadableAfterStructuralChange() {
+        ConcurrentIntArray list = new ConcurrentIntArray();
+        list.addAll(new int[] {4, 2, 3}, 0, 3);
+        ConcurrentIntArray.Snapshot snapshot = list.snapshot();
+
+        list.add(5);
+        assertTrue(snapshot.isCurrent());
+        list.sort();
+        assertFalse(snapshot.isCurrent());
+        assertEquals(3, snapshot.size());
+        assertArrayEquals(new int[] {2, 3, 4, 5}, list.toArray());
+    }
+}
@@ -0,0 +1,107 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the writer's output against String formatting, with buffers small
+ * enough that numbers and text cross buffer boundaries.
+ */
+class ConsoleWriterTest {
+    /** Smallest buffer the writer accepts, the length of Integer.MIN_VALUE */
+    private static final int MIN_BUFFER = 11;
+
+    @Test
+    void intsMatchIntegerToStringAcrossBufferBoundaries() {
+        SplittableRandom random = new SplittableRandom(9);
+        int[] edges = {0, -1, 9, 10, -10, 99, 100, Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE + 1};
+
+        for (int bufferSize = MIN_BUFFER; bufferSize <= MIN_BUFFER + 12; bufferSize++) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            ConsoleWriter out = new ConsoleWriter(bytes, bufferSize);
+            StringBuilder expected = new StringBuilder();
+            for (int i = 0; i < 200; i++) {
+                int value = i < edges.length ? edges[i] : random.nextInt() >> random.nextInt(32);
+                out.print(value);
+                out.print(' ');
+                expected.append(value).append(' ');
+            }
+            out.flush();
+            assertEquals(expected.toString(), bytes.toString(StandardCharsets.UTF_8), "buffer of " + bufferSize);
+        }
+    }
+
+    @Test
+    void longsOutsideIntRangeAreWritten() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ConsoleWriter out = new ConsoleWriter(bytes, MIN_BUFFER);
+        out.print(Long.MIN_VALUE);
+        out.print(',');
+        out.print(1L << 31);
+        out.print(',');
+        out.print(-42L);
+        out.flush();
+
+        assertEquals(Long.MIN_VALUE + "," + (1L << 31) + ",-42", bytes.toString(StandardCharsets.UTF_8));
+    }
+
+    /** Text after the first non-ASCII character is encoded as UTF-8, even when it spans several buffers */
+    @Test
+    void nonAsciiTextFallsBackToUtf8() {
+        String text = "Sum: 12 — moyenne élevée, 合計 ∑ 😀 and plain ASCII after it";
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ConsoleWriter out = new ConsoleWriter(bytes, MIN_BUFFER);
+        out.print("ab");
+        out.print(text);
+        out.print('é');
+        out.print("ok");
+        out.newLine();
+        out.flush();
+
+        assertEquals("ab" + text + "éok" + System.lineSeparator(), bytes.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void outputIsHeldUntilBufferFillsOrFlush() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ConsoleWriter out = new ConsoleWriter(bytes, 16);
+        out.print("01234");
+        out.print(12345);
+        assertEquals(0, bytes.size());
+
+        // Less room than the longest int sends the buffer first
+        out.print(678);
+        assertEquals("0123412345", bytes.toString(StandardCharsets.UTF_8));
+
+        out.flush();
+        assertEquals("0123412345678", bytes.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void writeErrorsAreRecorded() {
+        ConsoleWriter out = new ConsoleWriter(new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("closed");
+            }
+        }, MIN_BUFFER);
+        out.print(1);
+        assertFalse(out.checkError());
+
+        out.flush();
+        assertTrue(out.checkError());
+    }
+
+    @Test
+    void bufferShorterThanAnIntIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new ConsoleWriter(new ByteArrayOutputStream(), MIN_BUFFER - 1));
+    }
+}
@@ -0,0 +1,411 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checks the dynamic array against a reference list in each of its configurations,
+ * its undo and redo against the states recorded before every change, and its snapshot files.
+ */
+class DynamicArrayTest extends IntListReferenceTest {
+    /** Enough values to span several staging chunks of the snapshot writer */
+    private static final int SNAPSHOT_VALUES = 300_000;
+
+    /** Directory the snapshot files are written to */
+    @TempDir
+    Path snapshots;
+
+    @Override
+    IntList create() {
+        return new DynamicArray(2);
+    }
+
+    /** The console's configuration, shrinking storage and keeping undo history */
+    @Nested
+    class Shrinking extends IntListReferenceTest {
+        @Override
+        IntList create() {
+            DynamicArray array = new DynamicArray(2, GrowthPolicy.DOUBLING, 0.25f);
+            array.setJournalLimit(1 << 20);
+            return array;
+        }
+    }
+
+    /** Queries answered by the position index */
+    @Nested
+    class WithPositionIndex extends IntListReferenceTest {
+        @Override
+        IntList create() {
+            DynamicArray array = new DynamicArray(2);
+            array.setPositionIndexEnabled(true);
+            return array;
+        }
+    }
+
+    /** Queries answered by scans only */
+    @Nested
+    class WithoutRangeCounts extends IntListReferenceTest {
+        @Override
+        IntList create() {
+            DynamicArray array = new DynamicArray(2);
+            array.setRangeCountsEnabled(false);
+            return array;
+        }
+    }
+
+    /** Scans and transforms split across the common pool even for short arrays */
+    @Nested
+    class Parallel extends IntListReferenceTest {
+        @Override
+        IntList create() {
+            DynamicArray array = new DynamicArray(2);
+            array.setExecutionMode(DynamicArray.ExecutionMode.PARALLEL, 1);
+            array.setRangeCountsEnabled(false);
+            return array;
+        }
+    }
+
+    @Test
+    void undoAndRedoRestoreRecordedStates() {
+        for (long seed = 1; seed <= 4; seed++) {
+            for (int bound : new int[] {8, 0}) {
+                replayWithHistory(new SplittableRandom(seed), bound);
+            }
+        }
+    }
+
+    @Test
+    void appendsMergeUntilCheckpoint() {
+        DynamicArray array = journaled();
+        array.add(1);
+        array.addAll(new int[] {2, 3}, 0, 2);
+        array.checkpoint();
+        array.add(4);
+        array.add(5);
+
+        assertTrue(array.undo());
+        assertArrayEquals(new int[] {1, 2, 3}, array.toArray());
+        assertTrue(array.undo());
+        assertArrayEquals(new int[0], array.toArray());
+        assertFalse(array.undo());
+
+        assertTrue(array.redo());
+        assertTrue(array.redo());
+        assertArrayEquals(new int[] {1, 2, 3, 4, 5}, array.toArray());
+    }
+
+    @Test
+    void appendAfterUndoStartsNewChange() {
+        DynamicArray array = journaled();
+        array.addAll(new int[] {1, 2}, 0, 2);
+        array.add(3);
+        array.undo();
+
+        // The undone append is closed, so this one is undone on its own
+        array.add(4);
+        assertFalse(array.redo());
+        assertTrue(array.undo());
+        assertArrayEquals(new int[0], array.toArray());
+    }
+
+    @Test
+    void unrecordedChangeDropsHistory() {
+        DynamicArray array = journaled();
+        array.addAll(new int[] {3, 1, 2}, 0, 3);
+        array.checkpoint();
+        array.sort();
+
+        assertFalse(array.undo());
+        assertArrayEquals(new int[] {1, 2, 3}, array.toArray());
+
+        // Changes recorded after it can be undone again
+        array.replaceAll(2, 7);
+        assertTrue(array.undo());
+        assertArrayEquals(new int[] {1, 2, 3}, array.toArray());
+        assertFalse(array.undo());
+    }
+
+    @Test
+    void changeTooLargeForBudgetIsNotUndoable() {
+        DynamicArray array = new DynamicArray(2);
+        array.setJournalLimit(64);
+        array.addAll(new int[100], 0, 100);
+        array.checkpoint();
+
+        // The cleared array is kept for undo, and it is larger than the budget
+        array.clear();
+        assertFalse(array.undo());
+        assertEquals(0, array.size());
+    }
+
+    @Test
+    void dedupeAndReplaceAreUndoneInPlace() {
+        DynamicArray array = journaled();
+        int[] values = {5, 1, 5, 2, 1, 5, 3};
+        array.addAll(values, 0, values.length);
+        array.checkpoint();
+
+        assertEquals(3, array.distinctInPlace(IntList.DistinctMode.STABLE));
+        assertEquals(1, array.replaceAll(5, 9));
+        assertArrayEquals(new int[] {9, 1, 2, 3}, array.toArray());
+
+        assertTrue(array.undo());
+        assertArrayEquals(new int[] {5, 1, 2, 3}, array.toArray());
+        assertTrue(array.undo());
+        assertArrayEquals(values, array.toArray());
+        assertTrue(array.redo());
+        assertArrayEquals(new int[] {5, 1, 2, 3}, array.toArray());
+    }
+
+    /** Matches span many words of the bitmap and several parallel chunks, starting and ending off a word boundary */
+    @Test
+    void replaceIsUndoneOnEveryKernel() {
+        for (DynamicArray.ExecutionMode mode : DynamicArray.ExecutionMode.values()) {
+            SplittableRandom random = new SplittableRandom(17);
+            DynamicArray array = journaled();
+            array.setExecutionMode(mode, 1 << 12);
+            int[] values = values(random, 40, 100_003);
+            values[0] = -1;
+            values[values.length - 1] = -1;
+            array.addAll(values, 0, values.length);
+            array.checkpoint();
+
+            for (int oldValue : new int[] {7, -1, 99}) {
+                int[] before = array.toArray();
+                int[] expected = before.clone();
+                int count = 0;
+                for (int i = 0; i < expected.length; i++) {
+                    if (expected[i] == oldValue) {
+                        expected[i] = 1000;
+                        count++;
+                    }
+                }
+
+                assertEquals(count, array.replaceAll(oldValue, 1000), mode + " replacing " + oldValue);
+                assertArrayEquals(expected, array.toArray(), mode + " replacing " + oldValue);
+                array.checkpoint();
+                if (count == 0) continue;
+
+                assertTrue(array.undo());
+                assertArrayEquals(before, array.toArray(), mode + " undoing " + oldValue);
+                assertTrue(array.redo());
+                assertArrayEquals(expected, array.toArray(), mode + " redoing " + oldValue);
+            }
+        }
+    }
+
+    @Test
+    void snapshotRoundTripRestoresValues() throws IOException {
+        SplittableRandom random = new SplittableRandom(10);
+        int[] values = values(random, 0, SNAPSHOT_VALUES);
+        DynamicArray saved = new DynamicArray(2);
+        saved.addAll(values, 0, values.length);
+        Path file = snapshots.resolve("values.arr");
+        saved.saveTo(file);
+
+        // Loading replaces longer and shorter contents alike
+        DynamicArray longer = new DynamicArray(2);
+        longer.addAll(new int[SNAPSHOT_VALUES + 5], 0, SNAPSHOT_VALUES + 5);
+        longer.loadFrom(file);
+        assertArrayEquals(values, longer.copyRange(0, longer.size()));
+
+        DynamicArray shorter = new DynamicArray(2);
+        shorter.add(7);
+        shorter.loadFrom(file);
+        assertArrayEquals(values, shorter.copyRange(0, shorter.size()));
+
+        // Saving again over the file truncates it to the new contents
+        DynamicArray empty = new DynamicArray(2);
+        empty.saveTo(file);
+        shorter.loadFrom(file);
+        assertEquals(0, shorter.size());
+    }
+
+    @Test
+    void truncatedSnapshotIsRejected() throws IOException {
+        Path file = savedSnapshot();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 1);
+        }
+        assertRejected(file, "Snapshot size does not match its element count");
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(10);
+        }
+        assertRejected(file, "Truncated snapshot header");
+    }
+
+    @Test
+    void snapshotWithBadMagicIsRejected() throws IOException {
+        Path file = savedSnapshot();
+        overwrite(file, 0, (byte) 'X');
+        assertRejected(file, "Not an array snapshot");
+    }
+
+    /** The checksum catches a flipped payload byte before any element is copied */
+    @Test
+    void corruptedSnapshotPayloadIsRejected() throws IOException {
+        Path file = savedSnapshot();
+        long payloadByte = 24 + (SNAPSHOT_VALUES / 2) * Integer.BYTES + 1;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer original = ByteBuffer.allocate(1);
+            channel.read(original, payloadByte);
+            overwrite(file, payloadByte, (byte) (original.get(0) ^ 0x10));
+        }
+        assertRejected(file, "Snapshot checksum mismatch");
+    }
+
+    /**
+     * Saves a snapshot of ascending values.
+     * @return the snapshot file
+     * @throws IOException if the file cannot be written
+     */
+    private Path savedSnapshot() throws IOException {
+        DynamicArray array = new DynamicArray(2);
+        for (int i = 0; i < SNAPSHOT_VALUES; i++) array.add(i);
+        Path file = snapshots.resolve("snapshot.arr");
+        array.saveTo(file);
+        return file;
+    }
+
+    /**
+     * Checks that loading a file fails with a message and leaves the array as it was.
+     *
+     * @param file the snapshot file
+     * @param message the expected message
+     */
+    private static void assertRejected(Path file, String message) {
+        DynamicArray array = new DynamicArray(2);
+        int[] before = {3, 1, 4, 1, 5};
+        array.addAll(before, 0, before.length);
+
+        IOException e = assertThrows(IOException.class, () -> array.loadFrom(file));
+        assertEquals(message, e.getMessage());
+        assertArrayEquals(before, array.copyRange(0, array.size()));
+    }
+
+    /**
+     * Overwrites one byte of a file.
+     *
+     * @param file the file
+     * @param position the offset of the byte
+     * @param value the new byte
+     * @throws IOException if the file cannot be written
+     */
+    private static void overwrite(Path file, long position, byte value) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {value}), position);
+        }
+    }
+
+    /**
+     * Applies random changes, undoes and redoes, checking every state against the recorded ones.
+     * Recorded changes push the state before them; changes the journal does not record drop the history.
+     *
+     * @param random the source of the operations
+     * @param bound the bound of the values, 0 for the whole int range
+     */
+    private static void replayWithHistory(SplittableRandom random, int bound) {
+        DynamicArray array = journaled();
+        Deque<int[]> undoStates = new ArrayDeque<>();
+        Deque<int[]> redoStates = new ArrayDeque<>();
+
+        for (int step = 0; step < OPERATIONS; step++) {
+            int[] before = array.toArray();
+            boolean recorded;
+            String operation;
+            switch (random.nextInt(10)) {
+                case 0:
+                case 1:
+                    operation = "add";
+                    array.add(value(random, bound));
+                    recorded = true;
+                    break;
+                case 2: {
+                    int[] values = values(random, bound, random.nextInt(20));
+                    operation = "addAll";
+                    array.addAll(values, 0, values.length);
+                    recorded = values.length > 0;
+                    break;
+                }
+                case 3:
+                    operation = "clear";
+                    recorded = before.length > 0 && random.nextInt(10) == 0;
+                    if (recorded) array.clear();
+                    break;
+                case 4:
+                    operation = "stable dedupe";
+                    recorded = array.distinctInPlace(IntList.DistinctMode.STABLE) > 0;
+                    break;
+                case 5: {
+                    int oldValue = before.length > 0 ? before[random.nextInt(before.length)] : 0;
+                    operation = "replaceAll";
+                    recorded = array.replaceAll(oldValue, value(random, bound)) > 0;
+                    break;
+                }
+                case 6:
+                    operation = "undo";
+                    assertEquals(!undoStates.isEmpty(), array.undo(), operation);
+                    if (!undoStates.isEmpty()) {
+                        redoStates.push(before);
+                        assertArrayEquals(undoStates.pop(), array.toArray(), operation);
+                    }
+                    continue;
+                case 7:
+                    operation = "redo";
+                    assertEquals(!redoStates.isEmpty(), array.redo(), operation);
+                    if (!redoStates.isEmpty()) {
+                        undoStates.push(before);
+                        assertArrayEquals(redoStates.pop(), array.toArray(), operation);
+                    }
+                    continue;
+                case 8:
+                    if (before.length == 0 || random.nextInt(4) != 0) continue;
+                    operation = "set";
+                    array.set(random.nextInt(before.length), value(random, bound));
+                    undoStates.clear();
+                    redoStates.clear();
+                    continue;
+                default:
+                    if (before.length == 0 || random.nextInt(4) != 0) continue;
+                    operation = "remove";
+                    array.remove(random.nextInt(before.length));
+                    undoStates.clear();
+                    redoStates.clear();
+                    continue;
+            }
+            // Every action ends with a checkpoint in the console, so appends are not merged here
+            array.checkpoint();
+            if (recorded) {
+                undoStates.push(before);
+                redoStates.clear();
+            } else {
+                assertArrayEquals(before, array.toArray(), operation);
+            }
+        }
+    }
+
+    /**
+     * Creates an array with an undo budget large enough to keep every change.
+     * @return the new array
+     */
+    private static DynamicArray journaled() {
+        DynamicArray array = new DynamicArray(2);
+        array.setJournalLimit(1 << 24);
+        return array;
+    }
+}
@@ -0,0 +1,90 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the gap buffer against a reference list, with inserts and removals at the
+ * front, in the middle and at the end, so the gap moves both ways and the buffer
+ * grows and shrinks with the gap away from the end.
+ */
+class GapBufferIntArrayTest extends IntListReferenceTest {
+    @Override
+    IntList create() {
+        return new GapBufferIntArray();
+    }
+
+    /** Edits cycle through the front, the middle and the end, so the gap keeps moving across the list */
+    @Test
+    void insertsAtFrontMiddleAndEndMatchReferenceList() {
+        SplittableRandom random = new SplittableRandom(22);
+        GapBufferIntArray list = new GapBufferIntArray();
+        List<Integer> reference = new ArrayList<>();
+
+        for (int step = 0; step < OPERATIONS; step++) {
+            int size = reference.size();
+            int index;
+            switch (step % 3) {
+                case 0:
+                    index = 0;
+                    break;
+                case 1:
+                    index = size / 2;
+                    break;
+                default:
+                    index = size;
+            }
+            String operation;
+            if (size > 0 && random.nextInt(4) == 0) {
+                int removed = Math.min(index, size - 1);
+                operation = "remove at " + removed;
+                list.remove(removed);
+                reference.remove(removed);
+            } else {
+                // Batches larger than the free space force a grow with the gap in place
+                int[] values = values(random, 0, random.nextInt(step % 50 == 0 ? 100 : 4));
+                operation = "insert " + values.length + " at " + index;
+                list.insert(index, values);
+                for (int i = 0; i < values.length; i++) reference.add(index + i, values[i]);
+            }
+
+            assertEquals(reference.size(), list.size(), operation);
+            assertArrayEquals(toArray(reference), list.toArray(), operation);
+            if (!reference.isEmpty()) {
+                int at = random.nextInt(reference.size());
+                assertEquals(reference.get(at).intValue(), list.getValue(at), "getValue after " + operation);
+            }
+        }
+    }
+
+    /** Trimming with the gap inside the list keeps the order and leaves no free space */
+    @Test
+    void trimClosesGapInMiddle() {
+        GapBufferIntArray list = new GapBufferIntArray();
+        list.addAll(new int[] {1, 2, 5, 6}, 0, 4);
+        list.insert(2, 3, 4);
+
+        list.trimToSize();
+        assertEquals(0, list.wastedBytes());
+        assertArrayEquals(new int[] {1, 2, 3, 4, 5, 6}, list.toArray());
+
+        list.insert(0, 0);
+        list.add(7);
+        assertArrayEquals(new int[] {0, 1, 2, 3, 4, 5, 6, 7}, list.toArray());
+    }
+
+    @Test
+    void insertOutsideListIsRejected() {
+        GapBufferIntArray list = new GapBufferIntArray();
+        list.add(1);
+
+        assertThrows(IndexOutOfBoundsException.class, () -> list.insert(2, 5));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.insert(-1, 5));
+        assertArrayEquals(new int[] {1}, list.toArray());
+    }
+}
@@ -0,0 +1,285 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks a list backend against an ArrayList holding the same values.
+ * Random operations of the IntList interface are applied to both, and the contents
+ * and the answers of the queries are compared after every step.
+ * Subclasses supply the backend under test.
+ */
+abstract class IntListReferenceTest {
+    /** Number of random operations per run */
+    static final int OPERATIONS = 3000;
+
+    /**
+     * Creates an empty list of the backend under test.
+     * @return the new list
+     */
+    abstract IntList create();
+
+    /** Few distinct values, so duplicates, replacements and runs are common */
+    @Test
+    void narrowValuesMatchReferenceList() {
+        for (long seed = 1; seed <= 4; seed++) {
+            run(seed, 16);
+        }
+    }
+
+    /** Mostly distinct values, including the extremes of the int range */
+    @Test
+    void wideValuesMatchReferenceList() {
+        for (long seed = 1; seed <= 4; seed++) {
+            run(seed, 0);
+        }
+    }
+
+    /**
+     * Applies random operations to a new list and a reference list, comparing them after each one.
+     *
+     * @param seed the seed of the operations
+     * @param bound values are drawn below bound, or from the whole int range if bound is 0
+     */
+    void run(long seed, int bound) {
+        SplittableRandom random = new SplittableRandom(seed);
+        IntList list = create();
+        List<Integer> reference = new ArrayList<>();
+
+        for (int step = 0; step < OPERATIONS; step++) {
+            String operation = apply(list, reference, random, bound);
+            assertEquals(reference.size(), list.size(), operation);
+            assertArrayEquals(toArray(reference), list.toArray(), operation);
+            query(list, reference, random, bound, operation);
+        }
+
+        int[] visited = new int[reference.size()];
+        int[] at = new int[1];
+        list.forEach(value -> visited[at[0]++] = value);
+        assertArrayEquals(toArray(reference), visited);
+    }
+
+    /**
+     * Applies one random mutation to both lists.
+     *
+     * @param list the list under test
+     * @param reference the reference list
+     * @param random the source of the operation and its arguments
+     * @param bound the bound of the values
+     * @return the name of the operation, for failure messages
+     */
+    String apply(IntList list, List<Integer> reference, SplittableRandom random, int bound) {
+        int size = reference.size();
+        switch (random.nextInt(14)) {
+            case 0:
+            case 1:
+            case 2: {
+                int value = value(random, bound);
+                list.add(value);
+                reference.add(value);
+                return "add";
+            }
+            case 3: {
+                int[] values = values(random, bound, random.nextInt(40));
+                list.addAll(values, 0, values.length);
+                for (int value : values) reference.add(value);
+                return "addAll";
+            }
+            case 4: {
+                int index = random.nextInt(size + 1);
+                int[] values = values(random, bound, random.nextInt(5));
+                list.insert(index, values);
+                for (int i = 0; i < values.length; i++) reference.add(index + i, values[i]);
+                return "insert at " + index;
+            }
+            case 5: {
+                if (size == 0) return "set on empty";
+                int index = random.nextInt(size);
+                int value = value(random, bound);
+                list.set(index, value);
+                reference.set(index, value);
+                return "set at " + index;
+            }
+            case 6: {
+                if (size == 0) return "remove on empty";
+                int index = random.nextInt(size);
+                list.remove(index);
+                reference.remove(index);
+                return "remove at " + index;
+            }
+            case 7: {
+                int from = random.nextInt(size + 1);
+                int to = from + random.nextInt(Math.min(size - from, 8) + 1);
+                list.removeRange(from, to);
+                reference.subList(from, to).clear();
+                return "removeRange " + from + ".." + to;
+            }
+            case 8: {
+                int oldValue = size > 0 && random.nextBoolean() ? reference.get(random.nextInt(size)) : value(random, bound);
+                int newValue = value(random, bound);
+                int expected = Collections.frequency(reference, oldValue);
+                Collections.replaceAll(reference, oldValue, newValue);
+                assertEquals(expected, list.replaceAll(oldValue, newValue), "replaceAll");
+                return "replaceAll " + oldValue + " by " + newValue;
+            }
+            case 9: {
+                List<Integer> distinct = new ArrayList<>(new LinkedHashSet<>(reference));
+                assertEquals(size - distinct.size(), list.distinctInPlace(IntList.DistinctMode.STABLE), "stable dedupe");
+                reference.clear();
+                reference.addAll(distinct);
+                return "stable dedupe";
+            }
+            case 10: {
+                List<Integer> distinct = new ArrayList<>(new TreeSet<>(reference));
+                assertEquals(size - distinct.size(), list.distinctInPlace(IntList.DistinctMode.SORTED), "sorted dedupe");
+                reference.clear();
+                reference.addAll(distinct);
+                return "sorted dedupe";
+            }
+            case 11: {
+                list.sort();
+                Collections.sort(reference);
+                return "sort";
+            }
+            case 12: {
+                // Clearing often would keep the lists short
+                if (random.nextInt(20) != 0) return "no clear";
+                list.clear();
+                reference.clear();
+                return "clear";
+            }
+            default:
+                return "no change";
+        }
+    }
+
+    /**
+     * Compares the answers of the queries on both lists.
+     *
+     * @param list the list under test
+     * @param reference the reference list
+     * @param random the source of the queried values
+     * @param bound the bound of the values
+     * @param after the last operation, for failure messages
+     */
+    void query(IntList list, List<Integer> reference, SplittableRandom random, int bound, String after) {
+        int size = reference.size();
+        int value = size > 0 && random.nextBoolean() ? reference.get(random.nextInt(size)) : value(random, bound);
+
+        assertEquals(reference.indexOf(value), list.indexOf(value), "indexOf after " + after);
+        assertEquals(reference.contains(value), list.contains(value), "contains after " + after);
+        assertArrayEquals(indicesOf(reference, value), list.indicesOf(value), "indicesOf after " + after);
+        if (size > 0) {
+            int index = random.nextInt(size);
+            assertEquals(reference.get(index).intValue(), list.getValue(index), "getValue after " + after);
+        }
+
+        List<Integer> descending = new ArrayList<>(reference);
+        descending.sort(Collections.reverseOrder());
+        int k = random.nextInt(6);
+        assertArrayEquals(toArray(descending.subList(0, Math.min(k, size))), list.topK(k), "topK after " + after);
+        if (k >= 1 && k <= size) {
+            assertEquals(descending.get(k - 1).intValue(), list.kthLargest(k, false), "kthLargest after " + after);
+        }
+
+        assertStats(reference, list.stats(), after);
+    }
+
+    /**
+     * Compares statistics with those of the reference values.
+     *
+     * @param reference the reference list
+     * @param stats the statistics of the list under test
+     * @param after the last operation, for failure messages
+     */
+    static void assertStats(List<Integer> reference, IntStats stats, String after) {
+        String message = "stats after " + after;
+        assertEquals(reference.size(), stats.count(), message);
+        assertEquals(reference.stream().mapToLong(Integer::longValue).sum(), stats.sum(), message);
+        if (reference.isEmpty()) return;
+
+        TreeSet<Integer> distinct = new TreeSet<>(reference);
+        assertEquals(distinct.first().intValue(), stats.min(), message);
+        assertEquals(distinct.last().intValue(), stats.max(), message);
+        assertEquals(Collections.frequency(reference, distinct.last()), stats.maxCount(), message);
+        assertEquals(distinct.size() > 1, stats.hasSecond(), message);
+        if (distinct.size() > 1) {
+            Integer second = distinct.lower(distinct.last());
+            assertEquals(second.intValue(), stats.second(), message);
+            assertEquals(Collections.frequency(reference, second), stats.secondCount(), message);
+        }
+
+        int odd = (int) reference.stream().filter(v -> (v & 1) != 0).count();
+        assertEquals(odd, stats.oddCount(), message);
+        assertEquals(reference.size() - odd, stats.evenCount(), message);
+        reference.stream().filter(v -> (v & 1) != 0).max(Integer::compare)
+                .ifPresent(v -> assertEquals(v.intValue(), stats.highestOdd(), message));
+        reference.stream().filter(v -> (v & 1) == 0).max(Integer::compare)
+                .ifPresent(v -> assertEquals(v.intValue(), stats.highestEven(), message));
+    }
+
+    /**
+     * Draws a value.
+     *
+     * @param random the source of the value
+     * @param bound the value is below bound, or anywhere in the int range if bound is 0
+     * @return the value
+     */
+    static int value(SplittableRandom random, int bound) {
+        if (bound > 0) return random.nextInt(bound);
+
+        switch (random.nextInt(16)) {
+            case 0:
+                return Integer.MIN_VALUE;
+            case 1:
+                return Integer.MAX_VALUE;
+            default:
+                return random.nextInt();
+        }
+    }
+
+    /**
+     * Draws several values.
+     *
+     * @param random the source of the values
+     * @param bound the bound of the values, 0 for the whole int range
+     * @param count the number of values
+     * @return the values
+     */
+    static int[] values(SplittableRandom random, int bound, int count) {
+        int[] values = new int[count];
+        for (int i = 0; i < count; i++) values[i] = value(random, bound);
+        return values;
+    }
+
+    /**
+     * Copies a reference list into an array.
+     * @param reference the reference list
+     * @return the values in order
+     */
+    static int[] toArray(List<Integer> reference) {
+        return reference.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Returns the indices of a value in a reference list.
+     *
+     * @param reference the reference list
+     * @param value the value to search for
+     * @return the ascending indices
+     */
+    static int[] indicesOf(List<Integer> reference, int value) {
+        List<Integer> indices = new ArrayList<>();
+        for (int i = 0; i < reference.size(); i++) {
+            if (reference.get(i) == value) indices.add(i);
+        }
+        return toArray(indices);
+    }
+}
@@ -0,0 +1,133 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the scanner's parsing of integers, separators and comments,
+ * across buffer refills, and the offsets it reports for invalid tokens.
+ */
+class IntScannerTest {
+    /** Size of the scanner's read buffer */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    @Test
+    void intRangeBoundsParseAndOverflowIsRejected() throws IOException {
+        IntScanner in = scanner("2147483647 -2147483648 2147483648 -2147483649 99999999999999999999 7");
+
+        assertEquals(Integer.MAX_VALUE, in.nextInt());
+        assertEquals(Integer.MIN_VALUE, in.nextInt());
+        assertInvalidAt(in, 23);
+        assertInvalidAt(in, 34);
+        assertInvalidAt(in, 46);
+        assertEquals(7, in.nextInt());
+        assertFalse(in.hasNext());
+    }
+
+    @Test
+    void signsAreParsedOnlyBeforeDigits() throws IOException {
+        IntScanner in = scanner("+5 -0 - + +-3 4- 8");
+
+        assertEquals(5, in.nextInt());
+        assertEquals(0, in.nextInt());
+        assertInvalidAt(in, 6);
+        assertInvalidAt(in, 8);
+        assertInvalidAt(in, 10);
+        assertInvalidAt(in, 14);
+        assertEquals(8, in.nextInt());
+    }
+
+    @Test
+    void commasCarriageReturnsAndCommentsSeparateTokens() throws IOException {
+        IntScanner in = scanner("# header 1 2\r\n1,2,,\t3\r\n4#5 6\n# 7\n8 # trailing");
+
+        for (int expected = 1; expected <= 4; expected++) {
+            assertEquals(expected, in.nextInt());
+        }
+        assertEquals(8, in.nextInt());
+        assertFalse(in.hasNext());
+        assertThrows(NoSuchElementException.class, in::nextInt);
+    }
+
+    /** Tokens and comments that straddle the end of the read buffer are read as if it were contiguous */
+    @Test
+    void tokensSplitAcrossRefillAreReadWhole() throws IOException {
+        byte[] input = new byte[BUFFER_SIZE * 2 + 32];
+        Arrays.fill(input, (byte) ' ');
+        put(input, BUFFER_SIZE - 4, "-123456789");
+        put(input, BUFFER_SIZE * 2 - 10, "# 5 6 7 8 9 10 11 12\n42x");
+        put(input, BUFFER_SIZE * 2 + 20, "17");
+        IntScanner in = new IntScanner(new ByteArrayInputStream(input));
+
+        assertEquals(-123456789, in.nextInt());
+        assertEquals(BUFFER_SIZE + 6, in.offset());
+        assertInvalidAt(in, BUFFER_SIZE * 2 + 11);
+        assertEquals(17, in.nextInt());
+        assertFalse(in.hasNext());
+    }
+
+    /** Bytes with the high bit set, such as a UTF-16 byte order mark, are tokens and not the end of input */
+    @Test
+    void highBytesAreNotEndOfInput() throws IOException {
+        byte[] input = {(byte) 0xFF, (byte) 0xFE, ' ', '1', ' ', (byte) 0xFF, ' ', '2'};
+        IntScanner in = new IntScanner(new ByteArrayInputStream(input));
+
+        assertTrue(in.hasNext());
+        assertInvalidAt(in, 0);
+        assertEquals(1, in.nextInt());
+        assertTrue(in.hasNext());
+        assertInvalidAt(in, 5);
+        assertEquals(2, in.nextInt());
+        assertFalse(in.hasNext());
+    }
+
+    @Test
+    void wordsDecodeAsUtf8() throws IOException {
+        IntScanner in = scanner("load  données.txt,ÿ");
+
+        assertEquals("load", in.nextWord());
+        assertEquals("données.txt", in.nextWord());
+        assertEquals("ÿ", in.nextWord());
+        assertFalse(in.hasNext());
+    }
+
+    /**
+     * Checks that the next token is rejected, with the offset of its first byte in the message.
+     *
+     * @param in the scanner to read from
+     * @param offset the expected offset of the token
+     */
+    private static void assertInvalidAt(IntScanner in, long offset) {
+        NumberFormatException e = assertThrows(NumberFormatException.class, in::nextInt);
+        assertEquals("Invalid integer at offset " + offset, e.getMessage());
+    }
+
+    /**
+     * Creates a scanner over UTF-8 text.
+     * @param text the input
+     * @return the scanner
+     */
+    private static IntScanner scanner(String text) {
+        return new IntScanner(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Writes ASCII text into a byte array.
+     *
+     * @param input the array to write into
+     * @param at the index of the first byte
+     * @param text the text
+     */
+    private static void put(byte[] input, int at, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(bytes, 0, input, at, bytes.length);
+    }
+}
@@ -0,0 +1,117 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the sorting, searching and selection kernels against Arrays.sort,
+ * including the parallel sort's scatter into buckets by the highest byte.
+ */
+class IntSortingTest {
+    /** Length past the parallel threshold, and not a multiple of the chunk count */
+    private static final int PARALLEL_LENGTH = IntSorting.PARALLEL_THRESHOLD * 3 + 7;
+
+    /** The parallel sort falls back to the serial one on a single-thread pool, which would leave the scatter untested */
+    @BeforeAll
+    static void commonPoolIsParallel() {
+        assertTrue(ParallelKernels.isAvailable(), "common pool parallelism " + ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    @Test
+    void sortMatchesArraysSort() {
+        SplittableRandom random = new SplittableRandom(16);
+        for (int length : new int[] {0, 1, 255, 256, 1000, 70_000}) {
+            int[] data = random.ints(length).toArray();
+            assertSorted(data, 0, length, () -> IntSorting.sort(data, 0, length));
+        }
+    }
+
+    /** Values across the whole int range, so every bucket of the highest byte gets elements */
+    @Test
+    void parallelSortScattersAcrossAllBuckets() {
+        int[] data = new SplittableRandom(1).ints(PARALLEL_LENGTH).toArray();
+        assertSorted(data, 0, data.length, () -> IntSorting.parallelSort(data, 0, data.length));
+    }
+
+    /** Small values share a few buckets, negative ones on the other side of the sign flip */
+    @Test
+    void parallelSortWithFewAndSkewedBuckets() {
+        SplittableRandom random = new SplittableRandom(2);
+        int[] narrow = random.ints(PARALLEL_LENGTH, -1000, 1000).toArray();
+        assertSorted(narrow, 0, narrow.length, () -> IntSorting.parallelSort(narrow, 0, narrow.length));
+
+        // One huge bucket and a few tiny ones, sorted with Arrays.sort below the radix threshold
+        int[] skewed = random.ints(PARALLEL_LENGTH, 0, 1 << 20).toArray();
+        for (int i = 0; i < 300; i++) skewed[random.nextInt(skewed.length)] = random.nextInt();
+        skewed[0] = Integer.MIN_VALUE;
+        skewed[1] = Integer.MAX_VALUE;
+        assertSorted(skewed, 0, skewed.length, () -> IntSorting.parallelSort(skewed, 0, skewed.length));
+
+        int[] equal = new int[PARALLEL_LENGTH];
+        Arrays.fill(equal, -7);
+        assertSorted(equal, 0, equal.length, () -> IntSorting.parallelSort(equal, 0, equal.length));
+    }
+
+    /** Only the range moves, and the buckets are written back at the range's offset */
+    @Test
+    void parallelSortLeavesOutsideOfRange() {
+        int[] data = new SplittableRandom(3).ints(PARALLEL_LENGTH + 200).toArray();
+        assertSorted(data, 100, data.length - 100, () -> IntSorting.parallelSort(data, 100, data.length - 100));
+    }
+
+    @Test
+    void binarySearchFindsFirstOccurrence() {
+        int[] data = {-5, 1, 1, 1, 4, 9, 9};
+
+        assertEquals(1, IntSorting.binarySearch(data, 0, data.length, 1));
+        assertEquals(5, IntSorting.binarySearch(data, 0, data.length, 9));
+        assertEquals(-1, IntSorting.binarySearch(data, 0, data.length, -6));
+        assertEquals(-5, IntSorting.binarySearch(data, 0, data.length, 2));
+        assertEquals(-8, IntSorting.binarySearch(data, 0, data.length, 10));
+        assertEquals(-3, IntSorting.binarySearch(data, 2, 5, 0));
+    }
+
+    @Test
+    void selectMatchesSortedRank() {
+        SplittableRandom random = new SplittableRandom(4);
+        for (int length : new int[] {1, 15, 16, 100, 10_000}) {
+            int[] data = random.ints(length, -50, 50).toArray();
+            int[] sorted = data.clone();
+            Arrays.sort(sorted);
+            for (int rank : new int[] {0, length / 3, length - 1}) {
+                assertEquals(sorted[rank], IntSorting.select(data.clone(), 0, length, rank), length + " at " + rank);
+            }
+        }
+
+        // Ascending and descending values interleaved, so the pivots are skewed
+        int[] adversarial = new int[5000];
+        for (int i = 0; i < adversarial.length; i++) adversarial[i] = i % 2 == 0 ? i : -i;
+        int[] sorted = adversarial.clone();
+        Arrays.sort(sorted);
+        assertEquals(sorted[2500], IntSorting.select(adversarial, 0, adversarial.length, 2500));
+
+        assertThrows(IndexOutOfBoundsException.class, () -> IntSorting.select(new int[3], 0, 3, 3));
+    }
+
+    /**
+     * Sorts a range and checks it against Arrays.sort, and that the rest of the array is untouched.
+     *
+     * @param data the array holding the range
+     * @param from the index of the first element to sort
+     * @param to the index after the last element to sort
+     * @param sort the sort to check
+     */
+    private static void assertSorted(int[] data, int from, int to, Runnable sort) {
+        int[] expected = data.clone();
+        Arrays.sort(expected, from, to);
+        sort.run();
+        assertArrayEquals(expected, data, (to - from) + " elements");
+    }
+}
@@ -0,0 +1,108 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the histogram's bucket boundaries, its percentile ranks and rounding,
+ * and its precision against the exact percentiles of recorded values.
+ */
+class LatencyHistogramTest {
+    @Test
+    void emptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.percentile(50));
+        assertEquals(0, histogram.min());
+        assertEquals(0, histogram.max());
+        assertEquals(0, histogram.mean());
+    }
+
+    /** Values below 128 have a bucket each, above it buckets span two values, above 256 four */
+    @Test
+    void bucketEdgesAroundPowersOfTwo() {
+        assertEquals(127, percentileOf(50, 127, 127, 100_000));
+        assertEquals(129, percentileOf(50, 128, 128, 100_000));
+        assertEquals(129, percentileOf(50, 129, 129, 100_000));
+        assertEquals(255, percentileOf(50, 254, 254, 100_000));
+        assertEquals(255, percentileOf(50, 255, 255, 100_000));
+        assertEquals(259, percentileOf(50, 256, 256, 100_000));
+        assertEquals(259, percentileOf(50, 259, 259, 100_000));
+        assertEquals(263, percentileOf(50, 260, 260, 100_000));
+    }
+
+    /** The percentile is the upper end of its bucket, but never above the largest value */
+    @Test
+    void percentileIsCappedAtMaximum() {
+        assertEquals(128, percentileOf(100, 128));
+        assertEquals(256, percentileOf(100, 10, 256));
+        assertEquals(Long.MAX_VALUE, percentileOf(100, Long.MAX_VALUE));
+        assertEquals(Long.MAX_VALUE, percentileOf(50, Long.MAX_VALUE - 1, Long.MAX_VALUE));
+    }
+
+    /** The rank is the percentage of the count rounded up, and at least the first value */
+    @Test
+    void percentileRankRoundsUp() {
+        long[] values = new long[100];
+        for (int i = 0; i < values.length; i++) values[i] = i + 1;
+
+        assertEquals(1, percentileOf(0, values));
+        assertEquals(1, percentileOf(1, values));
+        assertEquals(2, percentileOf(1.01, values));
+        assertEquals(50, percentileOf(50, values));
+        assertEquals(100, percentileOf(99.5, values));
+        assertEquals(100, percentileOf(100, values));
+        assertEquals(2, percentileOf(50, 1, 2, 3));
+        assertEquals(3, percentileOf(67, 1, 2, 3));
+    }
+
+    @Test
+    void summaryTracksRecordedValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(10);
+        histogram.record(1_000_000);
+
+        assertEquals(3, histogram.count());
+        assertEquals(1_000_010, histogram.total());
+        assertEquals(0, histogram.min());
+        assertEquals(1_000_000, histogram.max());
+        assertEquals(1_000_010 / 3.0, histogram.mean());
+    }
+
+    /** Every reported percentile is at or above the exact one, by less than 1/64 of it */
+    @Test
+    void percentilesAreWithinBucketPrecision() {
+        SplittableRandom random = new SplittableRandom(15);
+        long[] values = new long[10_000];
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextLong(1L << random.nextInt(1, 48));
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double percentile : new double[] {1, 10, 50, 90, 99, 99.9, 100}) {
+            long exact = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+            long reported = histogram.percentile(percentile);
+            assertTrue(reported >= exact && reported - exact <= exact / 64, percentile + ": " + reported + " for " + exact);
+        }
+    }
+
+    /**
+     * Records values into a new histogram and reads one percentile.
+     *
+     * @param percentile the percentage to read
+     * @param values the values to record
+     * @return the value at the percentile
+     */
+    private static long percentileOf(double percentile, long... values) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value : values) histogram.record(value);
+        return histogram.percentile(percentile);
+    }
+}
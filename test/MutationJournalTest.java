@@ -0,0 +1,149 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the stack order and the history-drop rules of the journal with entries that log their calls.
+ */
+class MutationJournalTest {
+    /** Calls made on the entries, in order */
+    private final List<String> log = new ArrayList<>();
+
+    /** Entry with a set size, which may change when it is undone as append entries do */
+    private final class LoggedEntry implements MutationJournal.Entry {
+        private final String name;
+        private final long doneBytes;
+        private final long undoneBytes;
+        private boolean undone;
+
+        LoggedEntry(String name, long doneBytes, long undoneBytes) {
+            this.name = name;
+            this.doneBytes = doneBytes;
+            this.undoneBytes = undoneBytes;
+        }
+
+        LoggedEntry(String name, long bytes) {
+            this(name, bytes, bytes);
+        }
+
+        @Override
+        public long bytes() {
+            return undone ? undoneBytes : doneBytes;
+        }
+
+        @Override
+        public void undo() {
+            undone = true;
+            log.add("undo " + name);
+        }
+
+        @Override
+        public void redo() {
+            undone = false;
+            log.add("redo " + name);
+        }
+    }
+
+    @Test
+    void undoAndRedoRunInStackOrder() {
+        MutationJournal journal = new MutationJournal(1000);
+        journal.record(new LoggedEntry("a", 10));
+        journal.record(new LoggedEntry("b", 10));
+
+        assertTrue(journal.undo());
+        assertTrue(journal.undo());
+        assertFalse(journal.undo());
+        assertTrue(journal.redo());
+        assertTrue(journal.redo());
+        assertFalse(journal.redo());
+        assertEquals(List.of("undo b", "undo a", "redo a", "redo b"), log);
+        assertEquals(2, journal.undoDepth());
+        assertEquals(20, journal.bytes());
+    }
+
+    @Test
+    void recordingDropsRedoHistory() {
+        MutationJournal journal = new MutationJournal(1000);
+        journal.record(new LoggedEntry("a", 10));
+        journal.record(new LoggedEntry("b", 10));
+        journal.undo();
+
+        journal.record(new LoggedEntry("c", 10));
+        assertEquals(0, journal.redoDepth());
+        assertFalse(journal.redo());
+        assertEquals(20, journal.bytes());
+
+        journal.undo();
+        journal.undo();
+        assertEquals(List.of("undo b", "undo c", "undo a"), log);
+    }
+
+    @Test
+    void entryLargerThanBudgetClearsJournal() {
+        MutationJournal journal = new MutationJournal(100);
+        journal.record(new LoggedEntry("a", 10));
+        journal.record(new LoggedEntry("b", 10));
+        journal.undo();
+
+        assertFalse(journal.record(new LoggedEntry("big", 101)));
+        assertEquals(0, journal.undoDepth());
+        assertEquals(0, journal.redoDepth());
+        assertEquals(0, journal.bytes());
+        assertFalse(journal.undo());
+    }
+
+    @Test
+    void budgetDropsOldestChangesFirst() {
+        MutationJournal journal = new MutationJournal(100);
+        journal.record(new LoggedEntry("a", 40));
+        journal.record(new LoggedEntry("b", 40));
+        assertTrue(journal.record(new LoggedEntry("c", 40)));
+
+        assertEquals(2, journal.undoDepth());
+        assertEquals(80, journal.bytes());
+        while (journal.undo()) {
+            // Undoes everything that is left
+        }
+        assertEquals(List.of("undo c", "undo b"), log);
+    }
+
+    @Test
+    void growingUndoneEntryDropsUndoHistoryFirst() {
+        MutationJournal journal = new MutationJournal(100);
+        journal.record(new LoggedEntry("a", 30));
+        journal.record(new LoggedEntry("b", 10, 90));
+
+        assertTrue(journal.undo());
+        assertEquals(0, journal.undoDepth());
+        assertEquals(1, journal.redoDepth());
+        assertEquals(90, journal.bytes());
+        assertTrue(journal.redo());
+    }
+
+    @Test
+    void redoHistoryOverBudgetDropsOldestUndoneChange() {
+        MutationJournal journal = new MutationJournal(100);
+        journal.record(new LoggedEntry("a", 10, 60));
+        journal.record(new LoggedEntry("b", 10, 60));
+        journal.undo();
+        journal.undo();
+
+        // b was undone first, so it is the oldest redo entry
+        assertEquals(1, journal.redoDepth());
+        assertEquals(60, journal.bytes());
+        assertTrue(journal.redo());
+        assertFalse(journal.redo());
+        assertEquals(List.of("undo b", "undo a", "redo a"), log);
+    }
+
+    @Test
+    void nonPositiveLimitIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new MutationJournal(0));
+    }
+}
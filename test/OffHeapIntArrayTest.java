@@ -0,0 +1,44 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the off-heap list against a reference list, and removals that
+ * shift elements across its direct buffer chunks.
+ */
+class OffHeapIntArrayTest extends IntListReferenceTest {
+    /** Number of elements per chunk of the list */
+    private static final int CHUNK_SIZE = 1 << 20;
+
+    @Override
+    IntList create() {
+        return new OffHeapIntArray();
+    }
+
+    @Test
+    void removalsShiftAcrossChunks() {
+        int[] expected = new int[CHUNK_SIZE * 2 + 100];
+        for (int i = 0; i < expected.length; i++) expected[i] = i;
+        OffHeapIntArray list = new OffHeapIntArray();
+        list.addAll(expected, 0, expected.length);
+
+        // Around each chunk boundary, then the first and the last element
+        int[] removals = {CHUNK_SIZE - 1, CHUNK_SIZE, CHUNK_SIZE * 2 - 3, 0, CHUNK_SIZE * 2 + 94};
+        int size = expected.length;
+        for (int index : removals) {
+            System.arraycopy(expected, index + 1, expected, index, size - index - 1);
+            size--;
+            list.remove(index);
+            assertEquals(size, list.longSize());
+            assertArrayEquals(Arrays.copyOf(expected, size), list.toArray(), "remove at " + index);
+        }
+
+        // The slot freed at the end is reused by the next append
+        list.add(-1);
+        assertEquals(-1, list.getValue(size));
+        assertEquals(size, list.longIndexOf(-1));
+    }
+}
@@ -0,0 +1,134 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checks the parallel import against {@link IntScanner} on files large enough to be
+ * cut into several chunks, including cuts that fall inside a long comment.
+ */
+class ParallelImporterTest {
+    /** Smallest chunk of the importer, files several times larger are cut into several chunks */
+    private static final int MIN_CHUNK_BYTES = 1 << 20;
+
+    /** Directory the imported files are written to */
+    @TempDir
+    Path files;
+
+    /** Messages of the invalid tokens reported by the importer */
+    private final List<String> invalid = new ArrayList<>();
+
+    /** Numbers, signs, overflow and malformed tokens, comments and mixed line ends */
+    @Test
+    void mixedInputMatchesScanner() throws IOException {
+        SplittableRandom random = new SplittableRandom(24);
+        String[] odd = {"2147483647", "-2147483648", "2147483648", "-2147483649", "99999999999999999999",
+                "+12", "-0", "-", "+", "12x", "x12", "1-2", "--3", "ÿ"};
+        StringBuilder text = new StringBuilder();
+        while (text.length() < MIN_CHUNK_BYTES * 3) {
+            switch (random.nextInt(12)) {
+                case 0:
+                    text.append(odd[random.nextInt(odd.length)]);
+                    break;
+                case 1:
+                    text.append("# comment 1 2 3");
+                    break;
+                case 2:
+                    text.append("\r\n");
+                    continue;
+                case 3:
+                    text.append('\n');
+                    continue;
+                default:
+                    text.append(random.nextInt() >> random.nextInt(32));
+            }
+            text.append(random.nextInt(4) == 0 ? "," : random.nextInt(8) == 0 ? "\t" : " ");
+        }
+
+        assertMatchesScanner(write(text.toString()));
+    }
+
+    /** Without a line end near the nominal ends, the chunks are cut inside the comment and its text is skipped */
+    @Test
+    void commentLongerThanChunkIsSkipped() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; text.length() < MIN_CHUNK_BYTES / 2; i++) text.append(i).append('\n');
+        text.append("5 #");
+        for (int i = 0; text.length() < MIN_CHUNK_BYTES * 4; i++) text.append(' ').append(i).append(" x");
+        text.append("\n7 y 8\r\n# last line without an end 9");
+
+        assertMatchesScanner(write(text.toString()));
+    }
+
+    @Test
+    void valuesPastMaximumAreNotAppended() throws IOException {
+        Path file = write("1 2\n3 4 5\n");
+        DynamicArray list = new DynamicArray(2);
+        list.add(0);
+
+        ParallelImporter.Result result = new ParallelImporter(4).importFile(file, list, invalid::add);
+        assertArrayEquals(new int[] {0, 1, 2, 3}, list.toArray());
+        assertEquals(3, result.appended());
+        assertTrue(result.truncated());
+
+        list.clear();
+        result = new ParallelImporter(5).importFile(file, list, invalid::add);
+        assertEquals(5, result.appended());
+        assertFalse(result.truncated());
+    }
+
+    /**
+     * Imports a file and compares the values and invalid tokens with those read by the scanner.
+     * @param file the file to import
+     * @throws IOException if the file cannot be read
+     */
+    private void assertMatchesScanner(Path file) throws IOException {
+        List<Integer> expectedValues = new ArrayList<>();
+        List<String> expectedInvalid = new ArrayList<>();
+        try (InputStream input = Files.newInputStream(file)) {
+            IntScanner in = new IntScanner(input);
+            while (in.hasNext()) {
+                try {
+                    expectedValues.add(in.nextInt());
+                } catch (NumberFormatException e) {
+                    expectedInvalid.add(e.getMessage());
+                }
+            }
+        }
+
+        DynamicArray list = new DynamicArray(2);
+        invalid.clear();
+        ParallelImporter.Result result = new ParallelImporter(GrowthPolicy.MAX_ARRAY_LENGTH)
+                .importFile(file, list, invalid::add);
+
+        assertTrue(result.chunks() > 2, result.chunks() + " chunks");
+        assertArrayEquals(IntListReferenceTest.toArray(expectedValues), list.toArray());
+        assertEquals(expectedInvalid, invalid);
+        assertEquals(expectedValues.size(), result.appended());
+        assertEquals(expectedInvalid.size(), result.invalid());
+    }
+
+    /**
+     * Writes text to a new file.
+     * @param text the content, written as UTF-8
+     * @return the file
+     * @throws IOException if the file cannot be written
+     */
+    private Path write(String text) throws IOException {
+        Path file = Files.createTempFile(files, "import", ".txt");
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
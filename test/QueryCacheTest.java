@@ -0,0 +1,198 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that cached query results are reused on an unchanged list, extended after
+ * appends and recomputed after other changes, and that the budget evicts the least
+ * recently used results.
+ */
+class QueryCacheTest {
+    /** Budget large enough to keep every result of these tests */
+    private static final long LIMIT = 1 << 20;
+
+    @Test
+    void unchangedListIsAnsweredFromStoredResult() {
+        DynamicArray list = listOf(1, 2, 1);
+        QueryCache cache = new QueryCache(list, LIMIT);
+
+        int[] indices = cache.indicesOf(1);
+        assertArrayEquals(new int[] {0, 2}, indices);
+        assertSame(indices, cache.indicesOf(1));
+        assertSame(cache.stats(), cache.stats());
+        assertEquals("1,2,1", cache.render().toString());
+        assertEquals("1,2,1", cache.render().toString());
+        assertCounts(cache, 3, 0, 3);
+    }
+
+    @Test
+    void appendsExtendStoredResults() {
+        DynamicArray list = listOf(1, 2, 1);
+        QueryCache cache = new QueryCache(list, LIMIT);
+        cache.indicesOf(1);
+        cache.indicesOf(2);
+        cache.stats();
+        cache.render();
+
+        list.add(1);
+        list.addAll(new int[] {7, 1}, 0, 2);
+        assertArrayEquals(new int[] {0, 2, 3, 5}, cache.indicesOf(1));
+        assertArrayEquals(new int[] {1}, cache.indicesOf(2));
+        IntListReferenceTest.assertStats(List.of(1, 2, 1, 1, 7, 1), cache.stats(), "appends");
+        assertEquals("1,2,1,1,7,1", cache.render().toString());
+        assertCounts(cache, 0, 4, 4);
+    }
+
+    /** Set, remove, replace, undo and redo may change elements before the stored size */
+    @Test
+    void otherChangesRecomputeResults() {
+        DynamicArray list = listOf(1, 2, 1, 3);
+        list.setJournalLimit(1 << 20);
+        list.checkpoint();
+        QueryCache cache = new QueryCache(list, LIMIT);
+        cache.indicesOf(1);
+
+        list.set(1, 1);
+        assertArrayEquals(new int[] {0, 1, 2}, cache.indicesOf(1));
+        list.remove(0);
+        assertArrayEquals(new int[] {0, 1}, cache.indicesOf(1));
+        list.replaceAll(3, 1);
+        list.checkpoint();
+        assertArrayEquals(new int[] {0, 1, 2}, cache.indicesOf(1));
+        assertTrue(list.undo());
+        assertArrayEquals(new int[] {0, 1}, cache.indicesOf(1));
+        assertTrue(list.redo());
+        assertArrayEquals(new int[] {0, 1, 2}, cache.indicesOf(1));
+        assertCounts(cache, 0, 0, 6);
+
+        // An append after the last rewrite extends again
+        list.add(1);
+        assertArrayEquals(new int[] {0, 1, 2, 3}, cache.indicesOf(1));
+        assertCounts(cache, 0, 1, 6);
+    }
+
+    /** Each single-index result retains 100 bytes, so a budget of 250 keeps two of them */
+    @Test
+    void leastRecentlyUsedResultIsEvictedOverBudget() {
+        DynamicArray list = listOf(10, 20, 30);
+        QueryCache cache = new QueryCache(list, 250);
+
+        cache.indicesOf(10);
+        cache.indicesOf(20);
+        cache.indicesOf(10);
+        cache.indicesOf(30);
+        assertTrue(cache.report().endsWith("2 results, 200 bytes"), cache.report());
+
+        // 20 was used least recently, so it is the one computed again
+        cache.indicesOf(10);
+        cache.indicesOf(30);
+        cache.indicesOf(20);
+        assertCounts(cache, 3, 0, 4);
+    }
+
+    @Test
+    void listsTooLongOrUntrackedAreQueriedDirectly() {
+        DynamicArray list = listOf(1, 2, 3, 4, 5);
+        assertNull(new QueryCache(list, 12 * 5 - 1).render());
+
+        SegmentedIntArray untracked = new SegmentedIntArray();
+        untracked.addAll(new int[] {4, 4}, 0, 2);
+        QueryCache cache = new QueryCache(untracked, LIMIT);
+        assertArrayEquals(new int[] {0, 1}, cache.indicesOf(4));
+        assertNull(cache.render());
+        assertCounts(cache, 0, 0, 0);
+    }
+
+    /** Random changes mixed with queries, every answer compared to the list's own */
+    @Test
+    void cachedAnswersMatchListAfterRandomChanges() {
+        SplittableRandom random = new SplittableRandom(21);
+        DynamicArray list = new DynamicArray(2);
+        list.setJournalLimit(1 << 20);
+        QueryCache cache = new QueryCache(list, 4096);
+
+        for (int step = 0; step < IntListReferenceTest.OPERATIONS; step++) {
+            int size = list.size();
+            String operation;
+            switch (random.nextInt(8)) {
+                case 0:
+                case 1:
+                    operation = "add";
+                    list.add(random.nextInt(8));
+                    break;
+                case 2: {
+                    int[] values = IntListReferenceTest.values(random, 8, random.nextInt(10));
+                    operation = "addAll";
+                    list.addAll(values, 0, values.length);
+                    break;
+                }
+                case 3:
+                    if (size == 0) continue;
+                    operation = "set";
+                    list.set(random.nextInt(size), random.nextInt(8));
+                    break;
+                case 4:
+                    if (size == 0) continue;
+                    operation = "remove";
+                    list.remove(random.nextInt(size));
+                    break;
+                case 5:
+                    operation = "replaceAll";
+                    list.replaceAll(random.nextInt(8), random.nextInt(8));
+                    break;
+                case 6:
+                    operation = "undo";
+                    list.undo();
+                    break;
+                default:
+                    operation = "redo";
+                    list.redo();
+            }
+            list.checkpoint();
+
+            int value = random.nextInt(8);
+            assertArrayEquals(list.indicesOf(value), cache.indicesOf(value), "indices of " + value + " after " + operation);
+            List<Integer> reference = new ArrayList<>();
+            list.forEach(reference::add);
+            IntListReferenceTest.assertStats(reference, cache.stats(), operation);
+            CharSequence rendered = cache.render();
+            if (rendered != null) {
+                String expected = reference.stream().map(String::valueOf).collect(Collectors.joining(","));
+                assertEquals(expected, rendered.toString(), "render after " + operation);
+            }
+        }
+    }
+
+    /**
+     * Checks the query counts of the cache report.
+     *
+     * @param cache the cache
+     * @param hits the expected number of stored answers
+     * @param extended the expected number of extended answers
+     * @param computed the expected number of computed answers
+     */
+    private static void assertCounts(QueryCache cache, long hits, long extended, long computed) {
+        String counts = String.format("Query cache: %d hits, %d extended, %d computed,", hits, extended, computed);
+        assertTrue(cache.report().startsWith(counts), cache.report());
+    }
+
+    /**
+     * Creates an array holding values.
+     * @param values the values
+     * @return the new array
+     */
+    private static DynamicArray listOf(int... values) {
+        DynamicArray list = new DynamicArray(2);
+        list.addAll(values, 0, values.length);
+        return list;
+    }
+}
@@ -0,0 +1,43 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the segmented list against a reference list, and removals that
+ * shift elements across chunk boundaries.
+ */
+class SegmentedIntArrayTest extends IntListReferenceTest {
+    /** Number of elements per chunk of the list */
+    private static final int CHUNK_SIZE = 1 << 14;
+
+    @Override
+    IntList create() {
+        return new SegmentedIntArray();
+    }
+
+    @Test
+    void removalsShiftAcrossChunks() {
+        int[] expected = new int[CHUNK_SIZE * 3 + 100];
+        for (int i = 0; i < expected.length; i++) expected[i] = i;
+        SegmentedIntArray list = new SegmentedIntArray();
+        list.addAll(expected, 0, expected.length);
+
+        // Around each chunk boundary, then the first and the last element, until the last chunk is released
+        int[] removals = {CHUNK_SIZE - 1, CHUNK_SIZE, CHUNK_SIZE * 2 - 1, CHUNK_SIZE * 2, 0};
+        int size = expected.length;
+        for (int index : removals) {
+            System.arraycopy(expected, index + 1, expected, index, size - index - 1);
+            size--;
+            list.remove(index);
+            assertArrayEquals(Arrays.copyOf(expected, size), list.toArray(), "remove at " + index);
+        }
+        while (size > CHUNK_SIZE * 3 - 2) {
+            list.remove(--size);
+        }
+        list.add(-1);
+        expected[size++] = -1;
+        assertArrayEquals(Arrays.copyOf(expected, size), list.toArray());
+    }
+}
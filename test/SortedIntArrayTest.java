@@ -0,0 +1,57 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the sorted list against a reference list that is sorted after every
+ * operation, since the sorted list places every value by its order, not by index.
+ */
+class SortedIntArrayTest extends IntListReferenceTest {
+    @Override
+    IntList create() {
+        return new SortedIntArray();
+    }
+
+    @Override
+    String apply(IntList list, List<Integer> reference, SplittableRandom random, int bound) {
+        String operation = super.apply(list, reference, random, bound);
+        Collections.sort(reference);
+        return operation;
+    }
+
+    /** A replaced value leaves its index and is inserted again at its sorted position */
+    @Test
+    void setMovesValueToSortedPosition() {
+        SortedIntArray list = new SortedIntArray();
+        list.addAll(new int[] {5, 1, 3, 3, 9}, 0, 5);
+
+        list.set(0, 7);
+        assertArrayEquals(new int[] {3, 3, 5, 7, 9}, list.toArray());
+        list.set(4, Integer.MIN_VALUE);
+        assertArrayEquals(new int[] {Integer.MIN_VALUE, 3, 3, 5, 7}, list.toArray());
+        list.set(2, 3);
+        assertArrayEquals(new int[] {Integer.MIN_VALUE, 3, 3, 5, 7}, list.toArray());
+    }
+
+    /** The run of replaced values moves past the values between the old and the new value, in both directions */
+    @Test
+    void replaceAllMovesRunAcrossNeighbours() {
+        SortedIntArray list = new SortedIntArray();
+        list.addAll(new int[] {1, 2, 2, 2, 4, 6, 6, 8}, 0, 8);
+
+        assertEquals(3, list.replaceAll(2, 7));
+        assertArrayEquals(new int[] {1, 4, 6, 6, 7, 7, 7, 8}, list.toArray());
+        assertEquals(2, list.replaceAll(6, 0));
+        assertArrayEquals(new int[] {0, 0, 1, 4, 7, 7, 7, 8}, list.toArray());
+        assertEquals(3, list.replaceAll(7, 8));
+        assertArrayEquals(new int[] {0, 0, 1, 4, 8, 8, 8, 8}, list.toArray());
+        assertEquals(1, list.replaceAll(1, 1));
+        assertEquals(0, list.replaceAll(5, 1));
+        assertArrayEquals(new int[] {0, 0, 1, 4, 8, 8, 8, 8}, list.toArray());
+    }
+}
@@ -0,0 +1,138 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checks what each overflow policy does with the values read once the list is full.
+ */
+class StreamIngesterTest {
+    /** Directory the spill files are written to */
+    @TempDir
+    Path files;
+
+    /** Messages of the invalid tokens reported by the last ingest */
+    private final List<String> invalid = new ArrayList<>();
+
+    @Test
+    void inputBelowCapIsAppendedWhole() throws IOException {
+        DynamicArray list = new DynamicArray(2);
+        StreamIngester.Result result = ingest(new StreamIngester(10, StreamIngester.OverflowPolicy.REJECT, null),
+                "1 2 x 3", list);
+
+        assertArrayEquals(new int[] {1, 2, 3}, list.toArray());
+        assertEquals(3, result.appended());
+        assertEquals(0, result.overflowed());
+        assertEquals(1, result.invalid());
+        assertEquals(List.of("Invalid integer at offset 4"), invalid);
+        assertFalse(result.truncated());
+    }
+
+    @Test
+    void rejectStopsReadingAtCap() throws IOException {
+        DynamicArray list = new DynamicArray(2);
+        list.add(100);
+        StreamIngester ingester = new StreamIngester(4, StreamIngester.OverflowPolicy.REJECT, null);
+
+        StreamIngester.Result result = ingest(ingester, "1 2 3 4 5", list);
+        assertArrayEquals(new int[] {100, 1, 2, 3}, list.toArray());
+        assertEquals(3, result.appended());
+        assertTrue(result.truncated());
+
+        // Input that ends exactly at the cap is not truncated
+        list.clear();
+        result = ingest(ingester, "1 2 3 4 ", list);
+        assertEquals(4, result.appended());
+        assertFalse(result.truncated());
+    }
+
+    @Test
+    void spillAppendsRestToFile() throws IOException {
+        Path spill = files.resolve("spill.txt");
+        Files.writeString(spill, "7" + System.lineSeparator());
+        DynamicArray list = new DynamicArray(2);
+        StreamIngester ingester = new StreamIngester(3, StreamIngester.OverflowPolicy.SPILL, spill);
+
+        StreamIngester.Result result = ingest(ingester, "1 2 3 4 bad -5 2147483647", list);
+        assertArrayEquals(new int[] {1, 2, 3}, list.toArray());
+        assertEquals(3, result.appended());
+        assertEquals(3, result.overflowed());
+        assertEquals(1, result.invalid());
+        assertFalse(result.truncated());
+        assertEquals(List.of("7", "4", "-5", "2147483647"), Files.readAllLines(spill));
+    }
+
+    /** Fewer values than the cap after it was reached: the oldest elements of the list make room for them */
+    @Test
+    void keepLastEvictsOldestElements() throws IOException {
+        DynamicArray list = new DynamicArray(2);
+        list.addAll(new int[] {100, 101}, 0, 2);
+        StreamIngester ingester = new StreamIngester(5, StreamIngester.OverflowPolicy.KEEP_LAST, null);
+
+        StreamIngester.Result result = ingest(ingester, "1 2 3 4 5 6", list);
+        assertArrayEquals(new int[] {2, 3, 4, 5, 6}, list.toArray());
+        assertEquals(3, result.appended());
+        assertEquals(3, result.overflowed());
+    }
+
+    /** As many values as the cap or more: the ring alone holds the result, once it wrapped or exactly full */
+    @Test
+    void keepLastWrapsRing() throws IOException {
+        StreamIngester ingester = new StreamIngester(5, StreamIngester.OverflowPolicy.KEEP_LAST, null);
+        DynamicArray list = new DynamicArray(2);
+        StreamIngester.Result result = ingest(ingester, "1 2 3 4 5 6 7 8 9 10", list);
+        assertArrayEquals(new int[] {6, 7, 8, 9, 10}, list.toArray());
+        assertEquals(5, result.overflowed());
+
+        list.clear();
+        result = ingest(ingester, "1 2 3 4 5 6 7 8 9 10 11 12 13", list);
+        assertArrayEquals(new int[] {9, 10, 11, 12, 13}, list.toArray());
+        assertEquals(8, result.overflowed());
+
+        list.clear();
+        ingest(new StreamIngester(0, StreamIngester.OverflowPolicy.KEEP_LAST, null), "1 2", list);
+        assertEquals(0, list.size());
+    }
+
+    /** A cap larger than the initial ring makes it grow before the first wrap */
+    @Test
+    void keepLastGrowsRingBeforeWrapping() throws IOException {
+        int cap = 100_000;
+        int count = 250_000;
+        String input = IntStream.range(0, count).mapToObj(Integer::toString).collect(Collectors.joining(" "));
+        DynamicArray list = new DynamicArray(2);
+
+        StreamIngester.Result result = ingest(new StreamIngester(cap, StreamIngester.OverflowPolicy.KEEP_LAST, null),
+                input, list);
+        assertArrayEquals(IntStream.range(count - cap, count).toArray(), list.toArray());
+        assertEquals(count - cap, result.overflowed());
+    }
+
+    /**
+     * Ingests text into a list, collecting the invalid token messages.
+     *
+     * @param ingester the ingester
+     * @param text the input
+     * @param list the list to append to
+     * @return the outcome
+     * @throws IOException if the spill file cannot be written
+     */
+    private StreamIngester.Result ingest(StreamIngester ingester, String text, IntList list) throws IOException {
+        invalid.clear();
+        IntScanner in = new IntScanner(new ByteArrayInputStream(text.getBytes(StandardCharsets.US_ASCII)));
+        return ingester.ingest(in, list, invalid::add);
+    }
+}